@@ -0,0 +1,70 @@
+package com.travel.loginregistration.service;
+
+import com.travel.loginregistration.dto.HotelCalendar;
+import com.travel.loginregistration.model.HotelRoom;
+import com.travel.loginregistration.repository.HotelRoomBookingRepository.ActiveStay;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/*
+    Time (avgt, us/op) to build one room's calendar for a whole year from its overlapping stays, the per-room
+    step of GET /api/destinations/hotels/{hotelId}/calendar once the stays are loaded. The target is well under
+    1000 us per room-year even for a busy room; stays are random 1-14 night bookings of 1-3 units across the year.
+    Run with: mvn -Pjmh test-compile exec:exec -Djmh.args="HotelCalendarBenchmark"
+*/
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class HotelCalendarBenchmark {
+
+    private record Stay(UUID getRoomId, LocalDate getCheckIn, LocalDate getCheckOut, Integer getRoomsBooked)
+            implements ActiveStay { }
+
+    @Param({"50", "500", "5000"})
+    public int stays;
+
+    private HotelRoom room;
+    private List<ActiveStay> roomStays;
+    private long firstDay;
+
+    @Setup
+    public void setUp() {
+        room = new HotelRoom();
+        room.setId(UUID.randomUUID());
+        room.setName("Deluxe King");
+        room.setTotalRooms(20);
+        LocalDate from = LocalDate.of(2030, 1, 1);
+        firstDay = from.toEpochDay();
+        Random random = new Random(42);
+        roomStays = new ArrayList<>(stays);
+        for (int i = 0; i < stays; i++) {
+            LocalDate checkIn = from.plusDays(random.nextInt(DestinationService.MAX_CALENDAR_DAYS));
+            roomStays.add(new Stay(room.getId(), checkIn, checkIn.plusDays(1 + random.nextInt(14)), 1 + random.nextInt(3)));
+        }
+    }
+
+    @Benchmark
+    public HotelCalendar.RoomCalendar roomYear() {
+        return DestinationService.toRoomCalendar(room, roomStays, firstDay, DestinationService.MAX_CALENDAR_DAYS);
+    }
+}
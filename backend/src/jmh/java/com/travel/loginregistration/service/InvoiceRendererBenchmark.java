@@ -0,0 +1,90 @@
+package com.travel.loginregistration.service;
+
+import com.travel.loginregistration.model.HotelRoomBooking;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/*
+    Single-invoice render time (avgt, ms/op) and render throughput (thrpt, ops/ms) with 1, 4 and 8 threads
+    rendering at once. Each thread lays out a whole room invoice the way a render worker does, so the 4 and 8
+    thread runs show how far rendering scales before the shared fonts or the allocator become the limit.
+    Run with: mvn -Pjmh test-compile exec:exec -Djmh.args="InvoiceRendererBenchmark"
+*/
+
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.AverageTime, Mode.Throughput})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class InvoiceRendererBenchmark {
+
+    private InvoiceRenderer renderer;
+    private HotelRoomBooking booking;
+
+    @Setup
+    public void setUp() {
+        // The pool is not used: each benchmark thread renders directly, like one render worker.
+        renderer = new InvoiceRenderer(1, 1);
+        booking = new HotelRoomBooking();
+        booking.setId(UUID.randomUUID());
+        booking.setRoomId(UUID.randomUUID());
+        booking.setCheckIn(LocalDate.of(2030, 3, 10));
+        booking.setCheckOut(LocalDate.of(2030, 3, 14));
+        booking.setRoomsBooked(2);
+        booking.setTotalGuests(4);
+        booking.setTotalPrice(new BigDecimal("480.00"));
+        booking.setCreatedAt(Instant.parse("2030-01-05T09:30:00Z"));
+        booking.setHotelName("Sea Pearl Beach Resort");
+        booking.setRoomName("Deluxe King");
+        booking.setCustomerName("Nadia Rahman");
+        booking.setUserEmail("nadia@example.com");
+        booking.setTransactionId("TXN-0A1B2C3D4E5F6");
+        booking.setCardLast4("4242");
+        booking.setStatus("CONFIRMED");
+    }
+
+    @TearDown
+    public void tearDown() {
+        renderer.stop();
+    }
+
+    @Benchmark
+    @Threads(1)
+    public byte[] render1Thread() {
+        return render();
+    }
+
+    @Benchmark
+    @Threads(4)
+    public byte[] render4Threads() {
+        return render();
+    }
+
+    @Benchmark
+    @Threads(8)
+    public byte[] render8Threads() {
+        return render();
+    }
+
+    private byte[] render() {
+        return renderer.renderRoomInvoice(booking, "Sea Pearl Beach Resort", "Cox's Bazar",
+                "Nadia Rahman", "House 12, Road 4, Dhanmondi, Dhaka", "nadia@example.com");
+    }
+}
@@ -1,6 +1,9 @@
 package com.travel.loginregistration.adminsocket;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.travel.loginregistration.dto.DestinationCard;
+import com.travel.loginregistration.dto.ItineraryItem;
+import com.travel.loginregistration.dto.PackageDetails;
 import com.travel.loginregistration.model.AdminUser;
 import com.travel.loginregistration.model.TravelPackage;
 import com.travel.loginregistration.model.PackageItinerary;
@@ -13,6 +16,18 @@ import com.travel.loginregistration.repository.PackageItineraryRepository;
 import com.travel.loginregistration.repository.DestinationRepository;
 import com.travel.loginregistration.repository.HotelRepository;
 import com.travel.loginregistration.repository.HotelRoomRepository;
+import com.travel.loginregistration.security.AdminSessions;
+import com.travel.loginregistration.security.JwtUtil;
+import com.travel.loginregistration.service.BookingAuditLog;
+import com.travel.loginregistration.service.CatalogService;
+import com.travel.loginregistration.service.CatalogSnapshot;
+import com.travel.loginregistration.service.HotelAttributes;
+import com.travel.loginregistration.service.BookingEvents;
+import com.travel.loginregistration.service.HistoryCache;
+import com.travel.loginregistration.service.InvoiceRenderer;
+import com.travel.loginregistration.service.InvoiceStore;
+import com.travel.loginregistration.service.HotelSearchCache;
+import com.travel.loginregistration.service.PackageSeatReservations;
 import jakarta.annotation.PostConstruct;
 import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.transaction.annotation.Transactional;
@@ -25,7 +40,6 @@ import java.math.BigDecimal;
 import java.net.ServerSocket;
 import java.net.Socket;
 import java.util.*;
-import java.util.concurrent.ConcurrentHashMap;
 
 /*
  * A simple socket server for admin operations on travel packages.
@@ -43,14 +57,33 @@ public class AdminSocketServer {
     private final HotelRoomRepository roomRepo;
     private final BCryptPasswordEncoder encoder;
     private final TransactionTemplate txTemplate;
+    private final PackageSeatReservations seats;
+    private final BookingAuditLog auditLog;
+    private final HotelSearchCache searchCache;
+    private final HistoryCache historyCache;
+    private final BookingEvents events;
+    private final InvoiceStore invoiceStore;
+    private final InvoiceRenderer invoiceRenderer;
+    private final JwtUtil jwtUtil;
+    private final CatalogService catalog;
     private final ObjectMapper mapper = new ObjectMapper();
-    private final Map<String, UUID> sessions = new ConcurrentHashMap<>();
+    private final AdminSessions sessions;
 
     public AdminSocketServer(AdminUserRepository adminRepo, TravelPackageRepository pkgRepo,
                              PackageItineraryRepository itineraryRepo, DestinationRepository destinationRepo,
                              HotelRepository hotelRepo, HotelRoomRepository roomRepo,
                              BCryptPasswordEncoder encoder,
-                             PlatformTransactionManager txManager) {
+                             PlatformTransactionManager txManager,
+                             PackageSeatReservations seats,
+                             BookingAuditLog auditLog,
+                             HotelSearchCache searchCache,
+                             HistoryCache historyCache,
+                             BookingEvents events,
+                             InvoiceStore invoiceStore,
+                             InvoiceRenderer invoiceRenderer,
+                             JwtUtil jwtUtil,
+                             CatalogService catalog,
+                             AdminSessions sessions) {
         this.adminRepo = adminRepo;
         this.pkgRepo = pkgRepo;
         this.itineraryRepo = itineraryRepo;
@@ -59,6 +92,16 @@ public class AdminSocketServer {
         this.roomRepo = roomRepo;
         this.encoder = encoder;
         this.txTemplate = new TransactionTemplate(txManager);
+        this.seats = seats;
+        this.auditLog = auditLog;
+        this.searchCache = searchCache;
+        this.historyCache = historyCache;
+        this.events = events;
+        this.invoiceStore = invoiceStore;
+        this.invoiceRenderer = invoiceRenderer;
+        this.jwtUtil = jwtUtil;
+        this.catalog = catalog;
+        this.sessions = sessions;
     }
 
     // Starts the socket server thread as soon as Spring finishes wiring this bean.
@@ -105,26 +148,34 @@ public class AdminSocketServer {
                 case "CREATE" -> {
                     if (!authorized(req)) { res = err("UNAUTHORIZED"); break; }
                     res = txTemplate.execute(status -> createPackage(req));
+                    catalog.refresh();
                 }
                 case "DEST_CREATE" -> {
                     if (!authorized(req)) { res = err("UNAUTHORIZED"); break; }
                     res = txTemplate.execute(status -> createDestination(req));
+                    catalog.refresh();
                 }
                 case "UPDATE" -> {
                     if (!authorized(req)) { res = err("UNAUTHORIZED"); break; }
                     res = txTemplate.execute(status -> updatePackage(req));
+                    catalog.refresh();
+                    invalidateSeats(req);
                 }
                 case "DEST_UPDATE" -> {
                     if (!authorized(req)) { res = err("UNAUTHORIZED"); break; }
                     res = txTemplate.execute(status -> updateDestination(req));
+                    catalog.refresh();
                 }
                 case "DELETE" -> {
                     if (!authorized(req)) { res = err("UNAUTHORIZED"); break; }
                     res = txTemplate.execute(status -> deletePackage(req));
+                    catalog.refresh();
+                    invalidateSeats(req);
                 }
                 case "DEST_DELETE" -> {
                     if (!authorized(req)) { res = err("UNAUTHORIZED"); break; }
                     res = txTemplate.execute(status -> deleteDestination(req));
+                    catalog.refresh();
                 }
                 case "HOTEL_LIST" -> {
                     if (!authorized(req)) { res = err("UNAUTHORIZED"); break; }
@@ -133,14 +184,17 @@ public class AdminSocketServer {
                 case "HOTEL_CREATE" -> {
                     if (!authorized(req)) { res = err("UNAUTHORIZED"); break; }
                     res = txTemplate.execute(status -> createHotel(req));
+                    catalog.refresh();
                 }
                 case "HOTEL_UPDATE" -> {
                     if (!authorized(req)) { res = err("UNAUTHORIZED"); break; }
                     res = txTemplate.execute(status -> updateHotel(req));
+                    catalog.refresh();
                 }
                 case "HOTEL_DELETE" -> {
                     if (!authorized(req)) { res = err("UNAUTHORIZED"); break; }
                     res = txTemplate.execute(status -> deleteHotel(req));
+                    catalog.refresh();
                 }
                 case "ROOM_LIST" -> {
                     if (!authorized(req)) { res = err("UNAUTHORIZED"); break; }
@@ -149,6 +203,22 @@ public class AdminSocketServer {
                 case "ROOM_SAVE" -> {
                     if (!authorized(req)) { res = err("UNAUTHORIZED"); break; }
                     res = txTemplate.execute(status -> saveRooms(req));
+                    catalog.refresh();
+                }
+                case "AUDIT_STATS" -> {
+                    if (!authorized(req)) { res = err("UNAUTHORIZED"); break; }
+                    res = ok();
+                    res.put("audit", auditLog.stats());
+                }
+                case "CACHE_STATS" -> {
+                    if (!authorized(req)) { res = err("UNAUTHORIZED"); break; }
+                    res = ok();
+                    res.put("hotelSearch", searchCache.stats());
+                    res.put("history", historyCache.stats());
+                    res.put("events", events.stats());
+                    res.put("invoices", invoiceStore.stats());
+                    res.put("invoiceRender", invoiceRenderer.stats());
+                    res.put("jwt", jwtUtil.stats());
                 }
                 default -> res = err("UNKNOWN_TYPE");
             }
@@ -165,7 +235,7 @@ public class AdminSocketServer {
     // Checks whether the request contains a valid session token.
     private boolean authorized(Map<String, Object> req) {
         String token = (String) req.get("token");
-        return token != null && sessions.containsKey(token);
+        return sessions.isValid(token);
     }
 
     // Validates admin credentials and issues a session token.
@@ -177,8 +247,7 @@ public class AdminSocketServer {
         if (ou.isEmpty()) return err("NO_SUCH_ADMIN");
         AdminUser u = ou.get();
         if (!encoder.matches(password, u.getPasswordHash())) return err("BAD_PASSWORD");
-        String token = UUID.randomUUID().toString();
-        sessions.put(token, u.getId());
+        String token = sessions.issue(u.getId());
         Map<String, Object> ok = ok();
         ok.put("msg", "AUTH_OK");
         ok.put("token", token);
@@ -186,15 +255,12 @@ public class AdminSocketServer {
     }
 
     // Returns every travel package without filtering (admin view).
+    // Admin lists read a snapshot that already includes this admin's latest writes.
     private Map<String, Object> listPackages() {
-        List<TravelPackage> items = pkgRepo.findAll();
-        for (TravelPackage p : items) {
-            boolean match = hasMatchingDestination(p.getLocation());
-            p.setPackageAvailable(match);
-        }
+        CatalogSnapshot snapshot = catalog.fresh();
         List<Map<String, Object>> decorated = new ArrayList<>();
-        for (TravelPackage p : items) {
-            decorated.add(toPackagePayload(p));
+        for (TravelPackage p : snapshot.packages()) {
+            decorated.add(toPackagePayload(p, snapshot));
         }
         Map<String, Object> ok = ok();
         ok.put("items", decorated);
@@ -202,9 +268,8 @@ public class AdminSocketServer {
     }
 
     private Map<String, Object> listDestinations() {
-        List<Destination> items = destinationRepo.findAll();
         List<Map<String,Object>> decorated = new ArrayList<>();
-        for (Destination d : items) {
+        for (DestinationCard d : catalog.fresh().destinations()) {
             Map<String,Object> m = new HashMap<>();
             m.put("id", d.getId());
             m.put("name", d.getName());
@@ -212,11 +277,10 @@ public class AdminSocketServer {
             m.put("tags", d.getTags());
             m.put("bestSeason", d.getBestSeason());
             m.put("imageUrl", d.getImageUrl());
-            m.put("hotelsCount", hotelRepo.countByDestinationId(d.getId()));
+            m.put("hotelsCount", d.getHotelsCount());
             m.put("active", d.isActive());
-            Optional<UUID> pkgId = findMatchingPackageId(d.getName());
-            m.put("packageAvailable", pkgId.isPresent());
-            pkgId.ifPresent(id -> m.put("packageId", id));
+            m.put("packageAvailable", d.isPackageAvailable());
+            if (d.getPackageId() != null) m.put("packageId", d.getPackageId());
             decorated.add(m);
         }
         Map<String, Object> ok = ok();
@@ -254,6 +318,14 @@ public class AdminSocketServer {
         return ok();
     }
 
+    // Capacity may have changed (or the package is gone), so the next booking reseeds its seat counter.
+    private void invalidateSeats(Map<String, Object> req) {
+        Object id = req.get("id");
+        if (id instanceof String idStr) {
+            try { seats.invalidate(UUID.fromString(idStr)); } catch (IllegalArgumentException ignore) { }
+        }
+    }
+
     // Deletes the package with the provided id (if it exists).
     @Transactional
     private Map<String, Object> deletePackage(Map<String, Object> req) {
@@ -301,7 +373,7 @@ public class AdminSocketServer {
         String destStr = (String) req.get("destinationId");
         if (destStr == null) return err("MISSING_DESTINATION");
         UUID destId = UUID.fromString(destStr);
-        List<Hotel> hotels = hotelRepo.findByDestinationIdOrderByNameAsc(destId);
+        List<Hotel> hotels = catalog.fresh().hotels(destId);
         Map<String, Object> ok = ok();
         ok.put("items", hotels);
         return ok;
@@ -341,7 +413,7 @@ public class AdminSocketServer {
         String hotelStr = (String) req.get("hotelId");
         if (hotelStr == null) return err("MISSING_HOTEL");
         UUID hotelId = UUID.fromString(hotelStr);
-        List<HotelRoom> rooms = roomRepo.findByHotelIdOrderByNameAsc(hotelId);
+        List<HotelRoom> rooms = catalog.fresh().rooms(hotelId);
         Map<String, Object> ok = ok();
         ok.put("items", rooms);
         return ok;
@@ -422,7 +494,10 @@ public class AdminSocketServer {
         if (item.containsKey("overview")) p.setOverview(str(item.get("overview")));
         if (item.containsKey("locationPoints")) p.setLocationPoints(str(item.get("locationPoints")));
         if (item.containsKey("timing")) p.setTiming(str(item.get("timing")));
-        if (item.containsKey("groupSize")) p.setGroupSize(str(item.get("groupSize")));
+        if (item.containsKey("groupSize")) {
+            p.setGroupSize(str(item.get("groupSize")));
+            p.setSeatCapacity(PackageSeatReservations.parseCapacity(p.getGroupSize()));
+        }
         if (item.containsKey("active")) p.setActive(Boolean.TRUE.equals(item.get("active")) || "true".equalsIgnoreCase(str(item.get("active"))));
         if (item.containsKey("packageAvailable")) p.setPackageAvailable(bool(item.get("packageAvailable")));
         if (item.containsKey("bookingDeadline")) p.setBookingDeadline(toDate(item.get("bookingDeadline")));
@@ -449,8 +524,14 @@ public class AdminSocketServer {
         if (item.containsKey("realPrice")) h.setRealPrice(toBigDecimal(item.get("realPrice")));
         if (item.containsKey("currentPrice")) h.setCurrentPrice(toBigDecimal(item.get("currentPrice")));
         if (item.containsKey("location")) h.setLocation(str(item.get("location")));
-        if (item.containsKey("nearby")) h.setNearby(str(item.get("nearby")));
-        if (item.containsKey("facilities")) h.setFacilities(str(item.get("facilities")));
+        if (item.containsKey("nearby")) {
+            h.setNearby(str(item.get("nearby")));
+            h.setNearbyList(HotelAttributes.nearby(h.getNearby()));
+        }
+        if (item.containsKey("facilities")) {
+            h.setFacilities(str(item.get("facilities")));
+            h.setFacilitiesList(HotelAttributes.facilities(h.getFacilities()));
+        }
         if (item.containsKey("description")) h.setDescription(str(item.get("description")));
         if (item.containsKey("roomsCount")) h.setRoomsCount(intVal(item.get("roomsCount")));
         if (item.containsKey("floorsCount")) h.setFloorsCount(intVal(item.get("floorsCount")));
@@ -479,7 +560,7 @@ public class AdminSocketServer {
         if (item.containsKey("totalRooms")) r.setTotalRooms(intVal(item.get("totalRooms")));
         if (r.getTotalRooms() == null) r.setTotalRooms(r.getAvailableRooms()); // backfill
         if (item.containsKey("bedType")) r.setBedType(str(item.get("bedType")));
-        if (item.containsKey("facilities")) r.setFacilities(str(item.get("facilities")));
+        if (item.containsKey("facilities")) r.setFacilities(HotelAttributes.normalizeFacilities(str(item.get("facilities"))));
         if (item.containsKey("image1")) r.setImage1(str(item.get("image1")));
         if (item.containsKey("image2")) r.setImage2(str(item.get("image2")));
         if (item.containsKey("image3")) r.setImage3(str(item.get("image3")));
@@ -531,24 +612,9 @@ public class AdminSocketServer {
         if (s == null || s.isBlank()) return null;
         try { return java.time.LocalDate.parse(s); } catch (Exception e) { return null; }
     }
-    private boolean hasMatchingDestination(String location) {
-        String loc = norm(location);
-        if (loc == null || loc.isEmpty()) return false;
-        return destinationRepo.existsByNameIgnoreCaseAndActiveTrue(loc);
-    }
-    private boolean hasMatchingPackage(String destinationName) {
-        return findMatchingPackageId(destinationName).isPresent();
-    }
-
-    private Optional<UUID> findMatchingPackageId(String destinationName) {
-        String name = norm(destinationName);
-        if (name == null || name.isEmpty()) return Optional.empty();
-        return pkgRepo.findFirstByLocationIgnoreCaseAndActiveTrueOrderByNameAsc(name)
-                .map(TravelPackage::getId);
-    }
 
     // Builds a map representing a TravelPackage including its itinerary for admin UI.
-    private Map<String, Object> toPackagePayload(TravelPackage p) {
+    private Map<String, Object> toPackagePayload(TravelPackage p, CatalogSnapshot snapshot) {
         Map<String, Object> m = new HashMap<>();
         m.put("id", p.getId());
         m.put("name", p.getName());
@@ -566,15 +632,15 @@ public class AdminSocketServer {
         m.put("timing", p.getTiming());
         m.put("groupSize", p.getGroupSize());
         m.put("active", p.isActive());
-        m.put("packageAvailable", p.isPackageAvailable());
+        m.put("packageAvailable", snapshot.hasActiveDestination(p.getLocation()));
         m.put("bookingDeadline", p.getBookingDeadline() == null ? null : p.getBookingDeadline().toString());
         List<Map<String, Object>> its = new ArrayList<>();
-        List<PackageItinerary> steps = itineraryRepo.findByTravelPackageIdOrderByDayNumberAsc(p.getId());
-        for (PackageItinerary it : steps) {
+        PackageDetails details = snapshot.packageDetails(p.getId());
+        for (ItineraryItem it : details == null ? List.<ItineraryItem>of() : details.itinerary) {
             Map<String, Object> im = new HashMap<>();
-            im.put("dayNumber", it.getDayNumber());
-            im.put("title", it.getTitle());
-            im.put("subtitle", it.getSubtitle());
+            im.put("dayNumber", it.dayNumber);
+            im.put("title", it.title);
+            im.put("subtitle", it.subtitle);
             its.add(im);
         }
         m.put("itinerary", its);
@@ -0,0 +1,40 @@
+package com.travel.loginregistration.config;
+
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.async.AsyncWebRequest;
+import org.springframework.web.context.request.async.CallableProcessingInterceptor;
+import org.springframework.web.servlet.config.annotation.AsyncSupportConfigurer;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.time.Duration;
+import java.util.concurrent.Callable;
+
+/*
+    Async requests keep the container's default timeout. Long downloads (exports, invoice archives) ask for their own
+    with longRunning(request, timeout) before returning their StreamingResponseBody; the timeout is applied to that
+    request alone, just before its async processing starts.
+*/
+
+@Configuration
+public class AsyncConfig implements WebMvcConfigurer {
+
+    private static final String TIMEOUT_ATTRIBUTE = AsyncConfig.class.getName() + ".timeout";
+
+    public static void longRunning(HttpServletRequest request, Duration timeout) {
+        request.setAttribute(TIMEOUT_ATTRIBUTE, timeout.toMillis());
+    }
+
+    @Override
+    public void configureAsyncSupport(AsyncSupportConfigurer configurer) {
+        configurer.registerCallableInterceptors(new CallableProcessingInterceptor() {
+            @Override
+            public <T> void beforeConcurrentHandling(NativeWebRequest request, Callable<T> task) {
+                Object timeout = request.getAttribute(TIMEOUT_ATTRIBUTE, RequestAttributes.SCOPE_REQUEST);
+                if (timeout instanceof Long ms && request instanceof AsyncWebRequest async) async.setTimeout(ms);
+            }
+        });
+    }
+}
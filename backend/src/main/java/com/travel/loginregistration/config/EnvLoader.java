@@ -42,6 +42,8 @@ public final class EnvLoader {
 
             map(vars, "APP_JWT_SECRET", "app.jwt.secret");
             map(vars, "APP_JWT_EXPIRATION_MS", "app.jwt.expiration-ms");
+
+            map(vars, "APP_TXN_NODE_ID", "app.txn.node-id");
         } catch (Exception ignored) {
             // Fail-safe: never block app start because of .env
         }
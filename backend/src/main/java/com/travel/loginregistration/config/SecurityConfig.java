@@ -1,7 +1,10 @@
 package com.travel.loginregistration.config;
 
+import com.travel.loginregistration.security.AdminSessions;
+import com.travel.loginregistration.security.AdminTokenFilter;
 import com.travel.loginregistration.security.JwtAuthenticationFilter;
 import com.travel.loginregistration.security.JwtUtil;
+import jakarta.servlet.DispatcherType;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.http.HttpMethod;
@@ -30,14 +33,17 @@ import java.util.List;
 public class SecurityConfig {
 
     private final JwtUtil jwtUtil;
+    private final AdminSessions adminSessions;
 
-    public SecurityConfig(JwtUtil jwtUtil) {
+    public SecurityConfig(JwtUtil jwtUtil, AdminSessions adminSessions) {
         this.jwtUtil = jwtUtil;
+        this.adminSessions = adminSessions;
     }
 
     @Bean
     public SecurityFilterChain filterChain(HttpSecurity http) throws Exception {
         JwtAuthenticationFilter jwtFilter = new JwtAuthenticationFilter(jwtUtil);
+        AdminTokenFilter adminFilter = new AdminTokenFilter(adminSessions);
 
         http
             .csrf(csrf -> csrf.disable())
@@ -47,12 +53,17 @@ public class SecurityConfig {
                 .requestMatchers(HttpMethod.OPTIONS, "/**").permitAll()                     // can access without jwt
                 .requestMatchers("/api/auth/register", "/api/auth/login", "/api/auth/forgot/**", "/actuator/health").permitAll()
                 .requestMatchers(HttpMethod.GET, "/api/destinations/**").permitAll()
+                .requestMatchers(HttpMethod.GET, "/api/search").permitAll()
+                .dispatcherTypeMatchers(DispatcherType.ASYNC).permitAll()                  // completion of SSE / streaming responses
+                .requestMatchers("/api/admin/*/bookings/export", "/api/admin/*/bookings/invoices").hasRole("ADMIN")  // bulk customer data needs an admin session token
                 .requestMatchers("/api/admin/rooms/**").permitAll()
                 .requestMatchers("/api/admin/packages/**").permitAll()
                 .anyRequest().authenticated()           // all other requests need jwt                                              
             )
             // Added JWT filter before the built-in username-password filter
-            .addFilterBefore(jwtFilter, UsernamePasswordAuthenticationFilter.class);
+            .addFilterBefore(jwtFilter, UsernamePasswordAuthenticationFilter.class)
+            // Admin session tokens (X-Admin-Token) for the admin-only endpoints
+            .addFilterBefore(adminFilter, UsernamePasswordAuthenticationFilter.class);
 
         return http.build();
     }
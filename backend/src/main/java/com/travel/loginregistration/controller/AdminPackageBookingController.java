@@ -1,21 +1,36 @@
 package com.travel.loginregistration.controller;
 
+import com.travel.loginregistration.config.AsyncConfig;
+import com.travel.loginregistration.dto.BookingPage;
+import com.travel.loginregistration.dto.DestinationCard;
 import com.travel.loginregistration.dto.PackageBookingAdminResponse;
 import com.travel.loginregistration.dto.PackageBookingAdminView;
-import com.travel.loginregistration.model.Booking;
 import com.travel.loginregistration.model.TravelPackage;
 import com.travel.loginregistration.repository.BookingRepository;
-import com.travel.loginregistration.repository.UserRepository;
-import com.travel.loginregistration.repository.UserProfileRepository;
+import com.travel.loginregistration.repository.BookingRepository.AdminRow;
 import com.travel.loginregistration.repository.TravelPackageRepository;
+import com.travel.loginregistration.service.BookingExporter;
+import com.travel.loginregistration.service.BookingKeyset;
 import com.travel.loginregistration.service.BookingService;
+import com.travel.loginregistration.service.CatalogService;
+import com.travel.loginregistration.service.CatalogSnapshot;
+import com.travel.loginregistration.service.InvoiceArchive;
+import com.travel.loginregistration.service.InvoiceService.BookingKind;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.time.LocalDate;
 import java.util.List;
 import java.util.UUID;
 import java.util.stream.Collectors;
@@ -26,20 +41,23 @@ public class AdminPackageBookingController {
 
     private final BookingRepository bookingRepository;
     private final TravelPackageRepository travelPackageRepository;
-    private final UserRepository userRepository;
-    private final UserProfileRepository userProfileRepository;
     private final BookingService bookingService;
+    private final CatalogService catalog;
+    private final BookingExporter exporter;
+    private final InvoiceArchive invoiceArchive;
 
     public AdminPackageBookingController(BookingRepository bookingRepository,
                                          TravelPackageRepository travelPackageRepository,
-                                         UserRepository userRepository,
-                                         UserProfileRepository userProfileRepository,
-                                         BookingService bookingService) {
+                                         BookingService bookingService,
+                                         CatalogService catalog,
+                                         BookingExporter exporter,
+                                         InvoiceArchive invoiceArchive) {
         this.bookingRepository = bookingRepository;
         this.travelPackageRepository = travelPackageRepository;
-        this.userRepository = userRepository;
-        this.userProfileRepository = userProfileRepository;
         this.bookingService = bookingService;
+        this.catalog = catalog;
+        this.exporter = exporter;
+        this.invoiceArchive = invoiceArchive;
     }
 
     @GetMapping("/{packageId}/bookings")
@@ -47,7 +65,7 @@ public class AdminPackageBookingController {
         try {
             TravelPackage pkg = travelPackageRepository.findById(packageId)
                     .orElseThrow(() -> new IllegalArgumentException("PACKAGE_NOT_FOUND"));
-            List<Booking> bookings = bookingRepository.findByPackageIdOrderByCreatedAtDesc(packageId);
+            List<AdminRow> bookings = bookingRepository.findAdminRowsByPackage(packageId);
             long persons = bookingRepository.sumPersonsForPackage(packageId);
 
             PackageBookingAdminResponse res = new PackageBookingAdminResponse();
@@ -55,23 +73,109 @@ public class AdminPackageBookingController {
             res.packageName = pkg.getName();
             res.bookingDeadline = pkg.getBookingDeadline();
             res.totalPersons = persons;
-            res.items = bookings.stream().map(b -> toView(b, pkg.getName())).collect(Collectors.toList());
+            res.items = bookings.stream().map(AdminPackageBookingController::toView).collect(Collectors.toList());
             return ResponseEntity.ok(res);
         } catch (IllegalArgumentException e) {
             return ResponseEntity.badRequest().build();
         }
     }
 
-    // List all package bookings (all packages)
+    // Package bookings across all packages, newest first, one keyset page at a time.
+    // destinationId keeps packages whose location is that destination's name.
     @GetMapping("/bookings")
-    public ResponseEntity<List<PackageBookingAdminView>> all() {
-        List<Booking> bookings = bookingRepository.findAllByOrderByCreatedAtDesc();
-        var names = travelPackageRepository.findAll().stream()
-                .collect(java.util.stream.Collectors.toMap(TravelPackage::getId, TravelPackage::getName));
-        List<PackageBookingAdminView> items = bookings.stream()
-                .map(b -> toView(b, names.get(b.getPackageId())))
-                .collect(Collectors.toList());
-        return ResponseEntity.ok(items);
+    public ResponseEntity<BookingPage<PackageBookingAdminView>> all(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit,
+            @RequestParam(required = false) String status,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(required = false) UUID destinationId) {
+        BookingKeyset page;
+        try {
+            page = BookingKeyset.of(cursor, limit, status, from, to);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+        BookingPage<PackageBookingAdminView> res = new BookingPage<>();
+        List<AdminRow> rows;
+        if (destinationId == null) {
+            rows = bookingRepository.findAdminPage(page.beforeAt(), page.beforeId(),
+                    page.from(), page.to(), page.status(), page.probe());
+        } else {
+            CatalogSnapshot snapshot = catalog.snapshot();
+            DestinationCard dest = snapshot.destination(destinationId);
+            String key = dest == null ? null : CatalogSnapshot.locationKey(dest.getName());
+            List<UUID> packageIds = key == null ? List.of() : snapshot.packages().stream()
+                    .filter(p -> key.equals(CatalogSnapshot.locationKey(p.getLocation())))
+                    .map(TravelPackage::getId)
+                    .collect(Collectors.toList());
+            if (packageIds.isEmpty()) {
+                res.items = List.of();
+                return ResponseEntity.ok(res);
+            }
+            rows = bookingRepository.findAdminPageForPackages(page.beforeAt(), page.beforeId(),
+                    page.from(), page.to(), page.status(), packageIds, page.probe());
+        }
+        boolean more = rows.size() > page.limit();
+        if (more) rows = rows.subList(0, page.limit());
+        res.items = rows.stream().map(AdminPackageBookingController::toView).collect(Collectors.toList());
+        if (more) {
+            AdminRow last = rows.get(rows.size() - 1);
+            res.nextCursor = BookingKeyset.cursor(last.getCreatedAt(), last.getId());
+        }
+        return ResponseEntity.ok(res);
+    }
+
+    // Every package booking created in [from, to] (UTC dates), oldest first, streamed as CSV or NDJSON.
+    @GetMapping("/bookings/export")
+    public ResponseEntity<StreamingResponseBody> export(
+            @RequestParam(required = false) String format,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            HttpServletRequest request) {
+        BookingExporter.Format fmt;
+        BookingKeyset range;
+        try {
+            fmt = BookingExporter.Format.parse(format);
+            range = BookingKeyset.of(null, null, null, from, to);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+        StreamingResponseBody body;
+        try {
+            body = exporter.export(BookingExporter.Kind.PACKAGES, fmt, range.from(), range.to());
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).header(HttpHeaders.RETRY_AFTER, "30").build();
+        }
+        AsyncConfig.longRunning(request, exporter.timeout());
+        String file = "package-bookings-" + (from != null ? from : "start") + "-" + (to != null ? to : "now") + "." + fmt.extension;
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(fmt.contentType + ";charset=UTF-8"))
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + file + "\"")
+                .body(body);
+    }
+
+    // A ZIP with the invoice of every package booking created in [from, to] (UTC dates), each addressed to its owner.
+    @GetMapping("/bookings/invoices")
+    public ResponseEntity<StreamingResponseBody> invoices(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            HttpServletRequest request) {
+        StreamingResponseBody body;
+        try {
+            BookingKeyset range = BookingKeyset.of(null, null, null, from, to);
+            body = invoiceArchive.forRange(BookingKind.PACKAGE, range.from(), range.to());
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).header(HttpHeaders.RETRY_AFTER, "30").build();
+        }
+        AsyncConfig.longRunning(request, invoiceArchive.timeout());
+        String file = "package-invoices-" + (from != null ? from : "start") + "-" + (to != null ? to : "now") + ".zip";
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType("application/zip"))
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + file + "\"")
+                .body(body);
     }
 
     @PostMapping("/bookings/{bookingId}/cancel")
@@ -83,31 +187,20 @@ public class AdminPackageBookingController {
         }
     }
 
-    private PackageBookingAdminView toView(Booking b, String packageName) {
+    // Rows already carry the package name, deadline and fallback email/id type, so building a view never queries.
+    private static PackageBookingAdminView toView(AdminRow b) {
         PackageBookingAdminView v = new PackageBookingAdminView();
         v.id = b.getId();
         v.packageId = b.getPackageId();
-        v.packageName = packageName;
-        String email = b.getUserEmail();
-        if ((email == null || email.isBlank()) && b.getUserId() != null) {
-            email = userRepository.findById(b.getUserId()).map(u -> u.getEmail()).orElse(null);
-        }
-        v.userEmail = email;
+        v.packageName = b.getPackageName();
+        v.userEmail = b.getUserEmail();
         v.customerName = b.getCustomerName();
-        String idType = b.getIdType();
-        if ((idType == null || idType.isBlank()) && b.getUserId() != null) {
-            idType = userProfileRepository.findByUserId(b.getUserId())
-                    .map(p -> p.getIdType())
-                    .orElse(null);
-        }
-        v.idType = idType;
+        v.idType = b.getIdType();
         v.idNumber = b.getIdNumber();
         v.totalPersons = b.getTotalPersons();
         v.priceTotal = b.getPriceTotal();
         v.createdAt = b.getCreatedAt();
-        v.bookingDeadline = travelPackageRepository.findById(b.getPackageId())
-                .map(TravelPackage::getBookingDeadline)
-                .orElse(null);
+        v.bookingDeadline = b.getBookingDeadline();
         v.transactionId = b.getTransactionId();
         v.status = b.getStatus();
         v.canceledAt = b.getCanceledAt();
@@ -1,19 +1,32 @@
 package com.travel.loginregistration.controller;
 
+import com.travel.loginregistration.config.AsyncConfig;
+import com.travel.loginregistration.dto.BookingPage;
 import com.travel.loginregistration.dto.RoomBookingAdminView;
+import com.travel.loginregistration.model.HotelRoom;
 import com.travel.loginregistration.model.HotelRoomBooking;
 import com.travel.loginregistration.repository.HotelRoomBookingRepository;
-import com.travel.loginregistration.repository.HotelRoomRepository;
-import com.travel.loginregistration.repository.HotelRepository;
-import com.travel.loginregistration.repository.DestinationRepository;
-import com.travel.loginregistration.repository.UserRepository;
+import com.travel.loginregistration.repository.HotelRoomBookingRepository.AdminRow;
+import com.travel.loginregistration.service.BookingExporter;
+import com.travel.loginregistration.service.BookingKeyset;
+import com.travel.loginregistration.service.CatalogService;
+import com.travel.loginregistration.service.CatalogSnapshot;
 import com.travel.loginregistration.service.HotelBookingService;
+import com.travel.loginregistration.service.InvoiceArchive;
+import com.travel.loginregistration.service.InvoiceService.BookingKind;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.time.LocalDate;
 import java.util.Comparator;
@@ -26,35 +39,28 @@ import java.util.stream.Collectors;
 public class AdminRoomBookingController {
 
     private final HotelRoomBookingRepository bookingRepository;
-    private final HotelRoomRepository roomRepository;
-    private final HotelRepository hotelRepository;
-    private final DestinationRepository destinationRepository;
-    private final UserRepository userRepository;
     private final HotelBookingService bookingService;
+    private final CatalogService catalog;
+    private final BookingExporter exporter;
+    private final InvoiceArchive invoiceArchive;
 
     public AdminRoomBookingController(HotelRoomBookingRepository bookingRepository,
-                                      HotelRoomRepository roomRepository,
-                                      HotelRepository hotelRepository,
-                                      DestinationRepository destinationRepository,
-                                      UserRepository userRepository,
-                                      HotelBookingService bookingService) {
+                                      HotelBookingService bookingService,
+                                      CatalogService catalog,
+                                      BookingExporter exporter,
+                                      InvoiceArchive invoiceArchive) {
         this.bookingRepository = bookingRepository;
-        this.roomRepository = roomRepository;
-        this.hotelRepository = hotelRepository;
-        this.destinationRepository = destinationRepository;
-        this.userRepository = userRepository;
         this.bookingService = bookingService;
+        this.catalog = catalog;
+        this.exporter = exporter;
+        this.invoiceArchive = invoiceArchive;
     }
 
     @GetMapping("/{roomId}/bookings")
     public ResponseEntity<List<RoomBookingAdminView>> bookings(@PathVariable UUID roomId) {
-        var bookings = bookingRepository.findByRoomIdOrderByCheckInAsc(roomId);
-        var roomName = roomRepository.findById(roomId).map(r -> r.getName()).orElse(null);
-        var hotelName = roomRepository.findById(roomId)
-                .flatMap(r -> hotelRepository.findById(r.getHotelId()))
-                .map(h -> h.getName())
-                .orElse(null);
-        List<RoomBookingAdminView> views = bookings.stream().map(b -> toView(b, roomName, hotelName)).collect(Collectors.toList());
+        List<RoomBookingAdminView> views = bookingRepository.findAdminRowsByRoom(roomId).stream()
+                .map(AdminRoomBookingController::toView)
+                .collect(Collectors.toList());
         return ResponseEntity.ok(views);
     }
 
@@ -69,19 +75,99 @@ public class AdminRoomBookingController {
         return ResponseEntity.ok(latest);
     }
 
-    // List all room bookings across all destinations/hotels
+    // Room bookings across all destinations/hotels, newest first, one keyset page at a time.
     @GetMapping("/bookings")
-    public ResponseEntity<List<RoomBookingAdminView>> allBookings() {
-        var bookings = bookingRepository.findAllByOrderByCreatedAtDesc();
-        List<RoomBookingAdminView> views = bookings.stream().map(b -> {
-            String roomName = roomRepository.findById(b.getRoomId()).map(r -> r.getName()).orElse(null);
-            String hotelName = roomRepository.findById(b.getRoomId())
-                    .flatMap(r -> hotelRepository.findById(r.getHotelId()))
-                    .map(h -> h.getName())
-                    .orElse(null);
-            return toView(b, roomName, hotelName);
-        }).collect(Collectors.toList());
-        return ResponseEntity.ok(views);
+    public ResponseEntity<BookingPage<RoomBookingAdminView>> allBookings(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit,
+            @RequestParam(required = false) String status,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(required = false) UUID destinationId) {
+        BookingKeyset page;
+        try {
+            page = BookingKeyset.of(cursor, limit, status, from, to);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+        BookingPage<RoomBookingAdminView> res = new BookingPage<>();
+        List<AdminRow> rows;
+        if (destinationId == null) {
+            rows = bookingRepository.findAdminPage(page.beforeAt(), page.beforeId(),
+                    page.from(), page.to(), page.status(), page.probe());
+        } else {
+            CatalogSnapshot snapshot = catalog.snapshot();
+            List<UUID> roomIds = snapshot.hotels(destinationId).stream()
+                    .flatMap(h -> snapshot.rooms(h.getId()).stream())
+                    .map(HotelRoom::getId)
+                    .collect(Collectors.toList());
+            if (roomIds.isEmpty()) {
+                res.items = List.of();
+                return ResponseEntity.ok(res);
+            }
+            rows = bookingRepository.findAdminPageForRooms(page.beforeAt(), page.beforeId(),
+                    page.from(), page.to(), page.status(), roomIds, page.probe());
+        }
+        boolean more = rows.size() > page.limit();
+        if (more) rows = rows.subList(0, page.limit());
+        res.items = rows.stream().map(AdminRoomBookingController::toView).collect(Collectors.toList());
+        if (more) {
+            AdminRow last = rows.get(rows.size() - 1);
+            res.nextCursor = BookingKeyset.cursor(last.getCreatedAt(), last.getId());
+        }
+        return ResponseEntity.ok(res);
+    }
+
+    // Every room booking created in [from, to] (UTC dates), oldest first, streamed as CSV or NDJSON.
+    @GetMapping("/bookings/export")
+    public ResponseEntity<StreamingResponseBody> export(
+            @RequestParam(required = false) String format,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            HttpServletRequest request) {
+        BookingExporter.Format fmt;
+        BookingKeyset range;
+        try {
+            fmt = BookingExporter.Format.parse(format);
+            range = BookingKeyset.of(null, null, null, from, to);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+        StreamingResponseBody body;
+        try {
+            body = exporter.export(BookingExporter.Kind.ROOMS, fmt, range.from(), range.to());
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).header(HttpHeaders.RETRY_AFTER, "30").build();
+        }
+        AsyncConfig.longRunning(request, exporter.timeout());
+        String file = "room-bookings-" + (from != null ? from : "start") + "-" + (to != null ? to : "now") + "." + fmt.extension;
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(fmt.contentType + ";charset=UTF-8"))
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + file + "\"")
+                .body(body);
+    }
+
+    // A ZIP with the invoice of every room booking created in [from, to] (UTC dates), each addressed to its owner.
+    @GetMapping("/bookings/invoices")
+    public ResponseEntity<StreamingResponseBody> invoices(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            HttpServletRequest request) {
+        StreamingResponseBody body;
+        try {
+            BookingKeyset range = BookingKeyset.of(null, null, null, from, to);
+            body = invoiceArchive.forRange(BookingKind.ROOM, range.from(), range.to());
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).header(HttpHeaders.RETRY_AFTER, "30").build();
+        }
+        AsyncConfig.longRunning(request, invoiceArchive.timeout());
+        String file = "room-invoices-" + (from != null ? from : "start") + "-" + (to != null ? to : "now") + ".zip";
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType("application/zip"))
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + file + "\"")
+                .body(body);
     }
 
     @PostMapping("/bookings/{bookingId}/cancel")
@@ -93,12 +179,14 @@ public class AdminRoomBookingController {
         }
     }
 
-    private RoomBookingAdminView toView(HotelRoomBooking b, String roomName, String hotelName) {
+    // Rows already carry the joined names and email, so building a view never touches the database.
+    private static RoomBookingAdminView toView(AdminRow b) {
         RoomBookingAdminView v = new RoomBookingAdminView();
         v.id = b.getId();
         v.roomId = b.getRoomId();
-        v.roomName = roomName;
-        v.hotelName = hotelName;
+        v.roomName = b.getRoomName();
+        v.hotelName = b.getHotelName();
+        v.destinationName = b.getDestinationName();
         v.checkIn = b.getCheckIn();
         v.checkOut = b.getCheckOut();
         v.roomsBooked = b.getRoomsBooked();
@@ -107,20 +195,12 @@ public class AdminRoomBookingController {
         v.customerName = b.getCustomerName();
         v.idType = b.getIdType();
         v.idNumber = b.getIdNumber();
-        String email = b.getUserEmail();
-        if ((email == null || email.isBlank()) && b.getUserId() != null) {
-            email = userRepository.findById(b.getUserId()).map(u -> u.getEmail()).orElse(null);
-        }
-        v.userEmail = email;
+        v.userEmail = b.getUserEmail();
         v.createdAt = b.getCreatedAt();
         v.transactionId = b.getTransactionId();
         v.status = b.getStatus();
         v.canceledAt = b.getCanceledAt();
         v.canceledBy = b.getCanceledBy();
-        roomRepository.findById(b.getRoomId())
-                .flatMap(r -> hotelRepository.findById(r.getHotelId()))
-                .flatMap(h -> destinationRepository.findById(h.getDestinationId()))
-                .ifPresent(d -> v.destinationName = d.getName());
         return v;
     }
 }
@@ -2,10 +2,15 @@ package com.travel.loginregistration.controller;
 
 import com.travel.loginregistration.dto.DestinationCard;
 import com.travel.loginregistration.dto.DestinationRequest;
+import com.travel.loginregistration.dto.HotelPage;
+import com.travel.loginregistration.dto.HotelQuery;
 import com.travel.loginregistration.service.DestinationService;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
+import java.math.BigDecimal;
 import java.util.List;
 import java.util.UUID;
 
@@ -20,8 +25,11 @@ public class DestinationController {
     }
 
     @GetMapping
-    public ResponseEntity<List<DestinationCard>> list(@RequestParam(required = false) String search) {
-        return ResponseEntity.ok(service.list(search));
+    public ResponseEntity<List<DestinationCard>> list(@RequestParam(required = false) String search, WebRequest request) {
+        // Tag first, body second: if the catalog changes in between, the client just revalidates again.
+        String etag = service.listEtag();
+        if (request.checkNotModified(etag)) return notModified(etag);
+        return ResponseEntity.ok().eTag(etag).body(service.list(search));
     }
 
     @PostMapping
@@ -45,25 +53,72 @@ public class DestinationController {
         return ResponseEntity.ok(service.countHotels(id));
     }
 
+    // One ranked page of hotels; see HotelQuery for the sort modes and filters.
     @GetMapping("/{id}/hotels")
-    public ResponseEntity<List<com.travel.loginregistration.dto.HotelSummary>> hotels(
+    public ResponseEntity<HotelPage> hotels(
             @PathVariable UUID id,
             @RequestParam(required = false) @org.springframework.format.annotation.DateTimeFormat(iso = org.springframework.format.annotation.DateTimeFormat.ISO.DATE) java.time.LocalDate checkIn,
-            @RequestParam(required = false) @org.springframework.format.annotation.DateTimeFormat(iso = org.springframework.format.annotation.DateTimeFormat.ISO.DATE) java.time.LocalDate checkOut) {
+            @RequestParam(required = false) @org.springframework.format.annotation.DateTimeFormat(iso = org.springframework.format.annotation.DateTimeFormat.ISO.DATE) java.time.LocalDate checkOut,
+            @RequestParam(required = false) String sort,
+            @RequestParam(required = false) BigDecimal minPrice,
+            @RequestParam(required = false) BigDecimal maxPrice,
+            @RequestParam(required = false) BigDecimal minRating,
+            @RequestParam(required = false) List<String> facilities,
+            @RequestParam(required = false) Integer guests,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int limit,
+            WebRequest request) {
         if (checkIn != null && checkOut != null && !checkIn.isBefore(checkOut)) {
             return ResponseEntity.badRequest().build();
         }
-        return ResponseEntity.ok(service.listHotels(id, checkIn, checkOut));
+        HotelQuery query = new HotelQuery();
+        query.sort = sort;
+        query.minPrice = minPrice;
+        query.maxPrice = maxPrice;
+        query.minRating = minRating;
+        query.facilities = facilities;
+        query.guests = guests;
+        query.cursor = cursor;
+        query.limit = limit;
+        // The tag covers the catalog and bookings; the query string is part of the URL it is stored under.
+        String etag = service.hotelsEtag(id, checkIn, checkOut);
+        if (request.checkNotModified(etag)) return notModified(etag);
+        try {
+            return ResponseEntity.ok().eTag(etag).body(service.searchHotels(id, checkIn, checkOut, query));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
     }
 
     @GetMapping("/hotels/{hotelId}")
     public ResponseEntity<com.travel.loginregistration.dto.HotelDetails> hotel(
             @PathVariable UUID hotelId,
             @RequestParam(required = false) @org.springframework.format.annotation.DateTimeFormat(iso = org.springframework.format.annotation.DateTimeFormat.ISO.DATE) java.time.LocalDate checkIn,
-            @RequestParam(required = false) @org.springframework.format.annotation.DateTimeFormat(iso = org.springframework.format.annotation.DateTimeFormat.ISO.DATE) java.time.LocalDate checkOut) {
+            @RequestParam(required = false) @org.springframework.format.annotation.DateTimeFormat(iso = org.springframework.format.annotation.DateTimeFormat.ISO.DATE) java.time.LocalDate checkOut,
+            WebRequest request) {
         if (checkIn != null && checkOut != null && !checkIn.isBefore(checkOut)) {
             return ResponseEntity.badRequest().build();
         }
-        return ResponseEntity.ok(service.getHotelDetails(hotelId, checkIn, checkOut));
+        String etag = service.hotelEtag(hotelId, checkIn, checkOut);
+        if (etag == null) return ResponseEntity.ok(service.getHotelDetails(hotelId, checkIn, checkOut));
+        if (request.checkNotModified(etag)) return notModified(etag);
+        return ResponseEntity.ok().eTag(etag).body(service.getHotelDetails(hotelId, checkIn, checkOut));
+    }
+
+    @GetMapping("/hotels/{hotelId}/calendar")
+    public ResponseEntity<com.travel.loginregistration.dto.HotelCalendar> calendar(
+            @PathVariable UUID hotelId,
+            @RequestParam(required = false) @org.springframework.format.annotation.DateTimeFormat(iso = org.springframework.format.annotation.DateTimeFormat.ISO.DATE) java.time.LocalDate from,
+            @RequestParam(required = false) @org.springframework.format.annotation.DateTimeFormat(iso = org.springframework.format.annotation.DateTimeFormat.ISO.DATE) java.time.LocalDate to) {
+        java.time.LocalDate start = from != null ? from : java.time.LocalDate.now();
+        java.time.LocalDate end = to != null ? to : start.plusDays(30);
+        if (!start.isBefore(end) || end.toEpochDay() - start.toEpochDay() > DestinationService.MAX_CALENDAR_DAYS) {
+            return ResponseEntity.badRequest().build();
+        }
+        return ResponseEntity.ok(service.getHotelCalendar(hotelId, start, end));
+    }
+
+    private static <T> ResponseEntity<T> notModified(String etag) {
+        return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).build();
     }
 }
@@ -0,0 +1,34 @@
+package com.travel.loginregistration.controller;
+
+import com.travel.loginregistration.service.BookingEvents;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+@RestController
+@RequestMapping("/api/events")
+public class EventsController {
+
+    private final BookingEvents events;
+
+    public EventsController(BookingEvents events) {
+        this.events = events;
+    }
+
+    // Booking status events for the caller; reconnect with Last-Event-ID to resume.
+    @GetMapping(path = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<SseEmitter> stream(@RequestHeader(name = "Last-Event-ID", required = false) String lastEventId,
+                                             Authentication auth) {
+        String email = auth == null ? null : (String) auth.getPrincipal();
+        if (email == null || email.isBlank()) return ResponseEntity.badRequest().build();
+        return ResponseEntity.ok()
+                .header("Cache-Control", "no-cache")
+                .header("X-Accel-Buffering", "no")
+                .body(events.subscribe(email, lastEventId));
+    }
+}
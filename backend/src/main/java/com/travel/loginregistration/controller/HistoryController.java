@@ -1,48 +1,21 @@
 package com.travel.loginregistration.controller;
 
-import com.travel.loginregistration.dto.HistoryPackageItem;
-import com.travel.loginregistration.dto.HistoryResponse;
-import com.travel.loginregistration.dto.HistoryRoomItem;
-import com.travel.loginregistration.model.Booking;
-import com.travel.loginregistration.model.HotelRoomBooking;
-import com.travel.loginregistration.model.TravelPackage;
-import com.travel.loginregistration.model.User;
-import com.travel.loginregistration.repository.BookingRepository;
-import com.travel.loginregistration.repository.HotelRoomBookingRepository;
-import com.travel.loginregistration.repository.HotelRoomRepository;
-import com.travel.loginregistration.repository.TravelPackageRepository;
-import com.travel.loginregistration.repository.UserRepository;
+import com.travel.loginregistration.service.HistoryService;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
-import java.util.List;
-import java.util.Locale;
-import java.util.UUID;
-import java.util.stream.Collectors;
-
 @RestController
 @RequestMapping("/api/history")
 public class HistoryController {
 
-    private final BookingRepository bookingRepository;
-    private final HotelRoomBookingRepository roomBookingRepository;
-    private final HotelRoomRepository hotelRoomRepository;
-    private final TravelPackageRepository travelPackageRepository;
-    private final UserRepository userRepository;
+    private final HistoryService historyService;
 
-    public HistoryController(BookingRepository bookingRepository,
-            HotelRoomBookingRepository roomBookingRepository,
-            HotelRoomRepository hotelRoomRepository,
-            TravelPackageRepository travelPackageRepository,
-            UserRepository userRepository) {
-        this.bookingRepository = bookingRepository;
-        this.roomBookingRepository = roomBookingRepository;
-        this.hotelRoomRepository = hotelRoomRepository;
-        this.travelPackageRepository = travelPackageRepository;
-        this.userRepository = userRepository;
+    public HistoryController(HistoryService historyService) {
+        this.historyService = historyService;
     }
 
     @GetMapping
@@ -51,86 +24,22 @@ public class HistoryController {
             String email = (String) auth.getPrincipal();
             if (email == null)
                 return ResponseEntity.badRequest().body("No user");
-            User user = userRepository.findByEmail(email.toLowerCase(Locale.ROOT))
-                    .orElseThrow(() -> new IllegalArgumentException("User not found"));
-            UUID userId = user.getId();
-
-            String emailLower = user.getEmail() == null ? null : user.getEmail().toLowerCase(Locale.ROOT);
-            List<HotelRoomBooking> roomBookings = roomBookingRepository
-                    .findByUserIdOrUserEmailOrderByCreatedAtDesc(userId, emailLower);
-            List<Booking> packageBookings = bookingRepository.findByUserIdOrUserEmailOrderByCreatedAtDesc(userId,
-                    emailLower);
-
-            HistoryResponse resp = new HistoryResponse();
-            resp.rooms = roomBookings.stream().map(this::mapRoom).collect(Collectors.toList());
-            resp.packages = packageBookings.stream().map(this::mapPackage).collect(Collectors.toList());
-            return ResponseEntity.ok(resp);
+            return ResponseEntity.ok(historyService.history(email));
         } catch (Exception e) {
             return ResponseEntity.badRequest().body(e.getMessage());
         }
     }
 
-    private HistoryRoomItem mapRoom(HotelRoomBooking b) {
-        HistoryRoomItem dto = new HistoryRoomItem();
-        dto.id = b.getId();
-        dto.roomId = b.getRoomId();
-        dto.hotelId = b.getRoomId() == null ? null
-                : hotelRoomRepository.findById(b.getRoomId()).map(r -> r.getHotelId()).orElse(null);
-        dto.hotelName = b.getHotelName();
-        dto.roomName = b.getRoomName();
-        dto.checkIn = b.getCheckIn();
-        dto.checkOut = b.getCheckOut();
-        dto.totalGuests = b.getTotalGuests();
-        dto.roomsBooked = b.getRoomsBooked();
-        dto.totalPrice = b.getTotalPrice();
-        dto.createdAt = b.getCreatedAt();
-        dto.status = b.getStatus();
-        dto.canceledAt = b.getCanceledAt();
-        dto.canceledBy = b.getCanceledBy();
-        dto.transactionId = b.getTransactionId();
-        dto.cardLast4 = b.getCardLast4();
-        return dto;
-    }
-
-    private HistoryPackageItem mapPackage(Booking b) {
-        HistoryPackageItem dto = new HistoryPackageItem();
-        dto.id = b.getId();
-        dto.packageId = b.getPackageId();
-        dto.totalPersons = b.getTotalPersons();
-        dto.totalPrice = b.getPriceTotal();
-        dto.createdAt = b.getCreatedAt();
-        dto.status = b.getStatus();
-        dto.canceledAt = b.getCanceledAt();
-        dto.canceledBy = b.getCanceledBy();
-        dto.transactionId = b.getTransactionId();
-        dto.cardLast4 = b.getCardLast4();
-        dto.packageName = null;
-        dto.location = null;
-        dto.bookingDeadline = null;
-        if (b.getPackageId() != null) {
-            travelPackageRepository.findById(b.getPackageId()).ifPresent(p -> {
-                dto.packageName = p.getName();
-                dto.location = p.getLocation();
-                dto.bookingDeadline = p.getBookingDeadline();
-                dto.durationDays = parseDurationDays(p.getTiming());
-            });
-        }
-        return dto;
-    }
-
-    private Integer parseDurationDays(String timing) {
-        if (timing == null)
-            return null;
-        // Expect formats like "3 days, 2 nights" or "3 Days ,2 Nights"
-        String lower = timing.toLowerCase(Locale.ROOT);
-        int idx = lower.indexOf("day");
-        if (idx == -1)
-            return null;
-        String prefix = lower.substring(0, idx).replaceAll("[^0-9]", "");
+    // Only bookings created or changed after the cursor from a previous /history or /history/changes response.
+    @GetMapping("/changes")
+    public ResponseEntity<?> changes(@RequestParam String since, Authentication auth) {
         try {
-            return prefix.isBlank() ? null : Integer.parseInt(prefix);
-        } catch (NumberFormatException e) {
-            return null;
+            String email = (String) auth.getPrincipal();
+            if (email == null)
+                return ResponseEntity.badRequest().body("No user");
+            return ResponseEntity.ok(historyService.changes(email, since));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
         }
     }
 }
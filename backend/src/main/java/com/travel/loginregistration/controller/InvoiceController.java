@@ -1,39 +1,85 @@
 package com.travel.loginregistration.controller;
 
+import com.travel.loginregistration.config.AsyncConfig;
+import com.travel.loginregistration.service.BookingKeyset;
+import com.travel.loginregistration.service.InvoiceArchive;
 import com.travel.loginregistration.service.InvoiceService;
 import com.travel.loginregistration.service.InvoiceService.BookingKind;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.core.io.InputStreamResource;
+import org.springframework.core.io.Resource;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.time.LocalDate;
 import java.util.Locale;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
 
 @RestController
 @RequestMapping("/api/history")
 public class InvoiceController {
     private final InvoiceService invoiceService;
+    private final InvoiceArchive invoiceArchive;
 
-    public InvoiceController(InvoiceService invoiceService) {
+    public InvoiceController(InvoiceService invoiceService, InvoiceArchive invoiceArchive) {
         this.invoiceService = invoiceService;
+        this.invoiceArchive = invoiceArchive;
     }
 
+    // Returns asynchronously: a cache miss is rendered on InvoiceRenderer's pool, not on this request thread.
     @GetMapping("/invoice/{kind}/{id}")
-    public ResponseEntity<byte[]> downloadInvoice(@PathVariable("kind") String kind,
-                                                  @PathVariable("id") UUID id,
-                                                  Authentication auth) {
+    public CompletableFuture<ResponseEntity<Resource>> downloadInvoice(@PathVariable("kind") String kind,
+                                                                       @PathVariable("id") UUID id,
+                                                                       Authentication auth) {
         String email = auth == null ? null : (String) auth.getPrincipal();
         BookingKind bookingKind = BookingKind.from(kind);
-        byte[] pdf = invoiceService.createInvoice(bookingKind, id, email);
         String filename = "Travel-Tourism-Invoice-" + id.toString().replace("-", "").substring(0, Math.min(8, id.toString().length())) + ".pdf";
+        try {
+            return invoiceService.createInvoice(bookingKind, id, email).thenApply(pdf -> ResponseEntity.ok()
+                    .header(HttpHeaders.CONTENT_DISPOSITION, "inline; filename=\"" + filename + "\"")
+                    .contentType(MediaType.APPLICATION_PDF)
+                    .contentLength(pdf.length())
+                    .<Resource>body(new InputStreamResource(pdf.body())));
+        } catch (IllegalStateException e) {
+            // RENDER_BUSY: every render worker is taken and the queue is full.
+            return CompletableFuture.completedFuture(ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .header(HttpHeaders.RETRY_AFTER, "5")
+                    .build());
+        }
+    }
+
+    // One streamed ZIP with the caller's invoices for bookings made in [from, to] (UTC dates, both optional).
+    @GetMapping("/invoices")
+    public ResponseEntity<StreamingResponseBody> downloadInvoices(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            Authentication auth,
+            HttpServletRequest request) {
+        String email = auth == null ? null : (String) auth.getPrincipal();
+        StreamingResponseBody body;
+        try {
+            BookingKeyset range = BookingKeyset.of(null, null, null, from, to);
+            body = invoiceArchive.forUser(email, range.from(), range.to());
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).header(HttpHeaders.RETRY_AFTER, "30").build();
+        }
+        AsyncConfig.longRunning(request, invoiceArchive.timeout());
         return ResponseEntity.ok()
-                .header(HttpHeaders.CONTENT_DISPOSITION, "inline; filename=\"" + filename + "\"")
-                .contentType(MediaType.APPLICATION_PDF)
-                .body(pdf);
+                .contentType(MediaType.parseMediaType("application/zip"))
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"Travel-Tourism-Invoices.zip\"")
+                .body(body);
     }
 }
@@ -3,8 +3,10 @@ package com.travel.loginregistration.controller;
 import com.travel.loginregistration.dto.PackageDetails;
 import com.travel.loginregistration.dto.PackageSummary;
 import com.travel.loginregistration.service.PackageService;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.util.List;
 import java.util.UUID;
@@ -25,13 +27,18 @@ public class PackageController {
     }
 
     @GetMapping
-    public ResponseEntity<List<PackageSummary>> list() {
-        return ResponseEntity.ok(service.listActive());
+    public ResponseEntity<List<PackageSummary>> list(WebRequest request) {
+        // Tag first, body second: if the catalog changes in between, the client just revalidates again.
+        String etag = service.etag();
+        if (request.checkNotModified(etag)) return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).build();
+        return ResponseEntity.ok().eTag(etag).body(service.listActive());
     }
 
     @GetMapping("/{id}")
-    public ResponseEntity<PackageDetails> details(@PathVariable UUID id) {
-        return ResponseEntity.ok(service.details(id));
+    public ResponseEntity<PackageDetails> details(@PathVariable UUID id, WebRequest request) {
+        String etag = service.etag();
+        if (request.checkNotModified(etag)) return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).build();
+        return ResponseEntity.ok().eTag(etag).body(service.details(id));
     }
 }
 
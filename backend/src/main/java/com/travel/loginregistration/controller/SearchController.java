@@ -0,0 +1,38 @@
+package com.travel.loginregistration.controller;
+
+import com.travel.loginregistration.dto.SearchResult;
+import com.travel.loginregistration.service.DestinationService;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+/*
+ *   Typo-tolerant search over active destinations and their hotels, served from the catalog's trigram index.
+ *   type narrows results to DESTINATION or HOTEL; limit is capped at DestinationService.MAX_SEARCH_RESULTS.
+ */
+
+@RestController
+@RequestMapping("/api/search")
+public class SearchController {
+    private final DestinationService service;
+
+    public SearchController(DestinationService service) {
+        this.service = service;
+    }
+
+    @GetMapping
+    public ResponseEntity<?> search(@RequestParam(required = false) String q,
+                                    @RequestParam(required = false) String type,
+                                    @RequestParam(defaultValue = "20") int limit) {
+        try {
+            List<SearchResult> results = service.search(q, type, limit);
+            return ResponseEntity.ok(results);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,8 @@
+package com.travel.loginregistration.dto;
+
+import java.util.List;
+
+public class BookingPage<T> {
+    public List<T> items;
+    public String nextCursor;    // pass back as ?cursor= for the next page; null on the last page
+}
@@ -5,5 +5,7 @@ import java.util.List;
 public class HistoryResponse {
     public List<HistoryRoomItem> rooms;
     public List<HistoryPackageItem> packages;
+    // Pass to /api/history/changes to get only what changed after this response.
+    public String cursor;
 }
 
@@ -0,0 +1,19 @@
+package com.travel.loginregistration.dto;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.UUID;
+
+public class HotelCalendar {
+    public UUID hotelId;
+    public LocalDate from;
+    public LocalDate to;
+    public List<RoomCalendar> rooms;
+
+    public static class RoomCalendar {
+        public UUID roomId;
+        public String name;
+        public Integer totalRooms;
+        public int[] remaining; // remaining[i] is the free units on night from + i
+    }
+}
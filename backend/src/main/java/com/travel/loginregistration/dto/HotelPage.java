@@ -0,0 +1,10 @@
+package com.travel.loginregistration.dto;
+
+import java.util.List;
+
+public class HotelPage {
+    public List<HotelSummary> items;
+    public int total;                // hotels matching the filters, across all pages
+    public String sort;
+    public String nextCursor;        // null on the last page
+}
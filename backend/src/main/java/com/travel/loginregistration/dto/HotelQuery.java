@@ -0,0 +1,15 @@
+package com.travel.loginregistration.dto;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+public class HotelQuery {
+    public String sort;              // popularity, price_asc, price_desc, rating, best (default: best when dated, else popularity)
+    public BigDecimal minPrice;
+    public BigDecimal maxPrice;
+    public BigDecimal minRating;
+    public List<String> facilities;  // hotel must offer all of them (case-insensitive)
+    public Integer guests;           // filter: hotels whose free rooms cannot sleep this many are left out; also feeds best
+    public String cursor;            // nextCursor of the previous page
+    public int limit = 20;
+}
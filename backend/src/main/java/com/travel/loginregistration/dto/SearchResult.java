@@ -0,0 +1,12 @@
+package com.travel.loginregistration.dto;
+
+import java.util.UUID;
+
+public class SearchResult {
+    public String type;          // DESTINATION or HOTEL
+    public UUID id;
+    public String name;
+    public String subtitle;      // region for destinations, location for hotels
+    public UUID destinationId;
+    public double score;         // 0..1, higher is closer
+}
@@ -61,6 +61,10 @@ public class Booking {
 
     @Column(name = "canceled_by")
     private String canceledBy;
+
+    // Bumped on every insert and update; /api/history/changes reads rows newer than the client's cursor.
+    @Column(name = "updated_at")
+    private Instant updatedAt;
 
     public UUID getId() {
         return id;
@@ -181,4 +185,14 @@ public class Booking {
     public void setCanceledBy(String canceledBy) {
         this.canceledBy = canceledBy;
     }
+
+    public Instant getUpdatedAt() {
+        return updatedAt;
+    }
+
+    @PrePersist
+    @PreUpdate
+    void touch() {
+        this.updatedAt = Instant.now();
+    }
 }
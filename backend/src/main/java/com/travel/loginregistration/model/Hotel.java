@@ -1,6 +1,10 @@
 package com.travel.loginregistration.model;
 
 import jakarta.persistence.*;
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.type.SqlTypes;
+
+import java.util.List;
 import java.util.UUID;
 import java.math.BigDecimal;
 
@@ -19,6 +23,13 @@ public class Hotel {
     private String location;
     private String nearby;       // sentences separated by periods
     private String facilities;   // comma-separated list
+    // nearby/facilities already split into entries, set when the admin saves the hotel
+    @JdbcTypeCode(SqlTypes.ARRAY)
+    @Column(name = "nearby_list", columnDefinition = "text[]")
+    private String[] nearbyList;
+    @JdbcTypeCode(SqlTypes.ARRAY)
+    @Column(name = "facilities_list", columnDefinition = "text[]")
+    private String[] facilitiesList;
     private String description;
     @Column(name = "real_price")
     private BigDecimal realPrice;
@@ -51,6 +62,10 @@ public class Hotel {
     public void setNearby(String nearby) { this.nearby = nearby; }
     public String getFacilities() { return facilities; }
     public void setFacilities(String facilities) { this.facilities = facilities; }
+    public List<String> getNearbyList() { return nearbyList == null ? null : List.of(nearbyList); }
+    public void setNearbyList(List<String> nearbyList) { this.nearbyList = nearbyList == null ? null : nearbyList.toArray(String[]::new); }
+    public List<String> getFacilitiesList() { return facilitiesList == null ? null : List.of(facilitiesList); }
+    public void setFacilitiesList(List<String> facilitiesList) { this.facilitiesList = facilitiesList == null ? null : facilitiesList.toArray(String[]::new); }
     public String getDescription() { return description; }
     public void setDescription(String description) { this.description = description; }
     public BigDecimal getRealPrice() { return realPrice; }
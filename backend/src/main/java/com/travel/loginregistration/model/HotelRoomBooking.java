@@ -70,6 +70,10 @@ public class HotelRoomBooking {
     @Column(name = "canceled_by")
     private String canceledBy;
 
+    // Bumped on every insert and update; /api/history/changes reads rows newer than the client's cursor.
+    @Column(name = "updated_at")
+    private java.time.Instant updatedAt;
+
     public UUID getId() {
         return id;
     }
@@ -229,4 +233,14 @@ public class HotelRoomBooking {
     public void setCanceledBy(String canceledBy) {
         this.canceledBy = canceledBy;
     }
+
+    public java.time.Instant getUpdatedAt() {
+        return updatedAt;
+    }
+
+    @PrePersist
+    @PreUpdate
+    void touch() {
+        this.updatedAt = java.time.Instant.now();
+    }
 }
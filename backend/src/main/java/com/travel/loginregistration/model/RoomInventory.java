@@ -0,0 +1,65 @@
+package com.travel.loginregistration.model;
+
+import jakarta.persistence.*;
+
+import java.io.Serializable;
+import java.time.LocalDate;
+import java.util.Objects;
+import java.util.UUID;
+
+/*
+ * One row per room per night in room_inventory: how many units of the room are booked that night.
+ * HotelBookingService updates it with version-checked conditional updates inside the booking transaction,
+ * which is what keeps rooms from being oversold when several requests or backend nodes book at once.
+ */
+@Entity
+@Table(name = "room_inventory")
+@IdClass(RoomInventory.Key.class)
+public class RoomInventory {
+    @Id
+    @Column(name = "room_id")
+    private UUID roomId;
+
+    @Id
+    @Column(name = "night")
+    private LocalDate night;
+
+    @Column(name = "booked", nullable = false)
+    private int booked;
+
+    @Column(name = "version", nullable = false)
+    private long version;
+
+    public UUID getRoomId() { return roomId; }
+    public void setRoomId(UUID roomId) { this.roomId = roomId; }
+    public LocalDate getNight() { return night; }
+    public void setNight(LocalDate night) { this.night = night; }
+    public int getBooked() { return booked; }
+    public void setBooked(int booked) { this.booked = booked; }
+    public long getVersion() { return version; }
+    public void setVersion(long version) { this.version = version; }
+
+    public static class Key implements Serializable {
+        private UUID roomId;
+        private LocalDate night;
+
+        public Key() {}
+
+        public Key(UUID roomId, LocalDate night) {
+            this.roomId = roomId;
+            this.night = night;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof Key k)) return false;
+            return Objects.equals(roomId, k.roomId) && Objects.equals(night, k.night);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(roomId, night);
+        }
+    }
+}
@@ -60,6 +60,13 @@ public class TravelPackage {
     private boolean packageAvailable = false;
     @Column(name = "booking_deadline")
     private LocalDate bookingDeadline;
+
+    @Column(name = "seat_capacity")
+    private Integer seatCapacity;
+
+    // Only changed by the conditional seat updates in TravelPackageRepository, never by entity saves.
+    @Column(name = "seats_booked", insertable = false, updatable = false)
+    private int seatsBooked;
 
     public UUID getId() { return id; }
     public void setId(UUID id) { this.id = id; }
@@ -97,5 +104,8 @@ public class TravelPackage {
     public void setPackageAvailable(boolean packageAvailable) { this.packageAvailable = packageAvailable; }
     public LocalDate getBookingDeadline() { return bookingDeadline; }
     public void setBookingDeadline(LocalDate bookingDeadline) { this.bookingDeadline = bookingDeadline; }
+    public Integer getSeatCapacity() { return seatCapacity; }
+    public void setSeatCapacity(Integer seatCapacity) { this.seatCapacity = seatCapacity; }
+    public int getSeatsBooked() { return seatsBooked; }
 }
 
@@ -1,23 +1,129 @@
 package com.travel.loginregistration.repository;
 
 import com.travel.loginregistration.model.Booking;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
 import java.util.UUID;
 
 // Repository for accessing the bookings table using the Booking entity
 public interface BookingRepository extends JpaRepository<Booking, UUID> {
     List<Booking> findByUserIdOrderByCreatedAtDesc(UUID userId);
-    List<Booking> findByUserIdOrUserEmailOrderByCreatedAtDesc(UUID userId, String userEmail);
-    List<Booking> findByPackageIdOrderByCreatedAtDesc(UUID packageId);
+
+    // History columns: the booking plus its package's name, location, deadline and timing,
+    // for one user matched by account or by email.
+    String HISTORY_ROW = "select b.id as id, b.packageId as packageId, p.name as packageName, p.location as location, " +
+           "p.bookingDeadline as bookingDeadline, p.timing as timing, b.totalPersons as totalPersons, " +
+           "b.priceTotal as priceTotal, b.createdAt as createdAt, b.status as status, b.canceledAt as canceledAt, " +
+           "b.canceledBy as canceledBy, b.transactionId as transactionId, b.cardLast4 as cardLast4 " +
+           "from Booking b left join TravelPackage p on p.id = b.packageId " +
+           "where (b.userId = :userId or b.userEmail = :email) ";
+
+    @Query(HISTORY_ROW + "order by b.createdAt desc")
+    List<HistoryRow> findHistoryRows(@Param("userId") UUID userId, @Param("email") String email);
+
+    // Only the user's bookings inserted or changed after since.
+    @Query(HISTORY_ROW + "and b.updatedAt > :since order by b.createdAt desc")
+    List<HistoryRow> findHistoryChanges(@Param("userId") UUID userId, @Param("email") String email,
+                                        @Param("since") Instant since);
+
+    // Ids of one user's bookings created in [from, to), oldest first, for the invoice archive.
+    @Query("select b.id from Booking b where (b.userId = :userId or b.userEmail = :email) " +
+           "and b.createdAt >= :from and b.createdAt < :to order by b.createdAt, b.id")
+    List<UUID> findInvoiceIds(@Param("userId") UUID userId, @Param("email") String email,
+                              @Param("from") Instant from, @Param("to") Instant to);
+
+    // Ids of every booking created in [from, to), oldest first, for the admin invoice archive.
+    @Query("select b.id from Booking b where b.createdAt >= :from and b.createdAt < :to order by b.createdAt, b.id")
+    List<UUID> findInvoiceIdsCreatedBetween(@Param("from") Instant from, @Param("to") Instant to);
 
     @Query("select coalesce(sum(b.totalPersons),0) from Booking b where b.packageId = :packageId and (b.status is null or upper(b.status) <> 'CANCELED')")
     long sumPersonsForPackage(@Param("packageId") UUID packageId);
 
-    boolean existsByTransactionId(String transactionId);
+    // Admin view columns: the booking plus its package name and deadline, with the account email and profile id type
+    // standing in when the booking itself has none, in one query.
+    String ADMIN_ROW = "select b.id as id, b.packageId as packageId, p.name as packageName, p.bookingDeadline as bookingDeadline, " +
+           "case when b.userEmail is null or trim(b.userEmail) = '' then u.email else b.userEmail end as userEmail, " +
+           "case when b.idType is null or trim(b.idType) = '' then up.idType else b.idType end as idType, " +
+           "b.customerName as customerName, b.idNumber as idNumber, b.totalPersons as totalPersons, " +
+           "b.priceTotal as priceTotal, b.createdAt as createdAt, b.transactionId as transactionId, " +
+           "b.status as status, b.canceledAt as canceledAt, b.canceledBy as canceledBy " +
+           "from Booking b " +
+           "left join TravelPackage p on p.id = b.packageId " +
+           "left join User u on u.id = b.userId " +
+           "left join UserProfile up on up.userId = b.userId ";
+
+    @Query(ADMIN_ROW + "where b.packageId = :packageId order by b.createdAt desc")
+    List<AdminRow> findAdminRowsByPackage(@Param("packageId") UUID packageId);
+
+    // Admin listing page filter, newest first: rows strictly after the (createdAt, id) cursor, within [from, to).
+    // The createdAt bound alone is a plain range the (created_at, id) index can seek on; the id only breaks ties.
+    // status is ALL, ACTIVE or CANCELED.
+    String ADMIN_PAGE = "where b.createdAt <= :beforeAt and (b.createdAt < :beforeAt or b.id < :beforeId) " +
+           "and b.createdAt >= :from and b.createdAt < :to " +
+           "and (:status = 'ALL' " +
+           "     or (:status = 'CANCELED' and upper(b.status) = 'CANCELED') " +
+           "     or (:status = 'ACTIVE' and (b.status is null or upper(b.status) <> 'CANCELED'))) ";
+
+    String ADMIN_PAGE_ORDER = "order by b.createdAt desc, b.id desc";
+
+    @Query(ADMIN_ROW + ADMIN_PAGE + ADMIN_PAGE_ORDER)
+    List<AdminRow> findAdminPage(@Param("beforeAt") Instant beforeAt,
+                                 @Param("beforeId") UUID beforeId,
+                                 @Param("from") Instant from,
+                                 @Param("to") Instant to,
+                                 @Param("status") String status,
+                                 Pageable page);
+
+    // Same page limited to bookings of the given packages (never empty).
+    @Query(ADMIN_ROW + ADMIN_PAGE + "and b.packageId in :packageIds " + ADMIN_PAGE_ORDER)
+    List<AdminRow> findAdminPageForPackages(@Param("beforeAt") Instant beforeAt,
+                                            @Param("beforeId") UUID beforeId,
+                                            @Param("from") Instant from,
+                                            @Param("to") Instant to,
+                                            @Param("status") String status,
+                                            @Param("packageIds") Collection<UUID> packageIds,
+                                            Pageable page);
+
+    interface AdminRow {
+        UUID getId();
+        UUID getPackageId();
+        String getPackageName();
+        LocalDate getBookingDeadline();
+        String getUserEmail();
+        String getIdType();
+        String getCustomerName();
+        String getIdNumber();
+        int getTotalPersons();
+        BigDecimal getPriceTotal();
+        Instant getCreatedAt();
+        String getTransactionId();
+        String getStatus();
+        Instant getCanceledAt();
+        String getCanceledBy();
+    }
 
-    List<Booking> findAllByOrderByCreatedAtDesc();
+    interface HistoryRow {
+        UUID getId();
+        UUID getPackageId();
+        String getPackageName();
+        String getLocation();
+        LocalDate getBookingDeadline();
+        String getTiming();
+        int getTotalPersons();
+        BigDecimal getPriceTotal();
+        Instant getCreatedAt();
+        String getStatus();
+        Instant getCanceledAt();
+        String getCanceledBy();
+        String getTransactionId();
+        String getCardLast4();
+    }
 }
@@ -8,6 +8,5 @@ import java.util.UUID;
 
 public interface DestinationRepository extends JpaRepository<Destination, UUID> {
     List<Destination> findByActiveTrueOrderByNameAsc();
-    List<Destination> findByActiveTrueAndNameContainingIgnoreCaseOrderByNameAsc(String name);
     boolean existsByNameIgnoreCaseAndActiveTrue(String name);
 }
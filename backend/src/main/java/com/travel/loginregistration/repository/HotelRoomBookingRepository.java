@@ -1,11 +1,15 @@
 package com.travel.loginregistration.repository;
 
 import com.travel.loginregistration.model.HotelRoomBooking;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 
+import java.math.BigDecimal;
+import java.time.Instant;
 import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
 import java.util.UUID;
 
@@ -19,13 +23,144 @@ public interface HotelRoomBookingRepository extends JpaRepository<HotelRoomBooki
                               @Param("checkIn") LocalDate checkIn,
                               @Param("checkOut") LocalDate checkOut);
 
+    // Every non-canceled stay, trimmed to the columns RoomInventoryLedger needs to rebuild its nights.
+    @Query("select b.roomId as roomId, b.checkIn as checkIn, b.checkOut as checkOut, b.roomsBooked as roomsBooked " +
+           "from HotelRoomBooking b " +
+           "where b.status is null or upper(b.status) <> 'CANCELED'")
+    List<ActiveStay> findActiveStays();
+
+    // Non-canceled stays of any room in the hotel that touch at least one night of [from, to).
+    @Query("select b.roomId as roomId, b.checkIn as checkIn, b.checkOut as checkOut, b.roomsBooked as roomsBooked " +
+           "from HotelRoomBooking b " +
+           "where b.roomId in (select r.id from HotelRoom r where r.hotelId = :hotelId) " +
+           "and b.checkIn < :to and b.checkOut > :from " +
+           "and (b.status is null or upper(b.status) <> 'CANCELED')")
+    List<ActiveStay> findActiveStaysForHotel(@Param("hotelId") UUID hotelId,
+                                             @Param("from") LocalDate from,
+                                             @Param("to") LocalDate to);
+
     List<HotelRoomBooking> findByRoomIdOrderByCheckInAsc(UUID roomId);
 
     List<HotelRoomBooking> findByUserIdOrderByCreatedAtDesc(UUID userId);
 
-    List<HotelRoomBooking> findByUserIdOrUserEmailOrderByCreatedAtDesc(UUID userId, String userEmail);
+    // History columns: the booking plus its room's hotel id, for one user matched by account or by email.
+    String HISTORY_ROW = "select b.id as id, b.roomId as roomId, r.hotelId as hotelId, b.hotelName as hotelName, b.roomName as roomName, " +
+           "b.checkIn as checkIn, b.checkOut as checkOut, b.totalGuests as totalGuests, b.roomsBooked as roomsBooked, " +
+           "b.totalPrice as totalPrice, b.createdAt as createdAt, b.status as status, b.canceledAt as canceledAt, " +
+           "b.canceledBy as canceledBy, b.transactionId as transactionId, b.cardLast4 as cardLast4 " +
+           "from HotelRoomBooking b left join HotelRoom r on r.id = b.roomId " +
+           "where (b.userId = :userId or b.userEmail = :email) ";
+
+    @Query(HISTORY_ROW + "order by b.createdAt desc")
+    List<HistoryRow> findHistoryRows(@Param("userId") UUID userId, @Param("email") String email);
+
+    // Only the user's bookings inserted or changed after since.
+    @Query(HISTORY_ROW + "and b.updatedAt > :since order by b.createdAt desc")
+    List<HistoryRow> findHistoryChanges(@Param("userId") UUID userId, @Param("email") String email,
+                                        @Param("since") Instant since);
+
+    // Ids of one user's bookings created in [from, to), oldest first, for the invoice archive.
+    @Query("select b.id from HotelRoomBooking b where (b.userId = :userId or b.userEmail = :email) " +
+           "and b.createdAt >= :from and b.createdAt < :to order by b.createdAt, b.id")
+    List<UUID> findInvoiceIds(@Param("userId") UUID userId, @Param("email") String email,
+                              @Param("from") Instant from, @Param("to") Instant to);
+
+    // Ids of every booking created in [from, to), oldest first, for the admin invoice archive.
+    @Query("select b.id from HotelRoomBooking b where b.createdAt >= :from and b.createdAt < :to order by b.createdAt, b.id")
+    List<UUID> findInvoiceIdsCreatedBetween(@Param("from") Instant from, @Param("to") Instant to);
+
+    // Admin view columns: the booking plus its room, hotel and destination names and the account email, in one query.
+    // Names fall back to the copies stored on the booking if the room or hotel has since been deleted.
+    String ADMIN_ROW = "select b.id as id, b.roomId as roomId, coalesce(r.name, b.roomName) as roomName, " +
+           "coalesce(h.name, b.hotelName) as hotelName, d.name as destinationName, " +
+           "case when b.userEmail is null or trim(b.userEmail) = '' then u.email else b.userEmail end as userEmail, " +
+           "b.checkIn as checkIn, b.checkOut as checkOut, b.roomsBooked as roomsBooked, b.totalGuests as totalGuests, " +
+           "b.totalPrice as totalPrice, b.customerName as customerName, b.idType as idType, b.idNumber as idNumber, " +
+           "b.createdAt as createdAt, b.transactionId as transactionId, b.status as status, " +
+           "b.canceledAt as canceledAt, b.canceledBy as canceledBy " +
+           "from HotelRoomBooking b " +
+           "left join HotelRoom r on r.id = b.roomId " +
+           "left join Hotel h on h.id = r.hotelId " +
+           "left join Destination d on d.id = h.destinationId " +
+           "left join User u on u.id = b.userId ";
+
+    @Query(ADMIN_ROW + "where b.roomId = :roomId order by b.checkIn asc")
+    List<AdminRow> findAdminRowsByRoom(@Param("roomId") UUID roomId);
+
+    // Admin listing page filter, newest first: rows strictly after the (createdAt, id) cursor, within [from, to).
+    // The createdAt bound alone is a plain range the (created_at, id) index can seek on; the id only breaks ties.
+    // status is ALL, ACTIVE or CANCELED.
+    String ADMIN_PAGE = "where b.createdAt <= :beforeAt and (b.createdAt < :beforeAt or b.id < :beforeId) " +
+           "and b.createdAt >= :from and b.createdAt < :to " +
+           "and (:status = 'ALL' " +
+           "     or (:status = 'CANCELED' and upper(b.status) = 'CANCELED') " +
+           "     or (:status = 'ACTIVE' and (b.status is null or upper(b.status) <> 'CANCELED'))) ";
+
+    String ADMIN_PAGE_ORDER = "order by b.createdAt desc, b.id desc";
+
+    @Query(ADMIN_ROW + ADMIN_PAGE + ADMIN_PAGE_ORDER)
+    List<AdminRow> findAdminPage(@Param("beforeAt") Instant beforeAt,
+                                 @Param("beforeId") UUID beforeId,
+                                 @Param("from") Instant from,
+                                 @Param("to") Instant to,
+                                 @Param("status") String status,
+                                 Pageable page);
+
+    // Same page limited to bookings of the given rooms (never empty).
+    @Query(ADMIN_ROW + ADMIN_PAGE + "and b.roomId in :roomIds " + ADMIN_PAGE_ORDER)
+    List<AdminRow> findAdminPageForRooms(@Param("beforeAt") Instant beforeAt,
+                                         @Param("beforeId") UUID beforeId,
+                                         @Param("from") Instant from,
+                                         @Param("to") Instant to,
+                                         @Param("status") String status,
+                                         @Param("roomIds") Collection<UUID> roomIds,
+                                         Pageable page);
+
+    interface ActiveStay {
+        UUID getRoomId();
+        LocalDate getCheckIn();
+        LocalDate getCheckOut();
+        Integer getRoomsBooked();
+    }
 
-    boolean existsByTransactionId(String transactionId);
+    interface AdminRow {
+        UUID getId();
+        UUID getRoomId();
+        String getRoomName();
+        String getHotelName();
+        String getDestinationName();
+        String getUserEmail();
+        LocalDate getCheckIn();
+        LocalDate getCheckOut();
+        Integer getRoomsBooked();
+        Integer getTotalGuests();
+        BigDecimal getTotalPrice();
+        String getCustomerName();
+        String getIdType();
+        String getIdNumber();
+        Instant getCreatedAt();
+        String getTransactionId();
+        String getStatus();
+        Instant getCanceledAt();
+        String getCanceledBy();
+    }
 
-    List<HotelRoomBooking> findAllByOrderByCreatedAtDesc();
+    interface HistoryRow {
+        UUID getId();
+        UUID getRoomId();
+        UUID getHotelId();
+        String getHotelName();
+        String getRoomName();
+        LocalDate getCheckIn();
+        LocalDate getCheckOut();
+        Integer getTotalGuests();
+        Integer getRoomsBooked();
+        BigDecimal getTotalPrice();
+        Instant getCreatedAt();
+        String getStatus();
+        Instant getCanceledAt();
+        String getCanceledBy();
+        String getTransactionId();
+        String getCardLast4();
+    }
 }
@@ -2,6 +2,7 @@ package com.travel.loginregistration.repository;
 
 import com.travel.loginregistration.model.PackageItinerary;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 
 import java.util.List;
 import java.util.UUID;
@@ -9,4 +10,16 @@ import java.util.UUID;
 public interface PackageItineraryRepository extends JpaRepository<PackageItinerary, Long> {
     List<PackageItinerary> findByTravelPackageIdOrderByDayNumberAsc(UUID packageId);
     void deleteByTravelPackageId(UUID packageId);
+
+    // Every itinerary step with its package id, without loading the packages themselves.
+    @Query("select i.travelPackage.id as packageId, i.dayNumber as dayNumber, i.title as title, i.subtitle as subtitle " +
+           "from PackageItinerary i order by i.dayNumber asc, i.id asc")
+    List<ItineraryRow> findAllRows();
+
+    interface ItineraryRow {
+        UUID getPackageId();
+        int getDayNumber();
+        String getTitle();
+        String getSubtitle();
+    }
 }
@@ -0,0 +1,52 @@
+package com.travel.loginregistration.repository;
+
+import com.travel.loginregistration.model.RoomInventory;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.UUID;
+
+public interface RoomInventoryRepository extends JpaRepository<RoomInventory, RoomInventory.Key> {
+
+    // Creates zero rows for any night of [from, to) that has never been booked; existing rows are left alone.
+    @Modifying
+    @Query(value = "insert into room_inventory (room_id, night, booked, version) " +
+                   "select :roomId, cast(d as date), 0, 0 " +
+                   "from generate_series(cast(:from as date), cast(:to as date) - 1, interval '1 day') as d " +
+                   "on conflict (room_id, night) do nothing", nativeQuery = true)
+    int ensureNights(@Param("roomId") UUID roomId, @Param("from") LocalDate from, @Param("to") LocalDate to);
+
+    // Scalar projection so every read sees the latest committed row rather than a cached entity.
+    @Query("select i.night as night, i.booked as booked, i.version as version " +
+           "from RoomInventory i where i.roomId = :roomId and i.night >= :from and i.night < :to order by i.night")
+    List<NightState> findNights(@Param("roomId") UUID roomId, @Param("from") LocalDate from, @Param("to") LocalDate to);
+
+    // Applies only if nobody changed the night since it was read and the room still has room for `count` more.
+    @Modifying
+    @Query("update RoomInventory i set i.booked = i.booked + :count, i.version = i.version + 1 " +
+           "where i.roomId = :roomId and i.night = :night and i.version = :version and i.booked + :count <= :capacity")
+    int reserveNight(@Param("roomId") UUID roomId,
+                     @Param("night") LocalDate night,
+                     @Param("version") long version,
+                     @Param("count") int count,
+                     @Param("capacity") int capacity);
+
+    @Modifying
+    @Query("update RoomInventory i set i.booked = case when i.booked > :count then i.booked - :count else 0 end, " +
+           "i.version = i.version + 1 " +
+           "where i.roomId = :roomId and i.night >= :from and i.night < :to")
+    int releaseNights(@Param("roomId") UUID roomId,
+                      @Param("from") LocalDate from,
+                      @Param("to") LocalDate to,
+                      @Param("count") int count);
+
+    interface NightState {
+        LocalDate getNight();
+        int getBooked();
+        long getVersion();
+    }
+}
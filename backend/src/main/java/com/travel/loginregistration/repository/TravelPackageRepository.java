@@ -2,6 +2,9 @@ package com.travel.loginregistration.repository;
 
 import com.travel.loginregistration.model.TravelPackage;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 import java.util.List;
 import java.util.Optional;
@@ -12,5 +15,15 @@ public interface TravelPackageRepository extends JpaRepository<TravelPackage, UU
     List<TravelPackage> findByActiveTrueOrderByNameAsc();
     long countByLocationIgnoreCaseAndActiveTrue(String location);
     Optional<TravelPackage> findFirstByLocationIgnoreCaseAndActiveTrueOrderByNameAsc(String location);
+
+    // Durable seat guard: takes the seats only if the package still has them (1 row updated) or has no cap.
+    @Modifying
+    @Query(value = "update travel_packages set seats_booked = seats_booked + :persons " +
+                   "where id = :id and (seat_capacity is null or seats_booked + :persons <= seat_capacity)", nativeQuery = true)
+    int reserveSeats(@Param("id") UUID id, @Param("persons") int persons);
+
+    @Modifying
+    @Query(value = "update travel_packages set seats_booked = greatest(seats_booked - :persons, 0) where id = :id", nativeQuery = true)
+    int releaseSeats(@Param("id") UUID id, @Param("persons") int persons);
 }
 
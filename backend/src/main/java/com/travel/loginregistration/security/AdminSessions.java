@@ -0,0 +1,34 @@
+package com.travel.loginregistration.security;
+
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/*
+    Admin session tokens, issued by the admin socket's AUTH command.
+    The same token opens the admin-only HTTP endpoints (exports and invoice archives) through AdminTokenFilter.
+*/
+
+@Component
+public class AdminSessions {
+
+    private final Map<String, UUID> sessions = new ConcurrentHashMap<>();
+
+    // Issues a new random token for this admin.
+    public String issue(UUID adminId) {
+        String token = UUID.randomUUID().toString();
+        sessions.put(token, adminId);
+        return token;
+    }
+
+    // The admin the token was issued to, or null if it is unknown.
+    public UUID adminId(String token) {
+        return token == null ? null : sessions.get(token);
+    }
+
+    public boolean isValid(String token) {
+        return adminId(token) != null;
+    }
+}
@@ -0,0 +1,57 @@
+package com.travel.loginregistration.security;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.lang.NonNull;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.UUID;
+
+/*
+    * Filter that authenticates admin HTTP requests.
+    * reads the admin socket session token from the X-Admin-Token header and, if it is valid,
+    * sets an authentication with ROLE_ADMIN (principal = admin id) in the security context.
+*/
+
+public class AdminTokenFilter extends OncePerRequestFilter {
+
+    public static final String HEADER = "X-Admin-Token";
+
+    private final AdminSessions sessions;
+
+    public AdminTokenFilter(AdminSessions sessions) {
+        this.sessions = sessions;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !request.getRequestURI().startsWith("/api/admin/");
+    }
+
+    @Override
+    protected void doFilterInternal(
+            @NonNull HttpServletRequest request,
+            @NonNull HttpServletResponse response,
+            @NonNull FilterChain filterChain) throws ServletException, IOException {
+
+        UUID adminId = sessions.adminId(request.getHeader(HEADER));
+        if (adminId != null) {
+            UsernamePasswordAuthenticationToken auth =
+                    new UsernamePasswordAuthenticationToken(
+                            adminId.toString(), null, List.of(new SimpleGrantedAuthority("ROLE_ADMIN")));
+
+            auth.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
+            SecurityContextHolder.getContext().setAuthentication(auth);
+        }
+
+        filterChain.doFilter(request, response);
+    }
+}
@@ -50,9 +50,9 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         if (header != null && header.startsWith("Bearer ")) {
             String token = header.substring(7);
 
-            if (jwtUtil.validateToken(token)) {
-                String email = jwtUtil.extractEmail(token);
-
+            // One signature check per token; repeat requests with the same token hit JwtUtil's cache.
+            String email = jwtUtil.authenticate(token);
+            if (email != null) {
                 // Build an Authentication (principal=email, no roles for now)
                 UsernamePasswordAuthenticationToken auth =
                         new UsernamePasswordAuthenticationToken(
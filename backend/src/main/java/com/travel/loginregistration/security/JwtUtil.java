@@ -5,25 +5,51 @@ import io.jsonwebtoken.security.Keys;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
+import java.nio.charset.StandardCharsets;
 import java.security.Key;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
 import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
 
 /*
     creates and validates JWT tokens for user authentication.
     finds email from token and checks token integrity and expiration.
+    The key and parser are built once. Verified tokens are remembered in a bounded LRU keyed by the token's SHA-256,
+    with their subject and expiry, so a client sending the same token again costs a hash and a map lookup
+    instead of an HMAC check. Entries are dropped once the token expires; tokens that fail to verify are never cached.
  */
 
 @Component
 public class JwtUtil {
 
-    @Value("${app.jwt.secret}")
-    private String secret;
+    private record Verified(String email, long expiresAtMs) { }
 
-    @Value("${app.jwt.expiration-ms}")
-    private long expirationMs;
+    private final Key signingKey;
+    private final JwtParser parser;
+    private final long expirationMs;
+    private final int maxEntries;
+    private final Map<String, Verified> verified;
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong rejected = new AtomicLong();
 
-    private Key getSigningKey() {
-        return Keys.hmacShaKeyFor(secret.getBytes());
+    public JwtUtil(@Value("${app.jwt.secret}") String secret,
+                   @Value("${app.jwt.expiration-ms}") long expirationMs,
+                   @Value("${app.jwt.cache.max-entries:10000}") int maxEntries) {
+        this.signingKey = Keys.hmacShaKeyFor(secret.getBytes());
+        this.parser = Jwts.parserBuilder().setSigningKey(signingKey).build();
+        this.expirationMs = expirationMs;
+        this.maxEntries = maxEntries;
+        this.verified = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Verified> eldest) {
+                return size() > JwtUtil.this.maxEntries;
+            }
+        };
     }
 
     public String generateToken(String email) {
@@ -34,28 +60,62 @@ public class JwtUtil {
                 .setSubject(email)
                 .setIssuedAt(now)
                 .setExpiration(expiry)
-                .signWith(getSigningKey(), SignatureAlgorithm.HS256)
+                .signWith(signingKey, SignatureAlgorithm.HS256)
                 .compact();
     }
 
-    public String extractEmail(String token) {
-        return Jwts.parserBuilder()
-                .setSigningKey(getSigningKey())
-                .build()
-                .parseClaimsJws(token)
-                .getBody()
-                .getSubject();
+    // The email of a valid, unexpired token, or null. Verifies the signature at most once per token while it is cached.
+    public String authenticate(String token) {
+        if (token == null || token.isBlank()) return null;
+        String key = hash(token);
+        long now = System.currentTimeMillis();
+        Verified v;
+        synchronized (verified) {
+            v = verified.get(key);
+            if (v != null && now >= v.expiresAtMs()) {
+                verified.remove(key);
+                v = null;
+            }
+        }
+        if (v != null) {
+            hits.incrementAndGet();
+            return v.email();
+        }
+        misses.incrementAndGet();
+        Claims claims;
+        try {
+            claims = parser.parseClaimsJws(token).getBody();
+        } catch (JwtException | IllegalArgumentException e) {
+            rejected.incrementAndGet();
+            return null;
+        }
+        // Tokens without an expiry are accepted but not cached, so nothing here outlives what the token allows.
+        if (claims.getExpiration() != null) {
+            synchronized (verified) {
+                verified.put(key, new Verified(claims.getSubject(), claims.getExpiration().getTime()));
+            }
+        }
+        return claims.getSubject();
     }
 
-    public boolean validateToken(String token) {
+    public Map<String, Object> stats() {
+        Map<String, Object> m = new LinkedHashMap<>();
+        m.put("hits", hits.get());
+        m.put("misses", misses.get());
+        m.put("rejected", rejected.get());
+        synchronized (verified) {
+            m.put("size", verified.size());
+        }
+        m.put("maxEntries", maxEntries);
+        return m;
+    }
+
+    private static String hash(String token) {
         try {
-            Jwts.parserBuilder()
-                .setSigningKey(getSigningKey())
-                .build()
-                .parseClaimsJws(token);
-            return true;
-        } catch (JwtException | IllegalArgumentException e) {
-            return false;
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.UTF_8));
+            return Base64.getEncoder().encodeToString(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
         }
     }
 }
\ No newline at end of file
@@ -0,0 +1,192 @@
+package com.travel.loginregistration.service;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/*
+    Asynchronous appender for bookings.log.
+    Request threads only offer a line to a bounded queue; a single writer thread drains whatever has piled up
+    and writes it as one batch through a long-lived FileChannel, so booking latency never includes disk I/O.
+    The file rolls over when it passes app.audit.max-bytes or the UTC day changes (bookings-<day>-<n>.log).
+    When the queue is full the line is dropped and counted rather than blocking the booking; see stats().
+*/
+
+@Component
+public class BookingAuditLog {
+    private static final int MAX_BATCH = 512;
+
+    private final Path file;
+    private final long maxBytes;
+    private final BlockingQueue<String> queue;
+    private final AtomicLong enqueued = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+    private final AtomicLong written = new AtomicLong();
+    private final AtomicLong batches = new AtomicLong();
+    private final AtomicLong writeErrors = new AtomicLong();
+    private final AtomicLong maxDepth = new AtomicLong();
+
+    private volatile boolean running = true;
+    private Thread writer;
+    // Only touched by the writer thread (and by stop() after it has exited).
+    private FileChannel channel;
+    private LocalDate channelDay;
+
+    public BookingAuditLog(@Value("${app.audit.file:bookings.log}") String file,
+                           @Value("${app.audit.max-bytes:10485760}") long maxBytes,
+                           @Value("${app.audit.queue-capacity:8192}") int queueCapacity) {
+        this.file = Path.of(file);
+        this.maxBytes = maxBytes;
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+    }
+
+    @PostConstruct
+    public void start() {
+        writer = new Thread(this::run, "booking-audit-writer");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    // Queues one line for the writer; never blocks. Returns false when the queue was full and the line was dropped.
+    public boolean append(String line) {
+        if (!running || !queue.offer(line)) {
+            dropped.incrementAndGet();
+            return false;
+        }
+        enqueued.incrementAndGet();
+        maxDepth.accumulateAndGet(queue.size(), Math::max);
+        return true;
+    }
+
+    public Map<String, Object> stats() {
+        Map<String, Object> m = new LinkedHashMap<>();
+        m.put("enqueued", enqueued.get());
+        m.put("dropped", dropped.get());
+        m.put("written", written.get());
+        m.put("batches", batches.get());
+        m.put("writeErrors", writeErrors.get());
+        m.put("depth", queue.size());
+        m.put("maxDepth", maxDepth.get());
+        m.put("capacity", queue.size() + queue.remainingCapacity());
+        return m;
+    }
+
+    // Stops accepting lines, lets the writer flush what is queued, then closes the file.
+    @PreDestroy
+    public void stop() {
+        running = false;
+        if (writer == null) return;
+        // No interrupt: FileChannel closes itself when its writing thread is interrupted.
+        try {
+            writer.join(TimeUnit.SECONDS.toMillis(5));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void run() {
+        List<String> batch = new ArrayList<>(MAX_BATCH);
+        while (running || !queue.isEmpty()) {
+            try {
+                String first = queue.poll(1, TimeUnit.SECONDS);
+                if (first == null) continue;
+                batch.add(first);
+            } catch (InterruptedException e) {
+                break;
+            }
+            queue.drainTo(batch, MAX_BATCH - batch.size());
+            if (!batch.isEmpty()) write(batch);
+            batch.clear();
+        }
+        closeChannel();
+    }
+
+    private void write(List<String> batch) {
+        StringBuilder sb = new StringBuilder(batch.size() * 160);
+        for (String line : batch) sb.append(line);
+        ByteBuffer buf = ByteBuffer.wrap(sb.toString().getBytes(StandardCharsets.UTF_8));
+        try {
+            FileChannel ch = channelFor(buf.remaining());
+            while (buf.hasRemaining()) ch.write(buf);
+            // One fsync per batch, off the request path.
+            ch.force(false);
+            written.addAndGet(batch.size());
+            batches.incrementAndGet();
+        } catch (IOException e) {
+            writeErrors.incrementAndGet();
+            closeChannel();
+        }
+    }
+
+    // Opens the log on first use and rolls it over by size or UTC day before writing `incoming` more bytes.
+    private FileChannel channelFor(int incoming) throws IOException {
+        LocalDate today = LocalDate.now(ZoneOffset.UTC);
+        if (channel != null && (!today.equals(channelDay) || channel.size() + incoming > maxBytes)) {
+            closeChannel();
+            rotate(channelDay);
+        }
+        if (channel == null) {
+            if (Files.exists(file) && Files.size(file) > 0) {
+                LocalDate lastDay = LocalDate.ofInstant(Files.getLastModifiedTime(file).toInstant(), ZoneOffset.UTC);
+                if (!lastDay.equals(today) || Files.size(file) + incoming > maxBytes) rotate(lastDay);
+            }
+            channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+            channelDay = today;
+        }
+        return channel;
+    }
+
+    private void rotate(LocalDate day) throws IOException {
+        if (!Files.exists(file)) return;
+        String name = file.getFileName().toString();
+        int dot = name.lastIndexOf('.');
+        String base = dot > 0 ? name.substring(0, dot) : name;
+        String ext = dot > 0 ? name.substring(dot) : "";
+        LocalDate stamp = day != null ? day : LocalDate.now(ZoneOffset.UTC);
+        Path target;
+        int n = 1;
+        do {
+            target = file.resolveSibling(base + "-" + stamp + "-" + n++ + ext);
+        } while (Files.exists(target));
+        Files.move(file, target, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private void closeChannel() {
+        if (channel == null) return;
+        try {
+            channel.close();
+        } catch (IOException ignore) {
+            // nothing else to do with a log we cannot close
+        }
+        channel = null;
+    }
+
+    // Same line layout the synchronous appender used.
+    public static String line(Instant at, Object bookingId, String email, String packageName, int persons,
+                              Object total, String idNumber, String customerName) {
+        return at + " | booking " + bookingId + " | user=" + email + " | package=" + packageName
+                + " | persons=" + persons + " | total=" + total + " | id=" + idNumber
+                + " | name=" + customerName + System.lineSeparator();
+    }
+}
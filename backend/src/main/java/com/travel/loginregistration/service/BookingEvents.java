@@ -0,0 +1,250 @@
+package com.travel.loginregistration.service;
+
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArraySet;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/*
+    Server-Sent Events push channel for booking status changes (GET /api/events/stream).
+    Each login email has its open streams and a short replay buffer of its latest events, so a client that
+    reconnects with Last-Event-ID gets what it missed. Event ids carry the boot time; when an id is from another
+    boot or has already scrolled out of the buffer the client is sent RESYNC and should fetch
+    /api/history/changes instead. A heartbeat comment keeps idle connections (and proxies) from timing out.
+    A login's entry in streams goes away with its last stream, and backlogs nobody added to for replay-ttl are
+    dropped on the heartbeat, so neither map grows with every user ever seen.
+    Events only reach clients connected to the node that made the change; clients keep a slow poll running too.
+*/
+
+@Component
+public class BookingEvents {
+    public static final String CONFIRMED = "BOOKING_CONFIRMED";
+    public static final String CANCELED = "BOOKING_CANCELED";
+    public static final String RESYNC = "RESYNC";
+
+    private record Event(long seq, String type, Map<String, Object> data) { }
+
+    // One user's latest events; sequence numbers are global, so gaps between them are normal.
+    private static final class Backlog {
+        final Deque<Event> events = new ArrayDeque<>();
+        long droppedUpTo; // highest seq already pushed out of events
+        long lastAt;      // when the latest event was added (epoch ms)
+    }
+
+    private final Map<String, Set<SseEmitter>> streams = new ConcurrentHashMap<>();
+    private final Map<String, Backlog> recent = new ConcurrentHashMap<>();
+    private final AtomicLong seq = new AtomicLong();
+    private final String bootTag = Long.toString(System.currentTimeMillis(), 36);
+    private final long timeoutMs;
+    private final int maxStreamsPerUser;
+    private final int replaySize;
+    private final long replayTtlMs;
+    private final ScheduledExecutorService heartbeat = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread t = new Thread(r, "sse-heartbeat");
+        t.setDaemon(true);
+        return t;
+    });
+
+    public BookingEvents(@Value("${app.events.timeout-ms:1800000}") long timeoutMs,
+                         @Value("${app.events.heartbeat-seconds:20}") long heartbeatSeconds,
+                         @Value("${app.events.max-streams-per-user:4}") int maxStreamsPerUser,
+                         @Value("${app.events.replay-size:64}") int replaySize,
+                         @Value("${app.events.replay-ttl-seconds:600}") long replayTtlSeconds) {
+        this.timeoutMs = timeoutMs;
+        this.maxStreamsPerUser = maxStreamsPerUser;
+        this.replaySize = replaySize;
+        this.replayTtlMs = TimeUnit.SECONDS.toMillis(replayTtlSeconds);
+        heartbeat.scheduleAtFixedRate(this::beat, heartbeatSeconds, heartbeatSeconds, TimeUnit.SECONDS);
+    }
+
+    // Opens a stream for this login, first replaying anything after lastEventId (or RESYNC if that is not possible).
+    public SseEmitter subscribe(String email, String lastEventId) {
+        String key = key(email);
+        SseEmitter emitter = new SseEmitter(timeoutMs);
+        Runnable drop = () -> remove(key, emitter);
+        emitter.onCompletion(drop);
+        emitter.onTimeout(drop);
+        emitter.onError(e -> drop.run());
+        // A client that keeps reconnecting without closing must not pile up streams; close the oldest.
+        List<SseEmitter> evicted = new ArrayList<>();
+        streams.compute(key, (k, mine) -> {
+            if (mine == null) mine = new CopyOnWriteArraySet<>();
+            while (mine.size() >= maxStreamsPerUser) {
+                SseEmitter oldest = mine.iterator().next();
+                mine.remove(oldest);
+                evicted.add(oldest);
+            }
+            mine.add(emitter);
+            return mine;
+        });
+        // Completing runs the emitter's drop callback, which must not re-enter compute for the same key.
+        evicted.forEach(SseEmitter::complete);
+        try {
+            replay(key, emitter, lastEventId);
+        } catch (IOException e) {
+            remove(key, emitter);
+            emitter.completeWithError(e);
+        }
+        return emitter;
+    }
+
+    // Queues an event for the booking's owner; it is sent once the current transaction commits.
+    public void publish(String email, String type, String kind, UUID bookingId, String status,
+                        Instant canceledAt, String canceledBy) {
+        if (email == null || email.isBlank()) return;
+        Map<String, Object> data = new LinkedHashMap<>();
+        data.put("kind", kind);
+        data.put("bookingId", bookingId);
+        data.put("status", status);
+        data.put("canceledAt", canceledAt);
+        data.put("canceledBy", canceledBy);
+        String key = key(email);
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            send(key, type, data);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                send(key, type, data);
+            }
+        });
+    }
+
+    public Map<String, Object> stats() {
+        Map<String, Object> m = new LinkedHashMap<>();
+        m.put("users", streams.size());
+        m.put("streams", streams.values().stream().mapToInt(Set::size).sum());
+        m.put("backlogs", recent.size());
+        m.put("events", seq.get());
+        return m;
+    }
+
+    @PreDestroy
+    public void stop() {
+        heartbeat.shutdownNow();
+        streams.values().forEach(set -> set.forEach(SseEmitter::complete));
+    }
+
+    private void send(String key, String type, Map<String, Object> data) {
+        Event event = new Event(seq.incrementAndGet(), type, data);
+        // Appending inside compute keeps the heartbeat from expiring this backlog halfway through.
+        recent.compute(key, (k, backlog) -> {
+            if (backlog == null) backlog = new Backlog();
+            synchronized (backlog) {
+                backlog.events.addLast(event);
+                while (backlog.events.size() > replaySize) backlog.droppedUpTo = backlog.events.removeFirst().seq();
+                backlog.lastAt = System.currentTimeMillis();
+            }
+            return backlog;
+        });
+        Set<SseEmitter> mine = streams.get(key);
+        if (mine == null) return;
+        for (SseEmitter emitter : mine) {
+            try {
+                emit(emitter, event);
+            } catch (IOException | IllegalStateException e) {
+                remove(key, emitter);
+            }
+        }
+    }
+
+    // Forgets one stream, and the login's set once it is empty.
+    private void remove(String key, SseEmitter emitter) {
+        streams.computeIfPresent(key, (k, mine) -> {
+            mine.remove(emitter);
+            return mine.isEmpty() ? null : mine;
+        });
+    }
+
+    private void replay(String key, SseEmitter emitter, String lastEventId) throws IOException {
+        if (lastEventId == null || lastEventId.isBlank()) return;
+        long after = parseId(lastEventId);
+        List<Event> missed = new ArrayList<>();
+        // An id from an earlier boot, older than what the backlog still holds, or whose backlog has expired,
+        // cannot be replayed exactly.
+        Backlog backlog = recent.get(key);
+        boolean complete = after >= 0 && backlog != null;
+        if (complete) {
+            synchronized (backlog) {
+                complete = after >= backlog.droppedUpTo;
+                for (Event e : backlog.events) if (e.seq() > after) missed.add(e);
+            }
+        }
+        if (!complete) {
+            synchronized (emitter) {
+                emitter.send(SseEmitter.event().name(RESYNC).data(Map.of(), MediaType.APPLICATION_JSON));
+            }
+            return;
+        }
+        for (Event e : missed) emit(emitter, e);
+    }
+
+    private void emit(SseEmitter emitter, Event event) throws IOException {
+        // SseEmitter is not safe for concurrent sends (publisher vs. heartbeat threads).
+        synchronized (emitter) {
+            emitter.send(SseEmitter.event()
+                    .id(bootTag + "-" + event.seq())
+                    .name(event.type())
+                    .data(event.data(), MediaType.APPLICATION_JSON));
+        }
+    }
+
+    private void beat() {
+        for (Map.Entry<String, Set<SseEmitter>> entry : streams.entrySet()) {
+            for (SseEmitter emitter : entry.getValue()) {
+                try {
+                    synchronized (emitter) {
+                        emitter.send(SseEmitter.event().comment("hb"));
+                    }
+                } catch (IOException | IllegalStateException e) {
+                    remove(entry.getKey(), emitter);
+                }
+            }
+        }
+        long cutoff = System.currentTimeMillis() - replayTtlMs;
+        for (String key : recent.keySet()) {
+            recent.computeIfPresent(key, (k, backlog) -> {
+                synchronized (backlog) {
+                    return backlog.lastAt < cutoff ? null : backlog;
+                }
+            });
+        }
+    }
+
+    // Sequence number of an id from this boot, or -1 if it came from an earlier run (or is malformed).
+    private long parseId(String id) {
+        int dash = id.lastIndexOf('-');
+        if (dash < 0 || !id.substring(0, dash).equals(bootTag)) return -1;
+        try {
+            return Long.parseLong(id.substring(dash + 1));
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    private static String key(String email) {
+        return email.trim().toLowerCase(Locale.ROOT);
+    }
+}
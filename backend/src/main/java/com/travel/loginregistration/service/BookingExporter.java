@@ -0,0 +1,231 @@
+package com.travel.loginregistration.service;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.jdbc.datasource.SimpleDriverDataSource;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import javax.sql.DataSource;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Locale;
+import java.util.concurrent.Semaphore;
+
+/*
+    Streams admin booking exports (CSV or NDJSON) straight from a forward-only JDBC cursor.
+    Rows are fetched fetch-size at a time and written as they arrive, so memory stays flat however many rows match;
+    nothing goes through JPA, so there is no persistence context to grow.
+    Exports run on their own unpooled connections: an export can take minutes, and the Hikari pool is sized for
+    short request transactions. A semaphore caps how many exports hold a connection at once.
+*/
+
+@Service
+public class BookingExporter {
+    public enum Kind { ROOMS, PACKAGES }
+
+    public enum Format {
+        CSV("text/csv", "csv"),
+        NDJSON("application/x-ndjson", "ndjson");
+
+        public final String contentType;
+        public final String extension;
+
+        Format(String contentType, String extension) {
+            this.contentType = contentType;
+            this.extension = extension;
+        }
+
+        public static Format parse(String format) {
+            if (format == null || format.isBlank()) return CSV;
+            try {
+                return valueOf(format.trim().toUpperCase(Locale.ROOT));
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("INVALID_FORMAT");
+            }
+        }
+    }
+
+    // Oldest first so a re-run over a later range simply appends.
+    private static final String ROOMS_SQL = """
+            SELECT b.id, b.transaction_id, b.created_at, b.status, b.canceled_at, b.canceled_by,
+                   b.customer_name, COALESCE(NULLIF(b.user_email, ''), u.email) AS user_email, b.id_type, b.id_number,
+                   d.name AS destination_name, COALESCE(h.name, b.hotel_name) AS hotel_name,
+                   COALESCE(r.name, b.room_name) AS room_name, b.room_id,
+                   b.check_in, b.check_out, b.rooms_booked, b.total_guests, b.total_price
+            FROM hotel_room_bookings b
+            LEFT JOIN hotel_rooms r ON r.id = b.room_id
+            LEFT JOIN hotels h ON h.id = r.hotel_id
+            LEFT JOIN travel_destinations d ON d.id = h.destination_id
+            LEFT JOIN app_users u ON u.id = b.user_id
+            WHERE b.created_at >= ? AND b.created_at < ?
+            ORDER BY b.created_at, b.id
+            """;
+
+    private static final String PACKAGES_SQL = """
+            SELECT b.id, b.transaction_id, b.created_at, b.status, b.canceled_at, b.canceled_by,
+                   b.customer_name, COALESCE(NULLIF(b.user_email, ''), u.email) AS user_email,
+                   COALESCE(NULLIF(b.id_type, ''), up.id_type) AS id_type, b.id_number,
+                   b.package_id, p.name AS package_name, p.location AS package_location,
+                   b.total_persons, b.price_total
+            FROM bookings b
+            LEFT JOIN travel_packages p ON p.id = b.package_id
+            LEFT JOIN app_users u ON u.id = b.user_id
+            LEFT JOIN user_profiles up ON up.user_id = b.user_id
+            WHERE b.created_at >= ? AND b.created_at < ?
+            ORDER BY b.created_at, b.id
+            """;
+
+    private final DataSource exportSource;
+    private final JsonFactory jsonFactory;
+    private final Semaphore slots;
+    private final int fetchSize;
+    private final Duration timeout;
+
+    public BookingExporter(DataSourceProperties dataSourceProperties,
+                           ObjectMapper mapper,
+                           @Value("${app.export.max-concurrent:2}") int maxConcurrent,
+                           @Value("${app.export.fetch-size:500}") int fetchSize,
+                           @Value("${app.export.timeout:30m}") Duration timeout) {
+        this.exportSource = dataSourceProperties.initializeDataSourceBuilder()
+                .type(SimpleDriverDataSource.class)
+                .build();
+        this.jsonFactory = mapper.getFactory();
+        this.slots = new Semaphore(Math.max(1, maxConcurrent));
+        this.fetchSize = Math.max(1, fetchSize);
+        this.timeout = timeout;
+    }
+
+    // How long one export response may stream before the container gives up on it.
+    public Duration timeout() {
+        return timeout;
+    }
+
+    /*
+        Reserves an export slot and returns the body that streams it; the slot is released when the body finishes.
+        from/to are created_at bounds (to exclusive). Throws IllegalStateException("EXPORT_BUSY") if every slot is taken.
+    */
+    public StreamingResponseBody export(Kind kind, Format format, Instant from, Instant to) {
+        if (!slots.tryAcquire()) throw new IllegalStateException("EXPORT_BUSY");
+        String sql = kind == Kind.ROOMS ? ROOMS_SQL : PACKAGES_SQL;
+        return out -> {
+            try (Connection conn = exportSource.getConnection()) {
+                // PostgreSQL only honours the fetch size inside a transaction; otherwise it buffers the whole result.
+                conn.setAutoCommit(false);
+                conn.setReadOnly(true);
+                try (PreparedStatement ps = conn.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY)) {
+                    ps.setFetchSize(fetchSize);
+                    ps.setTimestamp(1, Timestamp.from(from));
+                    ps.setTimestamp(2, Timestamp.from(to));
+                    try (ResultSet rs = ps.executeQuery()) {
+                        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), 64 * 1024);
+                        if (format == Format.CSV) writeCsv(rs, writer);
+                        else writeNdjson(rs, writer);
+                        writer.flush();
+                    }
+                } finally {
+                    conn.rollback();
+                }
+            } catch (SQLException e) {
+                throw new IOException("Booking export failed", e);
+            } finally {
+                slots.release();
+            }
+        };
+    }
+
+    private static void writeCsv(ResultSet rs, Writer w) throws SQLException, IOException {
+        ResultSetMetaData meta = rs.getMetaData();
+        int columns = meta.getColumnCount();
+        for (int i = 1; i <= columns; i++) {
+            if (i > 1) w.write(',');
+            w.write(meta.getColumnLabel(i));
+        }
+        w.write("\r\n");
+        while (rs.next()) {
+            for (int i = 1; i <= columns; i++) {
+                if (i > 1) w.write(',');
+                Object value = value(rs.getObject(i));
+                if (value instanceof String text) writeCsvField(w, formulaSafe(text));
+                else if (value != null) writeCsvField(w, value instanceof BigDecimal n ? n.toPlainString() : value.toString());
+            }
+            w.write("\r\n");
+        }
+    }
+
+    /* Text that a spreadsheet would read as a formula (=, +, -, @, or a leading tab or CR) gets a leading quote, so
+       a customer name such as "=HYPERLINK(...)" opens as plain text. Numbers are written by the caller untouched. */
+    private static String formulaSafe(String s) {
+        if (s.isEmpty()) return s;
+        char c = s.charAt(0);
+        return c == '=' || c == '+' || c == '-' || c == '@' || c == '\t' || c == '\r' ? "'" + s : s;
+    }
+
+    // RFC 4180: quote fields containing a separator, quote or line break; double embedded quotes.
+    private static void writeCsvField(Writer w, String s) throws IOException {
+        boolean quote = false;
+        for (int i = 0; i < s.length() && !quote; i++) {
+            char c = s.charAt(i);
+            quote = c == ',' || c == '"' || c == '\r' || c == '\n';
+        }
+        if (!quote) {
+            w.write(s);
+            return;
+        }
+        w.write('"');
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            if (c == '"') w.write('"');
+            w.write(c);
+        }
+        w.write('"');
+    }
+
+    private void writeNdjson(ResultSet rs, Writer w) throws SQLException, IOException {
+        ResultSetMetaData meta = rs.getMetaData();
+        int columns = meta.getColumnCount();
+        String[] names = new String[columns + 1];
+        for (int i = 1; i <= columns; i++) names[i] = meta.getColumnLabel(i);
+        JsonGenerator gen = jsonFactory.createGenerator(w);
+        gen.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        gen.setRootValueSeparator(null); // one object per line, separated by the newline below only
+        while (rs.next()) {
+            gen.writeStartObject();
+            for (int i = 1; i <= columns; i++) {
+                Object value = value(rs.getObject(i));
+                gen.writeFieldName(names[i]);
+                if (value == null) gen.writeNull();
+                else if (value instanceof BigDecimal n) gen.writeNumber(n);
+                else if (value instanceof Integer n) gen.writeNumber(n);
+                else if (value instanceof Long n) gen.writeNumber(n);
+                else gen.writeString(value.toString());
+            }
+            gen.writeEndObject();
+            gen.writeRaw('\n');
+        }
+        gen.flush();
+    }
+
+    // Timestamps as UTC instants and dates as ISO dates, matching the JSON the admin API returns.
+    private static Object value(Object raw) {
+        if (raw instanceof Timestamp ts) return ts.toInstant();
+        if (raw instanceof Date d) return d.toLocalDate();
+        return raw;
+    }
+}
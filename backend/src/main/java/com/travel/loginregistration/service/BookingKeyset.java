@@ -0,0 +1,89 @@
+package com.travel.loginregistration.service;
+
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.Base64;
+import java.util.Locale;
+import java.util.UUID;
+
+/*
+    Parsed paging and filter parameters for the admin booking listings, which page newest-first on (created_at, id).
+    The cursor is the (createdAt, id) of the last row already shown, base64url-encoded so clients treat it as opaque.
+    Absent bounds become sentinels instead of nulls, so the repository queries stay plain range predicates on the index.
+*/
+
+public final class BookingKeyset {
+    public static final int DEFAULT_LIMIT = 50;
+    public static final int MAX_LIMIT = 200;
+    public static final String ALL = "ALL";
+    public static final String ACTIVE = "ACTIVE";
+    public static final String CANCELED = "CANCELED";
+
+    // Later than any stored created_at and still inside PostgreSQL's timestamp range.
+    private static final Instant END_OF_TIME = Instant.parse("9999-12-31T00:00:00Z");
+    private static final Instant START_OF_TIME = Instant.EPOCH;
+    // Sorts after every other uuid in PostgreSQL's byte order.
+    private static final UUID MAX_ID = UUID.fromString("ffffffff-ffff-ffff-ffff-ffffffffffff");
+
+    private final Instant beforeAt;
+    private final UUID beforeId;
+    private final Instant from;
+    private final Instant to;
+    private final String status;
+    private final int limit;
+
+    private BookingKeyset(Instant beforeAt, UUID beforeId, Instant from, Instant to, String status, int limit) {
+        this.beforeAt = beforeAt;
+        this.beforeId = beforeId;
+        this.from = from;
+        this.to = to;
+        this.status = status;
+        this.limit = limit;
+    }
+
+    // from/to are booking (created_at) dates in UTC, both inclusive.
+    public static BookingKeyset of(String cursor, Integer limit, String status, LocalDate from, LocalDate to) {
+        int size = limit == null ? DEFAULT_LIMIT : limit;
+        if (size < 1 || size > MAX_LIMIT) throw new IllegalArgumentException("INVALID_LIMIT");
+        String st = status == null || status.isBlank() ? ALL : status.trim().toUpperCase(Locale.ROOT);
+        if (!st.equals(ALL) && !st.equals(ACTIVE) && !st.equals(CANCELED)) throw new IllegalArgumentException("INVALID_STATUS");
+        if (from != null && to != null && to.isBefore(from)) throw new IllegalArgumentException("INVALID_DATE_RANGE");
+
+        Instant beforeAt = END_OF_TIME;
+        UUID beforeId = MAX_ID;
+        if (cursor != null && !cursor.isBlank()) {
+            try {
+                String raw = new String(Base64.getUrlDecoder().decode(cursor.trim()), StandardCharsets.UTF_8);
+                int sep = raw.indexOf('|');
+                beforeAt = Instant.parse(raw.substring(0, sep));
+                beforeId = UUID.fromString(raw.substring(sep + 1));
+            } catch (RuntimeException e) {
+                throw new IllegalArgumentException("INVALID_CURSOR");
+            }
+        }
+        return new BookingKeyset(beforeAt, beforeId,
+                from == null ? START_OF_TIME : from.atStartOfDay(ZoneOffset.UTC).toInstant(),
+                to == null ? END_OF_TIME : to.plusDays(1).atStartOfDay(ZoneOffset.UTC).toInstant(),
+                st, size);
+    }
+
+    public static String cursor(Instant createdAt, UUID id) {
+        String raw = createdAt + "|" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public Instant beforeAt() { return beforeAt; }
+    public UUID beforeId() { return beforeId; }
+    public Instant from() { return from; }
+    public Instant to() { return to; }
+    public String status() { return status; }
+    public int limit() { return limit; }
+
+    // One row more than the page so the caller can tell whether another page follows.
+    public Pageable probe() { return PageRequest.of(0, limit + 1); }
+}
@@ -12,16 +12,14 @@ import com.travel.loginregistration.repository.UserProfileRepository;
 import com.travel.loginregistration.repository.UserRepository;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import java.math.BigDecimal;
-import java.nio.file.Files;
-import java.nio.file.Path;
-import java.nio.file.StandardOpenOption;
 import java.time.Instant;
 import java.util.Locale;
 import java.util.UUID;
 import java.util.concurrent.ThreadLocalRandom;
-import java.util.function.Predicate;
 
 /*
     handles booking travel packages for users, ensuring eligibility and logging bookings
@@ -35,15 +33,33 @@ public class BookingService {
     private final TravelPackageRepository packageRepo;
     private final UserRepository userRepo;
     private final UserProfileRepository profileRepo;
+    private final PackageSeatReservations seats;
+    private final TransactionIdGenerator txnIds;
+    private final BookingAuditLog auditLog;
+    private final HistoryCache historyCache;
+    private final InvoiceStore invoiceStore;
+    private final BookingEvents events;
 
     public BookingService(BookingRepository bookingRepo,
             TravelPackageRepository packageRepo,
             UserRepository userRepo,
-            UserProfileRepository profileRepo) {
+            UserProfileRepository profileRepo,
+            PackageSeatReservations seats,
+            TransactionIdGenerator txnIds,
+            BookingAuditLog auditLog,
+            HistoryCache historyCache,
+            InvoiceStore invoiceStore,
+            BookingEvents events) {
         this.bookingRepo = bookingRepo;
         this.packageRepo = packageRepo;
         this.userRepo = userRepo;
         this.profileRepo = profileRepo;
+        this.seats = seats;
+        this.txnIds = txnIds;
+        this.auditLog = auditLog;
+        this.historyCache = historyCache;
+        this.invoiceStore = invoiceStore;
+        this.events = events;
     }
 
     @Transactional
@@ -73,6 +89,8 @@ public class BookingService {
         String customerName = profile.getFullName();
         String idNumber = profile.getIdNumber();
 
+        reserveSeats(pack, req.totalPersons);
+
         // Calculate total cost = base price * number of persons
         BigDecimal total = pack.getBasePrice().multiply(BigDecimal.valueOf(req.totalPersons));
 
@@ -87,10 +105,12 @@ public class BookingService {
         b.setIdType(profile.getIdType());
         b.setUserEmail(user.getEmail());
         b.setCreatedAt(Instant.now());
-        b.setTransactionId(generateTxnId(tx -> bookingRepo.existsByTransactionId(tx)));
+        b.setTransactionId(txnIds.next());
         b.setCardLast4(generateLast4());
         b.setStatus("CONFIRMED");
         bookingRepo.save(b); // booking saved to database
+        historyCache.invalidateUser(b.getUserId(), b.getUserEmail());
+        notifyOwner(b, BookingEvents.CONFIRMED);
 
         logToFile(b, user.getEmail(), pack.getName());
 
@@ -133,6 +153,10 @@ public class BookingService {
         booking.setCanceledAt(Instant.now());
         booking.setCanceledBy("USER");
         bookingRepo.save(booking);
+        releaseSeats(booking);
+        historyCache.invalidateUser(booking.getUserId(), booking.getUserEmail());
+        invoiceStore.invalidate(InvoiceService.BookingKind.PACKAGE, booking.getId());
+        notifyOwner(booking, BookingEvents.CANCELED);
 
         BookingResponse res = new BookingResponse();
         res.id = booking.getId();
@@ -148,28 +172,75 @@ public class BookingService {
         return res;
     }
 
-    // Append each booking to backend/bookings.log for manual auditing
+    // Queue each committed booking for backend/bookings.log (manual auditing); the file write happens on the audit thread.
     private void logToFile(Booking b, String email, String packageName) {
+        String line = BookingAuditLog.line(Instant.now(), b.getId(), email, packageName, b.getTotalPersons(),
+                b.getPriceTotal(), b.getIdNumber(), b.getCustomerName());
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            auditLog.append(line);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                auditLog.append(line);
+            }
+        });
+    }
+
+    // Takes seats on the in-memory counter first (cheap sold-out rejection), then on travel_packages.seats_booked.
+    private void reserveSeats(TravelPackage pack, int persons) {
+        PackageSeatReservations.Hold hold = seats.tryReserve(pack, persons);
+        if (hold == null) throw new IllegalArgumentException("Not enough seats left for this package");
+        int updated;
         try {
-            String line = String.format(
-                    "%s | booking %s | user=%s | package=%s | persons=%d | total=%s | id=%s | name=%s%n",
-                    Instant.now(), b.getId(), email, packageName, b.getTotalPersons(), b.getPriceTotal(),
-                    b.getIdNumber(), b.getCustomerName());
-            Path p = Path.of("bookings.log");
-            Files.writeString(p, line, StandardOpenOption.CREATE, StandardOpenOption.APPEND);
-        } catch (Exception ignore) {
-            // Fail-safe: ignore file logging errors
+            updated = packageRepo.reserveSeats(pack.getId(), persons);
+        } catch (RuntimeException e) {
+            seats.cancel(hold);
+            throw e;
+        }
+        if (updated == 0) {
+            // Another node sold these seats; drop the counter (and with it this hold) so it reseeds from the database.
+            seats.invalidate(pack.getId());
+            throw new IllegalArgumentException("Not enough seats left for this package");
+        }
+        // Only a hold backed by the durable count is handed back if the booking later rolls back.
+        PackageSeatReservations.Hold held = hold;
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    if (status != STATUS_COMMITTED) seats.cancel(held);
+                }
+            });
+        }
+    }
+
+    // Gives a canceled booking's seats back: durable count now, counter once the cancel commits.
+    private void releaseSeats(Booking booking) {
+        if (booking.getPackageId() == null || booking.getTotalPersons() <= 0) return;
+        UUID packageId = booking.getPackageId();
+        int persons = booking.getTotalPersons();
+        packageRepo.releaseSeats(packageId, persons);
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            seats.release(packageId, persons);
+            return;
         }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                seats.release(packageId, persons);
+            }
+        });
     }
 
-    private String generateTxnId(Predicate<String> exists) {
-        for (int i = 0; i < 20; i++) {
-            int num = ThreadLocalRandom.current().nextInt(0, 1_000_000);
-            String tx = "TXN-" + String.format("%06d", num);
-            if (!exists.test(tx))
-                return tx;
+    // Pushes the change to the owner's open event streams once it commits.
+    private void notifyOwner(Booking b, String type) {
+        String email = b.getUserEmail();
+        if ((email == null || email.isBlank()) && b.getUserId() != null) {
+            email = userRepo.findById(b.getUserId()).map(User::getEmail).orElse(null);
         }
-        throw new RuntimeException("Could not generate unique transaction ID");
+        events.publish(email, type, "PACKAGE", b.getId(), b.getStatus(), b.getCanceledAt(), b.getCanceledBy());
     }
 
     private String generateLast4() {
@@ -187,6 +258,10 @@ public class BookingService {
         booking.setCanceledAt(Instant.now());
         booking.setCanceledBy(canceledBy == null || canceledBy.isBlank() ? "ADMIN" : canceledBy);
         bookingRepo.save(booking);
+        releaseSeats(booking);
+        historyCache.invalidateUser(booking.getUserId(), booking.getUserEmail());
+        invoiceStore.invalidate(InvoiceService.BookingKind.PACKAGE, booking.getId());
+        notifyOwner(booking, BookingEvents.CANCELED);
 
         BookingResponse res = new BookingResponse();
         res.id = booking.getId();
@@ -0,0 +1,132 @@
+package com.travel.loginregistration.service;
+
+import com.travel.loginregistration.repository.DestinationRepository;
+import com.travel.loginregistration.repository.HotelRepository;
+import com.travel.loginregistration.repository.HotelRoomRepository;
+import com.travel.loginregistration.repository.PackageItineraryRepository;
+import com.travel.loginregistration.repository.TravelPackageRepository;
+import jakarta.annotation.PreDestroy;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+
+/*
+    Holds the current CatalogSnapshot and rebuilds it after catalog writes.
+    Writers call refresh() once their change has committed; the rebuild runs on a single background thread,
+    coalesces bursts of writes into one load, and swaps the new snapshot in with a single volatile write.
+    Readers call snapshot(); the admin client calls fresh() so it always sees its own edits.
+*/
+
+@Service
+public class CatalogService {
+    private static final Sort BY_NAME = Sort.by("name");
+
+    private final DestinationRepository destinationRepository;
+    private final HotelRepository hotelRepository;
+    private final HotelRoomRepository roomRepository;
+    private final TravelPackageRepository packageRepository;
+    private final PackageItineraryRepository itineraryRepository;
+    private final HotelSearchCache searchCache;
+    private final HistoryCache historyCache;
+    private final TransactionTemplate readTx;
+    private final ExecutorService rebuilder = Executors.newSingleThreadExecutor(r -> {
+        Thread t = new Thread(r, "catalog-rebuild");
+        t.setDaemon(true);
+        return t;
+    });
+
+    // Bumped by every refresh(); a snapshot built after reading value n includes every write that requested <= n.
+    private final AtomicLong requested = new AtomicLong();
+    private volatile CatalogSnapshot current;
+    // Generations restart at 0 with the process, so tags also carry the boot time.
+    private final String bootTag = Long.toString(System.currentTimeMillis(), 36);
+
+    public CatalogService(DestinationRepository destinationRepository,
+                          HotelRepository hotelRepository,
+                          HotelRoomRepository roomRepository,
+                          TravelPackageRepository packageRepository,
+                          PackageItineraryRepository itineraryRepository,
+                          HotelSearchCache searchCache,
+                          HistoryCache historyCache,
+                          PlatformTransactionManager txManager) {
+        this.destinationRepository = destinationRepository;
+        this.hotelRepository = hotelRepository;
+        this.roomRepository = roomRepository;
+        this.packageRepository = packageRepository;
+        this.itineraryRepository = itineraryRepository;
+        this.searchCache = searchCache;
+        this.historyCache = historyCache;
+        this.readTx = new TransactionTemplate(txManager);
+        this.readTx.setReadOnly(true);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        refresh();
+    }
+
+    // Current snapshot; only the very first call (before warm-up finishes) loads on the caller's thread.
+    public CatalogSnapshot snapshot() {
+        CatalogSnapshot s = current;
+        return s != null ? s : rebuild(requested.get());
+    }
+
+    // A snapshot that includes every write that has called refresh() so far, rebuilding now if needed.
+    public CatalogSnapshot fresh() {
+        long target = requested.get();
+        CatalogSnapshot s = current;
+        return s != null && s.generation() >= target ? s : rebuild(target);
+    }
+
+    /*
+        Entity tag for responses built only from the catalog. Tags describe this node's snapshot: behind a balancer
+        nodes never share tags (each carries its boot time), and a node that missed an admin edit made through
+        another node keeps answering 304 with its old data. Like the snapshot itself, this is single-node only.
+    */
+    public String etag() {
+        return "\"c" + bootTag + "-" + snapshot().generation() + "\"";
+    }
+
+    // Entity tag for responses that also depend on bookings for one destination (see HotelSearchCache.version).
+    public String etag(UUID destinationId) {
+        if (destinationId == null) return etag();
+        return "\"c" + bootTag + "-" + snapshot().generation() + "-d" + searchCache.version(destinationId) + "\"";
+    }
+
+    // Call after a catalog write has committed.
+    public CompletableFuture<CatalogSnapshot> refresh() {
+        long target = requested.incrementAndGet();
+        return CompletableFuture.supplyAsync(() -> rebuild(target), rebuilder);
+    }
+
+    @PreDestroy
+    public void stop() {
+        rebuilder.shutdownNow();
+    }
+
+    private synchronized CatalogSnapshot rebuild(long target) {
+        CatalogSnapshot s = current;
+        if (s != null && s.generation() >= target) return s; // an earlier rebuild already covered this write
+        long generation = requested.get();
+        CatalogSnapshot next = readTx.execute(status -> CatalogSnapshot.build(generation,
+                destinationRepository.findAll(BY_NAME),
+                hotelRepository.findAll(BY_NAME),
+                roomRepository.findAll(BY_NAME),
+                packageRepository.findAll(BY_NAME),
+                itineraryRepository.findAllRows()));
+        current = next;
+        // Cached searches and histories were computed from the previous catalog.
+        searchCache.invalidateAll();
+        historyCache.invalidateAll();
+        return next;
+    }
+}
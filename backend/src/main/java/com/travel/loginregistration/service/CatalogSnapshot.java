@@ -0,0 +1,323 @@
+package com.travel.loginregistration.service;
+
+import com.travel.loginregistration.dto.DestinationCard;
+import com.travel.loginregistration.dto.HotelSummary;
+import com.travel.loginregistration.dto.ItineraryItem;
+import com.travel.loginregistration.dto.PackageDetails;
+import com.travel.loginregistration.dto.PackageSummary;
+import com.travel.loginregistration.model.Destination;
+import com.travel.loginregistration.model.Hotel;
+import com.travel.loginregistration.model.HotelRoom;
+import com.travel.loginregistration.model.TravelPackage;
+import com.travel.loginregistration.repository.PackageItineraryRepository.ItineraryRow;
+import org.springframework.beans.BeanUtils;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+/*
+    Immutable read model of the catalog: destinations, hotels, rooms, packages and itineraries,
+    plus the DestinationCard / HotelSummary / PackageSummary / PackageDetails DTOs built from them.
+    CatalogService builds a new one after every catalog write and swaps it in; readers never touch the database.
+    Entities held here are copies made at build time, so no persistence context (the loader's, or a caller's
+    transaction it joined) ever manages them; they are shared between readers and must be treated as read-only.
+    The prebuilt DTOs are never handed out: every getter returns fresh copies that callers may modify.
+*/
+
+public final class CatalogSnapshot {
+    private final long generation;
+    private final List<DestinationCard> destinations;
+    private final List<DestinationCard> activeDestinations;
+    private final Map<UUID, Hotel> hotels;
+    private final Map<UUID, List<Hotel>> hotelsByDestination;
+    private final Map<UUID, HotelSummary> hotelSummaries;
+    private final Map<UUID, HotelFeatures> hotelFeatures;
+    private final Map<UUID, List<HotelRoom>> roomsByHotel;
+    private final List<TravelPackage> packages;
+    private final List<PackageSummary> activePackages;
+    private final Map<UUID, PackageDetails> packageDetails;
+    private final Set<String> activeDestinationNames;
+    private final Map<UUID, DestinationCard> cardsById;
+    private final SearchIndex searchIndex;
+
+    private CatalogSnapshot(long generation, List<Destination> destinations, List<Hotel> hotels, List<HotelRoom> rooms,
+                            List<TravelPackage> packages, List<ItineraryRow> itinerary) {
+        this.generation = generation;
+
+        this.hotels = Map.copyOf(hotels.stream().collect(Collectors.toMap(Hotel::getId, h -> h)));
+        this.hotelsByDestination = freeze(hotels.stream()
+                .filter(h -> h.getDestinationId() != null)
+                .collect(Collectors.groupingBy(Hotel::getDestinationId, LinkedHashMap::new, Collectors.toList())));
+        this.roomsByHotel = freeze(rooms.stream()
+                .filter(r -> r.getHotelId() != null)
+                .collect(Collectors.groupingBy(HotelRoom::getHotelId, LinkedHashMap::new, Collectors.toList())));
+        Map<UUID, HotelFeatures> features = new HashMap<>();
+        hotelsByDestination.forEach((destId, destHotels) -> features.put(destId, HotelFeatures.build(destHotels, roomsByHotel)));
+        this.hotelFeatures = Map.copyOf(features);
+        this.hotelSummaries = Map.copyOf(hotels.stream().collect(Collectors.toMap(Hotel::getId, CatalogSnapshot::toHotelSummary)));
+
+        // First active package (by name) per location; same pick as findFirstByLocationIgnoreCaseAndActiveTrueOrderByNameAsc.
+        Map<String, UUID> firstPackage = new HashMap<>();
+        for (TravelPackage p : packages) {
+            String key = locationKey(p.getLocation());
+            if (p.isActive() && key != null) firstPackage.putIfAbsent(key, p.getId());
+        }
+        List<DestinationCard> cards = new ArrayList<>(destinations.size());
+        Set<String> activeNames = new HashSet<>();
+        for (Destination d : destinations) {
+            List<Hotel> destHotels = hotelsByDestination.getOrDefault(d.getId(), List.of());
+            cards.add(toCard(d, destHotels.size(), firstPackage.get(locationKey(d.getName()))));
+            if (d.isActive() && locationKey(d.getName()) != null) activeNames.add(locationKey(d.getName()));
+        }
+        this.destinations = List.copyOf(cards);
+        this.activeDestinations = cards.stream().filter(DestinationCard::isActive).toList();
+        this.activeDestinationNames = Set.copyOf(activeNames);
+        this.cardsById = Map.copyOf(this.destinations.stream().collect(Collectors.toMap(DestinationCard::getId, c -> c)));
+        this.searchIndex = SearchIndex.build(destinations, hotelsByDestination);
+
+        Map<UUID, List<ItineraryItem>> steps = new HashMap<>();
+        for (ItineraryRow row : itinerary) {
+            steps.computeIfAbsent(row.getPackageId(), id -> new ArrayList<>()).add(toItineraryItem(row));
+        }
+        this.packages = List.copyOf(packages);
+        this.activePackages = packages.stream().filter(TravelPackage::isActive).map(CatalogSnapshot::toSummary).toList();
+        this.packageDetails = Map.copyOf(packages.stream().collect(Collectors.toMap(TravelPackage::getId,
+                p -> toDetails(p, steps.getOrDefault(p.getId(), List.of())))));
+    }
+
+    static CatalogSnapshot build(long generation, List<Destination> destinations, List<Hotel> hotels, List<HotelRoom> rooms,
+                                 List<TravelPackage> packages, List<ItineraryRow> itinerary) {
+        return new CatalogSnapshot(generation, detach(destinations, Destination::new), detach(hotels, Hotel::new),
+                detach(rooms, HotelRoom::new), detach(packages, TravelPackage::new), itinerary);
+    }
+
+    // Case-insensitive key used to match package locations against destination names.
+    public static String locationKey(String name) {
+        if (name == null) return null;
+        String trimmed = name.trim();
+        return trimmed.isEmpty() ? null : trimmed.toUpperCase(Locale.ROOT);
+    }
+
+    public long generation() { return generation; }
+
+    // Every destination (active or not) by name, for the admin client.
+    public List<DestinationCard> destinations() { return copyCards(destinations); }
+
+    public List<DestinationCard> activeDestinations() { return copyCards(activeDestinations); }
+
+    public DestinationCard destination(UUID destinationId) {
+        DestinationCard card = cardsById.get(destinationId);
+        return card == null ? null : copy(card);
+    }
+
+    public SearchIndex search() { return searchIndex; }
+
+    public boolean hasActiveDestination(String name) {
+        String key = locationKey(name);
+        return key != null && activeDestinationNames.contains(key);
+    }
+
+    public Hotel hotel(UUID hotelId) { return hotels.get(hotelId); }
+
+    public List<Hotel> hotels(UUID destinationId) { return hotelsByDestination.getOrDefault(destinationId, List.of()); }
+
+    // Ranking inputs for a destination's hotels, index-aligned with hotels(destinationId).
+    public HotelFeatures hotelFeatures(UUID destinationId) { return hotelFeatures.getOrDefault(destinationId, HotelFeatures.EMPTY); }
+
+    // Availability-free summary; the caller fills in availableRooms on its own copy.
+    public HotelSummary hotelSummary(UUID hotelId) {
+        HotelSummary base = hotelSummaries.get(hotelId);
+        return base == null ? null : copy(base);
+    }
+
+    // Parsed lists stored at save time; rows saved before V32 ran fall back to splitting the text.
+    public static List<String> facilities(Hotel h) {
+        List<String> list = h.getFacilitiesList();
+        return list != null ? list : HotelAttributes.facilities(h.getFacilities());
+    }
+
+    public static List<String> nearby(Hotel h) {
+        List<String> list = h.getNearbyList();
+        return list != null ? list : HotelAttributes.nearby(h.getNearby());
+    }
+
+    public List<HotelRoom> rooms(UUID hotelId) { return roomsByHotel.getOrDefault(hotelId, List.of()); }
+
+    // Every package (active or not) by name, for the admin client.
+    public List<TravelPackage> packages() { return packages; }
+
+    public List<PackageSummary> activePackages() {
+        List<PackageSummary> copies = new ArrayList<>(activePackages.size());
+        for (PackageSummary p : activePackages) copies.add(copy(p));
+        return copies;
+    }
+
+    public PackageDetails packageDetails(UUID packageId) {
+        PackageDetails d = packageDetails.get(packageId);
+        return d == null ? null : copy(d);
+    }
+
+    // Plain copies of freshly loaded entities, through their getters and setters. TravelPackage.seatsBooked has no
+    // setter and stays 0: it moves with every booking, so the snapshot never was a place to read it from.
+    private static <T> List<T> detach(List<T> loaded, Supplier<T> blank) {
+        List<T> copies = new ArrayList<>(loaded.size());
+        for (T entity : loaded) {
+            T copy = blank.get();
+            BeanUtils.copyProperties(entity, copy);
+            copies.add(copy);
+        }
+        return copies;
+    }
+
+    private static List<DestinationCard> copyCards(List<DestinationCard> cards) {
+        List<DestinationCard> copies = new ArrayList<>(cards.size());
+        for (DestinationCard c : cards) copies.add(copy(c));
+        return copies;
+    }
+
+    private static DestinationCard copy(DestinationCard card) {
+        DestinationCard c = new DestinationCard();
+        BeanUtils.copyProperties(card, c);
+        return c;
+    }
+
+    private static HotelSummary copy(HotelSummary base) {
+        HotelSummary hs = new HotelSummary();
+        hs.id = base.id;
+        hs.name = base.name;
+        hs.rating = base.rating;
+        hs.location = base.location;
+        hs.image = base.image;
+        hs.facilities = base.facilities; // List.copyOf, immutable
+        hs.realPrice = base.realPrice;
+        hs.currentPrice = base.currentPrice;
+        hs.availableRooms = base.availableRooms;
+        return hs;
+    }
+
+    private static PackageSummary copy(PackageSummary p) {
+        PackageSummary s = new PackageSummary();
+        s.id = p.id;
+        s.name = p.name;
+        s.location = p.location;
+        s.basePrice = p.basePrice;
+        s.destImageUrl = p.destImageUrl;
+        s.groupSize = p.groupSize;
+        return s;
+    }
+
+    private static PackageDetails copy(PackageDetails p) {
+        PackageDetails d = new PackageDetails();
+        d.id = p.id;
+        d.name = p.name;
+        d.location = p.location;
+        d.basePrice = p.basePrice;
+        d.destImageUrl = p.destImageUrl;
+        d.hotelImageUrl = p.hotelImageUrl;
+        d.image1 = p.image1;
+        d.image2 = p.image2;
+        d.image3 = p.image3;
+        d.image4 = p.image4;
+        d.image5 = p.image5;
+        d.overview = p.overview;
+        d.locationPoints = p.locationPoints;
+        d.timing = p.timing;
+        List<ItineraryItem> steps = new ArrayList<>(p.itinerary.size());
+        for (ItineraryItem step : p.itinerary) {
+            ItineraryItem i = new ItineraryItem();
+            i.dayNumber = step.dayNumber;
+            i.title = step.title;
+            i.subtitle = step.subtitle;
+            steps.add(i);
+        }
+        d.itinerary = steps;
+        d.groupSize = p.groupSize;
+        d.bookingDeadline = p.bookingDeadline;
+        return d;
+    }
+
+    private static <K, V> Map<K, List<V>> freeze(Map<K, List<V>> grouped) {
+        Map<K, List<V>> frozen = new HashMap<>();
+        grouped.forEach((k, v) -> frozen.put(k, List.copyOf(v)));
+        return Map.copyOf(frozen);
+    }
+
+    private static DestinationCard toCard(Destination dest, int hotelsCount, UUID packageId) {
+        DestinationCard card = new DestinationCard();
+        card.setId(dest.getId());
+        card.setName(dest.getName());
+        card.setRegion(dest.getRegion());
+        card.setTags(dest.getTags());
+        card.setBestSeason(dest.getBestSeason());
+        card.setImageUrl(dest.getImageUrl());
+        card.setHotelsCount(hotelsCount);
+        card.setPackageAvailable(packageId != null);
+        if (packageId != null) card.setPackageId(packageId);
+        card.setActive(dest.isActive());
+        return card;
+    }
+
+    private static HotelSummary toHotelSummary(Hotel h) {
+        HotelSummary hs = new HotelSummary();
+        hs.id = h.getId();
+        hs.name = h.getName();
+        hs.rating = h.getRating();
+        hs.location = h.getLocation();
+        hs.image = h.getImage1();
+        hs.realPrice = h.getRealPrice();
+        hs.currentPrice = h.getCurrentPrice();
+        List<String> facilities = facilities(h);
+        hs.facilities = facilities == null ? null : List.copyOf(facilities);
+        return hs;
+    }
+
+    private static PackageSummary toSummary(TravelPackage p) {
+        PackageSummary s = new PackageSummary();
+        s.id = p.getId();
+        s.name = p.getName();
+        s.location = p.getLocation();
+        s.basePrice = p.getBasePrice();
+        s.destImageUrl = p.getDestImageUrl();
+        s.groupSize = p.getGroupSize();
+        return s;
+    }
+
+    private static PackageDetails toDetails(TravelPackage p, List<ItineraryItem> steps) {
+        PackageDetails d = new PackageDetails();
+        d.id = p.getId();
+        d.name = p.getName();
+        d.location = p.getLocation();
+        d.basePrice = p.getBasePrice();
+        d.destImageUrl = p.getDestImageUrl();
+        d.hotelImageUrl = p.getHotelImageUrl();
+        d.image1 = p.getImage1();
+        d.image2 = p.getImage2();
+        d.image3 = p.getImage3();
+        d.image4 = p.getImage4();
+        d.image5 = p.getImage5();
+        d.overview = p.getOverview();
+        d.locationPoints = p.getLocationPoints();
+        d.timing = p.getTiming();
+        d.itinerary = List.copyOf(steps);
+        d.groupSize = p.getGroupSize();
+        d.bookingDeadline = p.getBookingDeadline();
+        return d;
+    }
+
+    private static ItineraryItem toItineraryItem(ItineraryRow row) {
+        ItineraryItem i = new ItineraryItem();
+        i.dayNumber = row.getDayNumber();
+        i.title = row.getTitle();
+        i.subtitle = row.getSubtitle();
+        return i;
+    }
+}
@@ -2,57 +2,92 @@ package com.travel.loginregistration.service;
 
 import com.travel.loginregistration.dto.DestinationCard;
 import com.travel.loginregistration.dto.DestinationRequest;
+import com.travel.loginregistration.dto.HotelCalendar;
 import com.travel.loginregistration.dto.HotelDetails;
+import com.travel.loginregistration.dto.HotelPage;
+import com.travel.loginregistration.dto.HotelQuery;
 import com.travel.loginregistration.dto.HotelSummary;
+import com.travel.loginregistration.dto.SearchResult;
 import com.travel.loginregistration.dto.HotelDetails.RoomInfo;
 import com.travel.loginregistration.model.Destination;
 import com.travel.loginregistration.model.Hotel;
 import com.travel.loginregistration.model.HotelRoom;
 import com.travel.loginregistration.repository.DestinationRepository;
 import com.travel.loginregistration.repository.TravelPackageRepository;
-import com.travel.loginregistration.repository.HotelRoomRepository;
 import com.travel.loginregistration.repository.HotelRepository;
 import com.travel.loginregistration.repository.HotelRoomBookingRepository;
+import com.travel.loginregistration.repository.HotelRoomBookingRepository.ActiveStay;
 import org.springframework.stereotype.Service;
 import org.springframework.util.StringUtils;
 
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Base64;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
 import java.util.stream.Collectors;
 
 @Service
 public class DestinationService {
+    public static final int MAX_CALENDAR_DAYS = 365;
+    public static final int MAX_SEARCH_RESULTS = 50;
+    public static final int MAX_HOTEL_PAGE = 100;
+
     private final DestinationRepository destinationRepository;
     private final TravelPackageRepository travelPackageRepository;
     private final HotelRepository hotelRepository;
-    private final HotelRoomRepository roomRepository;
     private final HotelRoomBookingRepository roomBookingRepository;
+    private final RoomInventoryLedger ledger;
+    private final HotelSearchCache searchCache;
+    private final CatalogService catalog;
 
     public DestinationService(DestinationRepository destinationRepository,
                               TravelPackageRepository travelPackageRepository,
                               HotelRepository hotelRepository,
-                              HotelRoomRepository roomRepository,
-                              HotelRoomBookingRepository roomBookingRepository) {
+                              HotelRoomBookingRepository roomBookingRepository,
+                              RoomInventoryLedger ledger,
+                              HotelSearchCache searchCache,
+                              CatalogService catalog) {
         this.destinationRepository = destinationRepository;
         this.travelPackageRepository = travelPackageRepository;
         this.hotelRepository = hotelRepository;
-        this.roomRepository = roomRepository;
         this.roomBookingRepository = roomBookingRepository;
+        this.ledger = ledger;
+        this.searchCache = searchCache;
+        this.catalog = catalog;
     }
 
     public List<DestinationCard> list(String search) {
-        List<Destination> items = StringUtils.hasText(search)
-                ? destinationRepository.findByActiveTrueAndNameContainingIgnoreCaseOrderByNameAsc(search.trim())
-                : destinationRepository.findByActiveTrueOrderByNameAsc();
-        return items.stream().map(this::toCard).collect(Collectors.toList());
+        List<DestinationCard> active = catalog.snapshot().activeDestinations();
+        if (!StringUtils.hasText(search)) return active;
+        // Plain name substring, in name order, as this endpoint always did; typo-tolerant ranking is /api/search.
+        String needle = search.trim().toLowerCase(Locale.ROOT);
+        return active.stream()
+                .filter(c -> c.getName() != null && c.getName().toLowerCase(Locale.ROOT).contains(needle))
+                .collect(Collectors.toList());
+    }
+
+    // Destinations and hotels matching q, ranked by trigram similarity.
+    public List<SearchResult> search(String q, String type, int limit) {
+        Set<String> types = null;
+        if (StringUtils.hasText(type)) {
+            String t = type.trim().toUpperCase(Locale.ROOT);
+            if (!t.equals(SearchIndex.DESTINATION) && !t.equals(SearchIndex.HOTEL)) throw new IllegalArgumentException("INVALID_SEARCH_TYPE");
+            types = Set.of(t);
+        }
+        return catalog.snapshot().search().search(q, types, Math.min(Math.max(limit, 1), MAX_SEARCH_RESULTS));
     }
 
     public DestinationCard create(DestinationRequest req) {
         Destination dest = new Destination();
         apply(dest, req);
         Destination saved = destinationRepository.save(dest);
+        catalog.refresh();
         return toCard(saved);
     }
 
@@ -60,36 +95,126 @@ public class DestinationService {
         Destination dest = destinationRepository.findById(id).orElseThrow(() -> new IllegalArgumentException("DEST_NOT_FOUND"));
         apply(dest, req);
         Destination saved = destinationRepository.save(dest);
+        catalog.refresh();
         return toCard(saved);
     }
 
     public void delete(UUID id) {
         if (destinationRepository.existsById(id)) {
             destinationRepository.deleteById(id);
+            catalog.refresh();
         }
     }
 
     public long countHotels(UUID destinationId) {
-        return hotelRepository.countByDestinationId(destinationId);
+        return catalog.snapshot().hotels(destinationId).size();
     }
 
-    public List<HotelSummary> listHotels(UUID destinationId, LocalDate checkIn, LocalDate checkOut) {
-        List<Hotel> hotels = hotelRepository.findByDestinationIdOrderByNameAsc(destinationId);
+    // ETag for the destination list: changes only when the catalog snapshot does.
+    public String listEtag() {
+        return catalog.etag();
+    }
 
-        List<HotelSummary> items = hotels.stream()
-                .map(h -> toHotelSummary(h, checkIn, checkOut))
-                .collect(Collectors.toList());
+    // ETag for a destination's hotel list; dated searches also depend on that destination's bookings.
+    public String hotelsEtag(UUID destinationId, LocalDate checkIn, LocalDate checkOut) {
+        return hasStay(checkIn, checkOut) ? catalog.etag(destinationId) : catalog.etag();
+    }
 
-        if (checkIn != null && checkOut != null && checkIn.isBefore(checkOut)) {
-            items.sort((a, b) -> {
-                int byAvail = Integer.compare(
-                        b.availableRooms == null ? 0 : b.availableRooms,
-                        a.availableRooms == null ? 0 : a.availableRooms);
-                if (byAvail != 0) return byAvail;
-                return b.rating == null ? 0 : b.rating.compareTo(a.rating == null ? java.math.BigDecimal.ZERO : a.rating);
-            });
+    // ETag for one hotel's details, or null when the hotel is unknown (the request will fail anyway).
+    public String hotelEtag(UUID hotelId, LocalDate checkIn, LocalDate checkOut) {
+        Hotel hotel = catalog.snapshot().hotel(hotelId);
+        if (hotel == null) return null;
+        return hasStay(checkIn, checkOut) ? catalog.etag(hotel.getDestinationId()) : catalog.etag();
+    }
+
+    private static boolean hasStay(LocalDate checkIn, LocalDate checkOut) {
+        return checkIn != null && checkOut != null && checkIn.isBefore(checkOut);
+    }
+
+    // One page of a destination's hotels, filtered and ordered by HotelFeatures.rank.
+    public HotelPage searchHotels(UUID destinationId, LocalDate checkIn, LocalDate checkOut, HotelQuery query) {
+        boolean dated = hasStay(checkIn, checkOut);
+        String sort = HotelFeatures.sortMode(query.sort, dated);
+        if (query.limit < 1 || query.limit > MAX_HOTEL_PAGE) throw new IllegalArgumentException("INVALID_LIMIT");
+
+        CatalogSnapshot snapshot = catalog.snapshot();
+        HotelFeatures features = snapshot.hotelFeatures(destinationId);
+        List<HotelSummary> hotels = listHotels(destinationId, checkIn, checkOut);
+        int[] available = new int[features.size()];
+        if (!alignAvailability(hotels, features, available)) {
+            // Cached list predates this snapshot (a catalog rebuild just landed); compute against it directly.
+            hotels = loadHotels(snapshot, destinationId, checkIn, checkOut);
+            alignAvailability(hotels, features, available);
         }
-        return items;
+
+        long[] ranked = features.rank(sort,
+                query.minPrice == null ? 0 : query.minPrice.doubleValue(),
+                query.maxPrice == null ? Double.MAX_VALUE : query.maxPrice.doubleValue(),
+                query.minRating == null ? 0 : query.minRating.doubleValue(),
+                query.facilities,
+                query.guests == null ? 0 : query.guests,
+                available);
+
+        // Keys descend strictly: the page starts at the first hotel ranked below the cursor's.
+        long after = decodeCursor(query.cursor, features);
+        int start = 0;
+        while (start < ranked.length && ranked[start] >= after) start++;
+
+        HotelPage page = new HotelPage();
+        page.sort = sort;
+        page.total = ranked.length;
+        int end = (int) Math.min(ranked.length, (long) start + query.limit);
+        List<HotelSummary> items = new ArrayList<>(end - start);
+        for (int k = start; k < end; k++) items.add(hotels.get(HotelFeatures.index(ranked[k])));
+        page.items = items;
+        page.nextCursor = end < ranked.length ? encodeCursor(ranked[end - 1], features) : null;
+        return page;
+    }
+
+    /*
+        Cursors are opaque to clients: the (score, id) of the last hotel shown, base64url-encoded. Resuming from
+        the hotel rather than an offset keeps pages from repeating or skipping hotels when availability or the
+        catalog changes between requests and hotels move up or down the ranking.
+    */
+    private static String encodeCursor(long key, HotelFeatures features) {
+        String raw = Integer.toHexString(HotelFeatures.scoreBits(key)) + "|" + features.id(HotelFeatures.index(key));
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    // Rank keys below the returned one come after the cursor; no cursor starts above every key.
+    private static long decodeCursor(String cursor, HotelFeatures features) {
+        if (cursor == null || cursor.isBlank()) return Long.MAX_VALUE;
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor.trim()), StandardCharsets.UTF_8);
+            int sep = raw.indexOf('|');
+            int scoreBits = Integer.parseUnsignedInt(raw.substring(0, sep), 16);
+            if (scoreBits < 0) throw new IllegalArgumentException("INVALID_CURSOR");
+            return features.key(scoreBits, UUID.fromString(raw.substring(sep + 1)));
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("INVALID_CURSOR");
+        }
+    }
+
+    // Copies availableRooms into the feature index order; false if the list was built from another snapshot.
+    private static boolean alignAvailability(List<HotelSummary> hotels, HotelFeatures features, int[] available) {
+        if (hotels.size() != features.size()) return false;
+        for (int i = 0; i < available.length; i++) {
+            HotelSummary h = hotels.get(i);
+            if (!h.id.equals(features.id(i))) return false;
+            available[i] = h.availableRooms == null ? 0 : h.availableRooms;
+        }
+        return true;
+    }
+
+    // Every hotel of the destination in catalog (name) order, with availability for the stay.
+    public List<HotelSummary> listHotels(UUID destinationId, LocalDate checkIn, LocalDate checkOut) {
+        return searchCache.get(destinationId, checkIn, checkOut, () -> loadHotels(catalog.snapshot(), destinationId, checkIn, checkOut));
+    }
+
+    private List<HotelSummary> loadHotels(CatalogSnapshot snapshot, UUID destinationId, LocalDate checkIn, LocalDate checkOut) {
+        return snapshot.hotels(destinationId).stream()
+                .map(h -> toHotelSummary(snapshot.hotelSummary(h.getId()), snapshot.rooms(h.getId()), checkIn, checkOut))
+                .collect(Collectors.toList());
     }
 
     public HotelDetails getHotelDetails(UUID hotelId) {
@@ -97,7 +222,9 @@ public class DestinationService {
     }
 
     public HotelDetails getHotelDetails(UUID hotelId, LocalDate checkIn, LocalDate checkOut) {
-        Hotel hotel = hotelRepository.findById(hotelId).orElseThrow(() -> new IllegalArgumentException("HOTEL_NOT_FOUND"));
+        CatalogSnapshot snapshot = catalog.snapshot();
+        Hotel hotel = snapshot.hotel(hotelId);
+        if (hotel == null) throw new IllegalArgumentException("HOTEL_NOT_FOUND");
         HotelDetails d = new HotelDetails();
         d.id = hotel.getId();
         d.name = hotel.getName();
@@ -109,59 +236,83 @@ public class DestinationService {
         d.images = java.util.stream.Stream.of(hotel.getImage1(), hotel.getImage2(), hotel.getImage3(), hotel.getImage4(), hotel.getImage5())
                 .filter(s -> s != null && !s.isBlank())
                 .collect(Collectors.toList());
-        String nearby = hotel.getNearby();
-        d.nearby = nearby == null || nearby.isBlank() ? List.of()
-                : java.util.Arrays.stream(nearby.split("\\."))
-                    .map(String::trim)
-                    .filter(s -> !s.isEmpty())
-                    .filter(s -> !s.matches("\\d+")) // drop stray numeric-only entries like "0" or "23"
-                    .collect(Collectors.toList());
-        String fac = hotel.getFacilities();
-        d.facilities = fac == null || fac.isBlank()
-                ? java.util.List.of()
-                : java.util.Arrays.stream(fac.split(","))
-                .map(String::trim)
-                .filter(s -> !s.isEmpty())
-                .collect(java.util.stream.Collectors.toList());
-        d.rooms = roomRepository.findByHotelIdOrderByNameAsc(hotelId).stream()
+        d.nearby = CatalogSnapshot.nearby(hotel);
+        d.facilities = CatalogSnapshot.facilities(hotel);
+        d.rooms = snapshot.rooms(hotelId).stream()
                 .map(r -> toRoomInfo(r, checkIn, checkOut))
                 .collect(Collectors.toList());
         return d;
     }
 
-    private HotelSummary toHotelSummary(Hotel h, LocalDate checkIn, LocalDate checkOut) {
-        HotelSummary hs = new HotelSummary();
-        hs.id = h.getId();
-        hs.name = h.getName();
-        hs.rating = h.getRating();
-        hs.location = h.getLocation();
-        hs.image = h.getImage1();
-        hs.realPrice = h.getRealPrice();
-        hs.currentPrice = h.getCurrentPrice();
+    // Remaining units per room per night over [from, to), from one bulk read of the overlapping stays.
+    public HotelCalendar getHotelCalendar(UUID hotelId, LocalDate from, LocalDate to) {
+        if (!from.isBefore(to)) throw new IllegalArgumentException("from must be before to");
+        int days = (int) (to.toEpochDay() - from.toEpochDay());
+        if (days > MAX_CALENDAR_DAYS) throw new IllegalArgumentException("calendar range must be at most " + MAX_CALENDAR_DAYS + " days");
+        CatalogSnapshot snapshot = catalog.snapshot();
+        if (snapshot.hotel(hotelId) == null) throw new IllegalArgumentException("HOTEL_NOT_FOUND");
+
+        List<HotelRoom> rooms = snapshot.rooms(hotelId);
+        Map<UUID, List<ActiveStay>> staysByRoom = roomBookingRepository.findActiveStaysForHotel(hotelId, from, to).stream()
+                .collect(Collectors.groupingBy(ActiveStay::getRoomId));
+
+        HotelCalendar cal = new HotelCalendar();
+        cal.hotelId = hotelId;
+        cal.from = from;
+        cal.to = to;
+        cal.rooms = rooms.stream()
+                .map(r -> toRoomCalendar(r, staysByRoom.getOrDefault(r.getId(), List.of()), from.toEpochDay(), days))
+                .collect(Collectors.toList());
+        return cal;
+    }
+
+    // Difference array over the window: +rooms at each stay's first night, -rooms after its last, then one prefix-sum sweep.
+    // Package-private and static so HotelCalendarBenchmark can time it without a database.
+    static HotelCalendar.RoomCalendar toRoomCalendar(HotelRoom room, List<ActiveStay> stays, long firstDay, int days) {
+        int capacity = room.getTotalRooms() != null ? room.getTotalRooms()
+                : (room.getAvailableRooms() != null ? room.getAvailableRooms() : 0);
+        int[] diff = new int[days + 1];
+        for (ActiveStay stay : stays) {
+            int count = stay.getRoomsBooked() == null ? 0 : stay.getRoomsBooked();
+            if (count <= 0) continue;
+            int start = (int) Math.max(0, stay.getCheckIn().toEpochDay() - firstDay);
+            int end = (int) Math.min(days, stay.getCheckOut().toEpochDay() - firstDay);
+            if (start >= end) continue;
+            diff[start] += count;
+            diff[end] -= count;
+        }
+        int[] remaining = new int[days];
+        int booked = 0;
+        for (int i = 0; i < days; i++) {
+            booked += diff[i];
+            remaining[i] = Math.max(0, capacity - booked);
+        }
+        HotelCalendar.RoomCalendar rc = new HotelCalendar.RoomCalendar();
+        rc.roomId = room.getId();
+        rc.name = room.getName();
+        rc.totalRooms = capacity;
+        rc.remaining = remaining;
+        return rc;
+    }
+
+    // Fills in availability for the stay on the snapshot's summary (a fresh copy per call).
+    private HotelSummary toHotelSummary(HotelSummary hs, List<HotelRoom> rooms, LocalDate checkIn, LocalDate checkOut) {
         if (checkIn != null && checkOut != null && checkIn.isBefore(checkOut)) {
-            hs.availableRooms = availableRoomsForHotel(h.getId(), checkIn, checkOut);
+            hs.availableRooms = availableRoomsForHotel(rooms, checkIn, checkOut);
         } else {
-            Integer cap = roomRepository.sumCapacityByHotel(h.getId());
-            hs.availableRooms = cap == null ? 0 : cap;
+            hs.availableRooms = rooms.stream()
+                    .mapToInt(r -> r.getTotalRooms() == null ? 0 : r.getTotalRooms())
+                    .sum();
         }
-        String fac = h.getFacilities();
-        hs.facilities = fac == null || fac.isBlank()
-                ? java.util.List.of()
-                : java.util.Arrays.stream(fac.split(","))
-                    .map(String::trim)
-                    .filter(s -> !s.isEmpty())
-                    .collect(java.util.stream.Collectors.toList());
         return hs;
     }
 
-    private int availableRoomsForHotel(UUID hotelId, LocalDate checkIn, LocalDate checkOut) {
-        List<HotelRoom> rooms = roomRepository.findByHotelIdOrderByNameAsc(hotelId);
+    private int availableRoomsForHotel(List<HotelRoom> rooms, LocalDate checkIn, LocalDate checkOut) {
         int total = 0;
         for (HotelRoom r : rooms) {
             int capacity = r.getTotalRooms() != null ? r.getTotalRooms() :
                     (r.getAvailableRooms() != null ? r.getAvailableRooms() : 0);
-            Integer booked = roomBookingRepository.sumBookedBetween(r.getId(), checkIn, checkOut);
-            total += Math.max(0, capacity - (booked == null ? 0 : booked.intValue()));
+            total += ledger.remaining(r.getId(), capacity, checkIn, checkOut);
         }
         return total;
     }
@@ -183,15 +334,15 @@ public class DestinationService {
         info.image4 = room.getImage4();
         info.description = room.getDescription();
         if (checkIn != null && checkOut != null && checkIn.isBefore(checkOut)) {
-            Integer booked = roomBookingRepository.sumBookedBetween(room.getId(), checkIn, checkOut);
             int capacity = info.totalRooms != null ? info.totalRooms : 0;
-            info.remainingRooms = Math.max(0, capacity - (booked == null ? 0 : booked.intValue()));
+            info.remainingRooms = ledger.remaining(room.getId(), capacity, checkIn, checkOut);
         } else {
             info.remainingRooms = info.totalRooms;
         }
         return info;
     }
 
+    // Single-destination card for create/update responses; list() serves cards from the catalog snapshot.
     private DestinationCard toCard(Destination dest) {
         DestinationCard card = new DestinationCard();
         card.setId(dest.getId());
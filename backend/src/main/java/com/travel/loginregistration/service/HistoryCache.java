@@ -0,0 +1,130 @@
+package com.travel.loginregistration.service;
+
+import com.travel.loginregistration.dto.HistoryResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+
+/*
+    Bounded LRU cache of each user's booking history, keyed by the login email.
+    History rows match a user by id or by email, so every entry remembers the version of both when it was built.
+    Bookings and cancels bump those versions once their transaction completes, and catalog rebuilds bump the
+    global epoch (package names, deadlines and timing are part of the response), so a stale entry is never served.
+    Versions live in fixed arrays of stripes picked by hash rather than one counter per user or email ever seen,
+    so they take constant memory; keys sharing a stripe only make each other's entries miss early.
+*/
+
+@Component
+public class HistoryCache {
+    private record Entry(UUID userId, long epoch, long userVersion, long emailVersion, HistoryResponse history) { }
+
+    private final int maxEntries;
+    private final Map<String, Entry> entries;
+    private static final int VERSION_STRIPES = 4096; // power of two
+    private final AtomicLongArray userVersions = new AtomicLongArray(VERSION_STRIPES);
+    private final AtomicLongArray emailVersions = new AtomicLongArray(VERSION_STRIPES);
+    private final AtomicLong epoch = new AtomicLong();
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+
+    public HistoryCache(@Value("${app.cache.history.max-entries:4096}") int maxEntries) {
+        this.maxEntries = maxEntries;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                return size() > HistoryCache.this.maxEntries;
+            }
+        };
+    }
+
+    /*
+        Cached history for this login while nothing it depends on has changed; otherwise loads and caches it.
+        On a miss the user is resolved first, so both versions can be read before the history itself is loaded.
+    */
+    public HistoryResponse get(String email, Function<String, UUID> resolveUser, BiFunction<UUID, String, HistoryResponse> loader) {
+        String key = emailKey(email);
+        Entry cached;
+        synchronized (entries) {
+            cached = entries.get(key);
+        }
+        if (isCurrent(cached, key)) {
+            hits.incrementAndGet();
+            return cached.history();
+        }
+        misses.incrementAndGet();
+        UUID userId = cached != null ? cached.userId() : resolveUser.apply(key);
+        // Read the versions before loading so a change that lands mid-load leaves the new entry already stale.
+        long e = epoch.get();
+        long ev = emailVersions.get(stripe(key));
+        long uv = userVersions.get(stripe(userId));
+        HistoryResponse history = loader.apply(userId, key);
+        synchronized (entries) {
+            entries.put(key, new Entry(userId, e, uv, ev, history));
+        }
+        return history;
+    }
+
+    // Marks this user's cached history stale once the current transaction finishes (either way).
+    public void invalidateUser(UUID userId, String email) {
+        if (userId == null && (email == null || email.isBlank())) return;
+        Runnable bump = () -> {
+            if (userId != null) userVersions.incrementAndGet(stripe(userId));
+            if (email != null && !email.isBlank()) emailVersions.incrementAndGet(stripe(emailKey(email)));
+        };
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            bump.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                bump.run();
+            }
+        });
+    }
+
+    // For catalog edits: package names, locations and deadlines appear in every history.
+    public void invalidateAll() {
+        epoch.incrementAndGet();
+        synchronized (entries) {
+            entries.clear();
+        }
+    }
+
+    public Map<String, Object> stats() {
+        Map<String, Object> m = new LinkedHashMap<>();
+        m.put("hits", hits.get());
+        m.put("misses", misses.get());
+        synchronized (entries) {
+            m.put("size", entries.size());
+        }
+        m.put("maxEntries", maxEntries);
+        return m;
+    }
+
+    private boolean isCurrent(Entry cached, String key) {
+        return cached != null && cached.epoch() == epoch.get()
+                && cached.emailVersion() == emailVersions.get(stripe(key))
+                && cached.userVersion() == userVersions.get(stripe(cached.userId()));
+    }
+
+    private static String emailKey(String email) {
+        return email.trim().toLowerCase(Locale.ROOT);
+    }
+
+    // Mixes the hash's high bits into the stripe index, as HashMap does.
+    private static int stripe(Object key) {
+        int h = key == null ? 0 : key.hashCode();
+        return (h ^ (h >>> 16)) & (VERSION_STRIPES - 1);
+    }
+}
@@ -0,0 +1,162 @@
+package com.travel.loginregistration.service;
+
+import com.travel.loginregistration.dto.HistoryPackageItem;
+import com.travel.loginregistration.dto.HistoryResponse;
+import com.travel.loginregistration.dto.HistoryRoomItem;
+import com.travel.loginregistration.repository.BookingRepository;
+import com.travel.loginregistration.repository.HotelRoomBookingRepository;
+import com.travel.loginregistration.repository.UserRepository;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.Locale;
+import java.util.UUID;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+/*
+    Builds a user's booking history from two joined queries (room bookings with their hotel id, package bookings
+    with their package details) and serves it from HistoryCache until one of that user's bookings changes.
+    Every response carries a cursor; changes(cursor) returns only the bookings whose updated_at is later.
+    Cursors trail the clock by CURSOR_LAG so a booking stamped just before a response but committed just after
+    it is still picked up by the next poll; clients merge by id, so seeing a row twice is harmless.
+*/
+
+@Service
+public class HistoryService {
+    private static final Pattern NON_DIGITS = Pattern.compile("[^0-9]");
+    private static final Duration CURSOR_LAG = Duration.ofSeconds(15);
+
+    private final HotelRoomBookingRepository roomBookingRepository;
+    private final BookingRepository bookingRepository;
+    private final UserRepository userRepository;
+    private final HistoryCache cache;
+
+    public HistoryService(HotelRoomBookingRepository roomBookingRepository,
+                          BookingRepository bookingRepository,
+                          UserRepository userRepository,
+                          HistoryCache cache) {
+        this.roomBookingRepository = roomBookingRepository;
+        this.bookingRepository = bookingRepository;
+        this.userRepository = userRepository;
+        this.cache = cache;
+    }
+
+    // The returned response is shared with other requests for the same user and must not be modified.
+    public HistoryResponse history(String email) {
+        if (email == null || email.isBlank()) throw new IllegalArgumentException("No user");
+        return cache.get(email, this::resolveUser, this::load);
+    }
+
+    /*
+        Bookings of this user inserted or changed after the cursor, plus the cursor to poll with next.
+        Always asks the database: HistoryCache only hears of changes made through this node, so it cannot
+        vouch that no admin cancel was made elsewhere. Both change queries are index range scans on updated_at.
+    */
+    public HistoryResponse changes(String email, String cursor) {
+        if (email == null || email.isBlank()) throw new IllegalArgumentException("No user");
+        Instant since = parseCursor(cursor);
+        String key = email.trim().toLowerCase(Locale.ROOT);
+        UUID userId = resolveUser(key);
+        Instant next = Instant.now().minus(CURSOR_LAG);
+        HistoryResponse resp = new HistoryResponse();
+        resp.rooms = roomBookingRepository.findHistoryChanges(userId, key, since).stream()
+                .map(HistoryService::toRoomItem)
+                .collect(Collectors.toList());
+        resp.packages = bookingRepository.findHistoryChanges(userId, key, since).stream()
+                .map(HistoryService::toPackageItem)
+                .collect(Collectors.toList());
+        resp.cursor = next.isAfter(since) ? cursor(next) : cursor;
+        return resp;
+    }
+
+    private UUID resolveUser(String email) {
+        return userRepository.findByEmail(email.toLowerCase(Locale.ROOT))
+                .orElseThrow(() -> new IllegalArgumentException("User not found"))
+                .getId();
+    }
+
+    private HistoryResponse load(UUID userId, String email) {
+        HistoryResponse resp = new HistoryResponse();
+        resp.cursor = cursor(Instant.now().minus(CURSOR_LAG));
+        resp.rooms = roomBookingRepository.findHistoryRows(userId, email).stream()
+                .map(HistoryService::toRoomItem)
+                .collect(Collectors.toList());
+        resp.packages = bookingRepository.findHistoryRows(userId, email).stream()
+                .map(HistoryService::toPackageItem)
+                .collect(Collectors.toList());
+        return resp;
+    }
+
+    private static HistoryRoomItem toRoomItem(HotelRoomBookingRepository.HistoryRow b) {
+        HistoryRoomItem dto = new HistoryRoomItem();
+        dto.id = b.getId();
+        dto.roomId = b.getRoomId();
+        dto.hotelId = b.getHotelId();
+        dto.hotelName = b.getHotelName();
+        dto.roomName = b.getRoomName();
+        dto.checkIn = b.getCheckIn();
+        dto.checkOut = b.getCheckOut();
+        dto.totalGuests = b.getTotalGuests();
+        dto.roomsBooked = b.getRoomsBooked();
+        dto.totalPrice = b.getTotalPrice();
+        dto.createdAt = b.getCreatedAt();
+        dto.status = b.getStatus();
+        dto.canceledAt = b.getCanceledAt();
+        dto.canceledBy = b.getCanceledBy();
+        dto.transactionId = b.getTransactionId();
+        dto.cardLast4 = b.getCardLast4();
+        return dto;
+    }
+
+    private static HistoryPackageItem toPackageItem(BookingRepository.HistoryRow b) {
+        HistoryPackageItem dto = new HistoryPackageItem();
+        dto.id = b.getId();
+        dto.packageId = b.getPackageId();
+        dto.totalPersons = b.getTotalPersons();
+        dto.totalPrice = b.getPriceTotal();
+        dto.createdAt = b.getCreatedAt();
+        dto.status = b.getStatus();
+        dto.canceledAt = b.getCanceledAt();
+        dto.canceledBy = b.getCanceledBy();
+        dto.transactionId = b.getTransactionId();
+        dto.cardLast4 = b.getCardLast4();
+        dto.packageName = b.getPackageName();
+        dto.location = b.getLocation();
+        dto.bookingDeadline = b.getBookingDeadline();
+        dto.durationDays = parseDurationDays(b.getTiming());
+        return dto;
+    }
+
+    // Opaque to clients: epoch microseconds (updated_at's precision) in base 36.
+    private static String cursor(Instant at) {
+        long micros = Math.addExact(Math.multiplyExact(at.getEpochSecond(), 1_000_000L), at.getNano() / 1_000);
+        return Long.toString(micros, 36);
+    }
+
+    private static Instant parseCursor(String cursor) {
+        if (cursor == null || cursor.isBlank()) throw new IllegalArgumentException("INVALID_CURSOR");
+        try {
+            long micros = Long.parseLong(cursor.trim(), 36);
+            return Instant.EPOCH.plus(micros, ChronoUnit.MICROS);
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("INVALID_CURSOR");
+        }
+    }
+
+    // Expect formats like "3 days, 2 nights" or "3 Days ,2 Nights"
+    static Integer parseDurationDays(String timing) {
+        if (timing == null) return null;
+        String lower = timing.toLowerCase(Locale.ROOT);
+        int idx = lower.indexOf("day");
+        if (idx == -1) return null;
+        String prefix = NON_DIGITS.matcher(lower.substring(0, idx)).replaceAll("");
+        try {
+            return prefix.isBlank() ? null : Integer.parseInt(prefix);
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+}
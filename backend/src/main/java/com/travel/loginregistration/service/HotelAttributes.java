@@ -0,0 +1,47 @@
+package com.travel.loginregistration.service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Pattern;
+
+/*
+    Splits the free-text hotel attributes typed in the admin client into lists.
+    Runs once when a hotel or room is saved; the parsed lists are stored alongside the text
+    so request paths only copy them (V32 applies the same rules to existing rows).
+*/
+
+public final class HotelAttributes {
+    private static final Pattern COMMA = Pattern.compile(",");
+    private static final Pattern PERIOD = Pattern.compile("\\.");
+    private static final Pattern DIGITS = Pattern.compile("\\d+");
+
+    private HotelAttributes() {}
+
+    // "Wifi, Pool,,Spa" -> [Wifi, Pool, Spa]
+    public static List<String> facilities(String text) {
+        return split(text, COMMA, false);
+    }
+
+    // Period-separated sentences; numeric-only fragments like "0" or "23" (from "0.5 km") are dropped.
+    public static List<String> nearby(String text) {
+        return split(text, PERIOD, true);
+    }
+
+    // Facilities text rewritten as "a, b, c" so the client's comma split sees no blanks.
+    public static String normalizeFacilities(String text) {
+        if (text == null) return null;
+        return String.join(", ", facilities(text));
+    }
+
+    private static List<String> split(String text, Pattern separator, boolean dropNumeric) {
+        if (text == null || text.isBlank()) return List.of();
+        List<String> out = new ArrayList<>();
+        for (String part : separator.split(text)) {
+            String s = part.trim();
+            if (s.isEmpty()) continue;
+            if (dropNumeric && DIGITS.matcher(s).matches()) continue;
+            out.add(s);
+        }
+        return List.copyOf(out);
+    }
+}
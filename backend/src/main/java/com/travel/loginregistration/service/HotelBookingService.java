@@ -10,30 +10,53 @@ import com.travel.loginregistration.repository.HotelRoomRepository;
 import com.travel.loginregistration.repository.UserRepository;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.util.concurrent.ThreadLocalRandom;
-import java.util.function.Predicate;
 import java.util.Locale;
 import java.util.UUID;
 
 @Service
 public class HotelBookingService {
+    private static final int MAX_STAY_NIGHTS = 365;
 
     private final HotelRoomRepository roomRepository;
     private final HotelRoomBookingRepository bookingRepository;
     private final HotelRepository hotelRepository;
     private final UserRepository userRepository;
+    private final RoomInventoryLedger ledger;
+    private final RoomInventoryService inventoryService;
+    private final TransactionIdGenerator txnIds;
+    private final HotelSearchCache searchCache;
+    private final HistoryCache historyCache;
+    private final InvoiceStore invoiceStore;
+    private final BookingEvents events;
 
     public HotelBookingService(HotelRoomRepository roomRepository,
             HotelRoomBookingRepository bookingRepository,
             HotelRepository hotelRepository,
-            UserRepository userRepository) {
+            UserRepository userRepository,
+            RoomInventoryLedger ledger,
+            RoomInventoryService inventoryService,
+            TransactionIdGenerator txnIds,
+            HotelSearchCache searchCache,
+            HistoryCache historyCache,
+            InvoiceStore invoiceStore,
+            BookingEvents events) {
         this.roomRepository = roomRepository;
         this.bookingRepository = bookingRepository;
         this.hotelRepository = hotelRepository;
         this.userRepository = userRepository;
+        this.ledger = ledger;
+        this.inventoryService = inventoryService;
+        this.txnIds = txnIds;
+        this.searchCache = searchCache;
+        this.historyCache = historyCache;
+        this.invoiceStore = invoiceStore;
+        this.events = events;
     }
 
     @Transactional
@@ -44,11 +67,10 @@ public class HotelBookingService {
 
         int capacity = room.getTotalRooms() != null ? room.getTotalRooms()
                 : (room.getAvailableRooms() != null ? room.getAvailableRooms() : 0);
-        Integer booked = bookingRepository.sumBookedBetween(room.getId(), req.checkIn, req.checkOut);
-        int remaining = capacity - (booked == null ? 0 : booked.intValue());
-        if (remaining < req.rooms) {
-            throw new IllegalArgumentException("INSUFFICIENT_ROOMS");
-        }
+        // room_inventory is the source of truth across nodes; the ledger just mirrors it for fast reads.
+        inventoryService.reserve(room.getId(), capacity, req.checkIn, req.checkOut, req.rooms);
+        ledger.reserve(room.getId(), req.checkIn, req.checkOut, req.rooms);
+        releaseOnRollback(room.getId(), req.checkIn, req.checkOut, req.rooms);
 
         // Try to associate booking with authenticated user if client didn't send userId
         if (req.userId == null && authEmail != null && !authEmail.isBlank()) {
@@ -65,7 +87,10 @@ public class HotelBookingService {
         b.setTotalPrice(req.totalPrice == null ? BigDecimal.ZERO : req.totalPrice);
         b.setUserId(req.userId);
         b.setRoomName(room.getName());
-        hotelRepository.findById(room.getHotelId()).ifPresent(h -> b.setHotelName(h.getName()));
+        hotelRepository.findById(room.getHotelId()).ifPresent(h -> {
+            b.setHotelName(h.getName());
+            searchCache.invalidateDestination(h.getDestinationId());
+        });
         b.setCustomerName(req.customerName);
         b.setIdType(req.idType);
         b.setIdNumber(req.idNumber);
@@ -74,10 +99,12 @@ public class HotelBookingService {
         } else if (authEmail != null) {
             b.setUserEmail(authEmail.toLowerCase(Locale.ROOT));
         }
-        b.setTransactionId(generateTxnId(tx -> bookingRepository.existsByTransactionId(tx)));
+        b.setTransactionId(txnIds.next());
         b.setCardLast4(generateLast4());
         b.setStatus("CONFIRMED");
         bookingRepository.save(b);
+        historyCache.invalidateUser(b.getUserId(), b.getUserEmail());
+        notifyOwner(b, BookingEvents.CONFIRMED);
 
         RoomBookingResponse res = new RoomBookingResponse();
         res.id = b.getId();
@@ -127,6 +154,10 @@ public class HotelBookingService {
         booking.setCanceledAt(java.time.Instant.now());
         booking.setCanceledBy("USER");
         bookingRepository.save(booking);
+        releaseInventory(booking);
+        historyCache.invalidateUser(booking.getUserId(), booking.getUserEmail());
+        invoiceStore.invalidate(InvoiceService.BookingKind.ROOM, booking.getId());
+        notifyOwner(booking, BookingEvents.CANCELED);
 
         RoomBookingResponse res = new RoomBookingResponse();
         res.id = booking.getId();
@@ -162,16 +193,51 @@ public class HotelBookingService {
             throw new IllegalArgumentException("rooms must be > 0");
         if (req.totalPrice != null && req.totalPrice.signum() < 0)
             throw new IllegalArgumentException("totalPrice must be >= 0");
+        if (req.checkOut.toEpochDay() - req.checkIn.toEpochDay() > MAX_STAY_NIGHTS)
+            throw new IllegalArgumentException("stay must be at most " + MAX_STAY_NIGHTS + " nights");
+    }
+
+    // The ledger mirrors the reservation right away; hand the nights back if the booking never commits.
+    private void releaseOnRollback(UUID roomId, LocalDate checkIn, LocalDate checkOut, int rooms) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) return;
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status != STATUS_COMMITTED) {
+                    ledger.release(roomId, checkIn, checkOut, rooms);
+                }
+            }
+        });
+    }
+
+    // Frees the canceled nights in room_inventory now and in the ledger once the status change is durable.
+    private void releaseInventory(HotelRoomBooking booking) {
+        if (booking.getRoomId() == null || booking.getCheckIn() == null || booking.getCheckOut() == null) return;
+        int rooms = booking.getRoomsBooked() == null ? 0 : booking.getRoomsBooked();
+        if (rooms <= 0) return;
+        inventoryService.release(booking.getRoomId(), booking.getCheckIn(), booking.getCheckOut(), rooms);
+        roomRepository.findById(booking.getRoomId())
+                .flatMap(r -> hotelRepository.findById(r.getHotelId()))
+                .ifPresent(h -> searchCache.invalidateDestination(h.getDestinationId()));
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            ledger.release(booking.getRoomId(), booking.getCheckIn(), booking.getCheckOut(), rooms);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                ledger.release(booking.getRoomId(), booking.getCheckIn(), booking.getCheckOut(), rooms);
+            }
+        });
     }
 
-    private String generateTxnId(Predicate<String> exists) {
-        for (int i = 0; i < 20; i++) {
-            int num = ThreadLocalRandom.current().nextInt(0, 1_000_000);
-            String tx = "TXN-" + String.format("%06d", num);
-            if (!exists.test(tx))
-                return tx;
+    // Pushes the change to the owner's open event streams once it commits.
+    private void notifyOwner(HotelRoomBooking b, String type) {
+        String email = b.getUserEmail();
+        if ((email == null || email.isBlank()) && b.getUserId() != null) {
+            email = userRepository.findById(b.getUserId()).map(u -> u.getEmail()).orElse(null);
         }
-        throw new RuntimeException("Could not generate unique transaction ID");
+        events.publish(email, type, "ROOM", b.getId(), b.getStatus(), b.getCanceledAt(), b.getCanceledBy());
     }
 
     private String generateLast4() {
@@ -189,6 +255,10 @@ public class HotelBookingService {
         booking.setCanceledAt(java.time.Instant.now());
         booking.setCanceledBy(canceledBy == null || canceledBy.isBlank() ? "ADMIN" : canceledBy);
         bookingRepository.save(booking);
+        releaseInventory(booking);
+        historyCache.invalidateUser(booking.getUserId(), booking.getUserEmail());
+        invoiceStore.invalidate(InvoiceService.BookingKind.ROOM, booking.getId());
+        notifyOwner(booking, BookingEvents.CANCELED);
 
         RoomBookingResponse res = new RoomBookingResponse();
         res.id = booking.getId();
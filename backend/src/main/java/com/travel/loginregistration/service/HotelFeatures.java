@@ -0,0 +1,200 @@
+package com.travel.loginregistration.service;
+
+import com.travel.loginregistration.model.Hotel;
+import com.travel.loginregistration.model.HotelRoom;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.UUID;
+
+/*
+    Ranking inputs for one destination's hotels, flattened into primitive arrays when the catalog snapshot is built:
+    effective nightly price, rating, largest room's guest capacity and a facility bitset per hotel.
+    Index i matches the i-th hotel of CatalogSnapshot.hotels(destinationId) (name order), which is also the
+    tie-break order. rank() filters and orders those indexes for one request; availability is passed in per stay.
+*/
+
+public final class HotelFeatures {
+    public static final String POPULARITY = "popularity";
+    public static final String PRICE_ASC = "price_asc";
+    public static final String PRICE_DESC = "price_desc";
+    public static final String RATING = "rating";
+    public static final String BEST = "best";
+
+    static final HotelFeatures EMPTY = new HotelFeatures(List.of(), Map.of());
+
+    // Guests per room assumed when a hotel has no room types with max_guests yet.
+    private static final int DEFAULT_ROOM_GUESTS = 2;
+
+    private final UUID[] ids;
+    private final double[] price;      // NaN when the hotel has no price
+    private final double[] rating;
+    private final int[] roomGuests;
+    private final int words;           // longs per hotel in facilityBits
+    private final long[] facilityBits;
+    private final Map<String, Integer> facilityIndex;
+
+    private HotelFeatures(List<Hotel> hotels, Map<UUID, List<HotelRoom>> roomsByHotel) {
+        int n = hotels.size();
+        ids = new UUID[n];
+        price = new double[n];
+        rating = new double[n];
+        roomGuests = new int[n];
+        Map<String, Integer> vocabulary = new HashMap<>();
+        for (Hotel h : hotels) {
+            for (String f : CatalogSnapshot.facilities(h)) vocabulary.putIfAbsent(facilityKey(f), vocabulary.size());
+        }
+        facilityIndex = Map.copyOf(vocabulary);
+        words = Math.max(1, (vocabulary.size() + 63) / 64);
+        facilityBits = new long[n * words];
+
+        for (int i = 0; i < n; i++) {
+            Hotel h = hotels.get(i);
+            ids[i] = h.getId();
+            price[i] = h.getCurrentPrice() != null ? h.getCurrentPrice().doubleValue()
+                    : h.getRealPrice() != null ? h.getRealPrice().doubleValue() : Double.NaN;
+            rating[i] = h.getRating() == null ? 0 : h.getRating().doubleValue();
+            int guests = 0;
+            for (HotelRoom r : roomsByHotel.getOrDefault(h.getId(), List.of())) {
+                if (r.getMaxGuests() != null && r.getMaxGuests() > guests) guests = r.getMaxGuests();
+            }
+            roomGuests[i] = guests > 0 ? guests : DEFAULT_ROOM_GUESTS;
+            for (String f : CatalogSnapshot.facilities(h)) {
+                int bit = vocabulary.get(facilityKey(f));
+                facilityBits[i * words + (bit >>> 6)] |= 1L << (bit & 63);
+            }
+        }
+    }
+
+    static HotelFeatures build(List<Hotel> hotels, Map<UUID, List<HotelRoom>> roomsByHotel) {
+        return new HotelFeatures(hotels, roomsByHotel);
+    }
+
+    public int size() { return ids.length; }
+
+    public UUID id(int i) { return ids[i]; }
+
+    // Normalizes a sort name, or throws for an unknown one.
+    public static String sortMode(String sort, boolean dated) {
+        if (sort == null || sort.isBlank()) return dated ? BEST : POPULARITY;
+        String s = sort.trim().toLowerCase(Locale.ROOT);
+        return switch (s) {
+            case POPULARITY, PRICE_ASC, PRICE_DESC, RATING, BEST -> s;
+            default -> throw new IllegalArgumentException("INVALID_SORT");
+        };
+    }
+
+    /*
+        Rank keys of the hotels passing the filters, best first; index(key) is the hotel's index.
+        available[i] is how many rooms hotel i has free (for the stay, or in total when undated), and guests > 0
+        drops hotels whose free rooms cannot sleep that many (available * largest room's max_guests).
+        Each candidate's score is packed with its index into one long so ordering is a single primitive sort;
+        keys descend strictly, so "every key below the last one shown" is the next page.
+    */
+    public long[] rank(String sort, double minPrice, double maxPrice, double minRating,
+                      Collection<String> facilities, int guests, int[] available) {
+        long[] mask = facilityMask(facilities);
+        if (mask == null) return new long[0];
+        int n = ids.length;
+        int[] candidates = new int[n];
+        int m = 0;
+        for (int i = 0; i < n; i++) {
+            double p = price[i];
+            if ((minPrice > 0 || maxPrice < Double.MAX_VALUE) && (Double.isNaN(p) || p < minPrice || p > maxPrice)) continue;
+            if (rating[i] < minRating) continue;
+            if (guests > 0 && (long) available[i] * roomGuests[i] < guests) continue;
+            if (!hasAll(i, mask)) continue;
+            candidates[m++] = i;
+        }
+
+        double lo = Double.MAX_VALUE, hi = 0;
+        for (int k = 0; k < m; k++) {
+            double p = price[candidates[k]];
+            if (p > 0) {
+                if (p < lo) lo = p;
+                if (p > hi) hi = p;
+            }
+        }
+        if (lo > hi) lo = hi = 0;
+        double priceRange = Math.max(1, hi - lo);
+
+        long[] packed = new long[m];
+        for (int k = 0; k < m; k++) {
+            int i = candidates[k];
+            double p = price[i];
+            boolean priced = !Double.isNaN(p);
+            float score = switch (sort) {
+                case PRICE_ASC -> priced ? (float) (hi - p + 1) : 0f;
+                case PRICE_DESC -> priced ? (float) (p + 1) : 0f;
+                case RATING -> (float) rating[i];
+                case BEST -> (float) best(i, available[i], guests, p, lo, priceRange);
+                default -> (float) (rating[i] * 10_000 + Math.min(available[i], 9_999));
+            };
+            // Non-negative float bits order like the floats; the low half makes lower indexes win ties.
+            packed[k] = ((long) Float.floatToIntBits(Math.max(0f, score)) << 32) | (0xFFFFFFFFL - i);
+        }
+        Arrays.sort(packed);
+        for (int k = 0; k < m / 2; k++) {
+            long t = packed[k];
+            packed[k] = packed[m - 1 - k];
+            packed[m - 1 - k] = t;
+        }
+        return packed;
+    }
+
+    public static int index(long key) { return (int) (0xFFFFFFFFL - (key & 0xFFFFFFFFL)); }
+
+    public static int scoreBits(long key) { return (int) (key >>> 32); }
+
+    /*
+        The key a hotel with this score and id has in this index, to resume ranking after it. A hotel no longer
+        here (removed since the cursor was issued) resumes at the top of its score, so hotels tied with it repeat
+        rather than being skipped.
+    */
+    public long key(int scoreBits, UUID id) {
+        long high = (long) scoreBits << 32;
+        for (int i = 0; i < ids.length; i++) {
+            if (ids[i].equals(id)) return high | (0xFFFFFFFFL - i);
+        }
+        return high + (1L << 32);
+    }
+
+    // Availability fit, rating, relative price and a small boost for hotels with plenty of rooms left.
+    private double best(int i, int available, int guests, double p, double lo, double priceRange) {
+        int requiredRooms = Math.max(1, (int) Math.ceil((double) Math.max(guests, 1) / roomGuests[i]));
+        double availFit = Math.min(1, (double) available / requiredRooms);
+        double ratingScore = rating[i] / 5.0;
+        double priceScore = Double.isNaN(p) ? 0 : 1 - Math.max(0, Math.min(1, (p - lo) / priceRange));
+        double popBoost = available > 5 ? 0.6 : 0.5;
+        return 0.35 * availFit + 0.30 * ratingScore + 0.25 * priceScore + 0.10 * popBoost;
+    }
+
+    // Bits for the requested facilities; null when one of them no hotel here offers.
+    private long[] facilityMask(Collection<String> facilities) {
+        long[] mask = new long[words];
+        if (facilities == null) return mask;
+        for (String f : facilities) {
+            if (f == null || f.isBlank()) continue;
+            Integer bit = facilityIndex.get(facilityKey(f));
+            if (bit == null) return null;
+            mask[bit >>> 6] |= 1L << (bit & 63);
+        }
+        return mask;
+    }
+
+    private boolean hasAll(int i, long[] mask) {
+        int base = i * words;
+        for (int w = 0; w < words; w++) {
+            if ((facilityBits[base + w] & mask[w]) != mask[w]) return false;
+        }
+        return true;
+    }
+
+    private static String facilityKey(String facility) {
+        return facility.trim().toLowerCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,117 @@
+package com.travel.loginregistration.service;
+
+import com.travel.loginregistration.dto.HotelSummary;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDate;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/*
+    Bounded LRU cache of hotel search results keyed by (destination, checkIn, checkOut).
+    Every entry remembers the destination version it was computed under; bookings and cancels bump that version
+    once the transaction completes, and admin hotel/room edits bump the global epoch, so an entry is only served
+    while nothing it depends on has changed since it was built.
+    Versions live in this process only: bookings and admin edits made through another node never bump them,
+    so the cache is only correct while a single backend node serves searches.
+*/
+
+@Component
+public class HotelSearchCache {
+    private record Key(UUID destinationId, LocalDate checkIn, LocalDate checkOut) { }
+    private record Entry(long epoch, long version, List<HotelSummary> hotels) { }
+
+    private final int maxEntries;
+    private final Map<Key, Entry> entries;
+    private final Map<UUID, AtomicLong> versions = new ConcurrentHashMap<>();
+    private final AtomicLong epoch = new AtomicLong();
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+
+    public HotelSearchCache(@Value("${app.cache.hotel-search.max-entries:1024}") int maxEntries) {
+        this.maxEntries = maxEntries;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Key, Entry> eldest) {
+                if (size() <= HotelSearchCache.this.maxEntries) return false;
+                evictions.incrementAndGet();
+                return true;
+            }
+        };
+    }
+
+    // Returns the cached list when it is still current, otherwise computes it outside the lock and caches it.
+    public List<HotelSummary> get(UUID destinationId, LocalDate checkIn, LocalDate checkOut, Supplier<List<HotelSummary>> loader) {
+        Key key = new Key(destinationId, checkIn, checkOut);
+        // Read the versions before loading so a change that lands mid-load leaves the new entry already stale.
+        long e = epoch.get();
+        long v = versionOf(destinationId).get();
+        Entry cached;
+        synchronized (entries) {
+            cached = entries.get(key);
+        }
+        if (cached != null && cached.epoch() == e && cached.version() == v) {
+            hits.incrementAndGet();
+            return cached.hotels();
+        }
+        misses.incrementAndGet();
+        List<HotelSummary> hotels = List.copyOf(loader.get());
+        synchronized (entries) {
+            entries.put(key, new Entry(e, v, hotels));
+        }
+        return hotels;
+    }
+
+    // Marks every cached search for this destination stale once the current transaction finishes (either way).
+    public void invalidateDestination(UUID destinationId) {
+        if (destinationId == null) return;
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            versionOf(destinationId).incrementAndGet();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                versionOf(destinationId).incrementAndGet();
+            }
+        });
+    }
+
+    // For admin catalog edits, where a hotel may also move between destinations.
+    public void invalidateAll() {
+        epoch.incrementAndGet();
+        synchronized (entries) {
+            entries.clear();
+        }
+    }
+
+    // Changes whenever bookings for this destination or the catalog change; used for ETags as well.
+    public String version(UUID destinationId) {
+        return epoch.get() + "." + versionOf(destinationId).get();
+    }
+
+    public Map<String, Object> stats() {
+        Map<String, Object> m = new LinkedHashMap<>();
+        m.put("hits", hits.get());
+        m.put("misses", misses.get());
+        m.put("evictions", evictions.get());
+        synchronized (entries) {
+            m.put("size", entries.size());
+        }
+        m.put("maxEntries", maxEntries);
+        return m;
+    }
+
+    private AtomicLong versionOf(UUID destinationId) {
+        return versions.computeIfAbsent(destinationId, id -> new AtomicLong());
+    }
+}
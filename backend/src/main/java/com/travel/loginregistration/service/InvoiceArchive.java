@@ -0,0 +1,246 @@
+package com.travel.loginregistration.service;
+
+import com.travel.loginregistration.model.Booking;
+import com.travel.loginregistration.model.HotelRoomBooking;
+import com.travel.loginregistration.model.TravelPackage;
+import com.travel.loginregistration.model.User;
+import com.travel.loginregistration.repository.BookingRepository;
+import com.travel.loginregistration.repository.HotelRoomBookingRepository;
+import com.travel.loginregistration.repository.UserRepository;
+import com.travel.loginregistration.service.InvoiceService.BookingKind;
+import com.travel.loginregistration.service.InvoiceService.Customer;
+import com.travel.loginregistration.service.InvoiceService.Invoice;
+import com.travel.loginregistration.service.InvoiceService.LocationDetails;
+import com.travel.loginregistration.service.InvoiceService.Prepared;
+import jakarta.persistence.EntityManager;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.function.Function;
+import java.util.zip.Deflater;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+/*
+    Streams many invoices as one ZIP: all of a user's bookings, or every booking created in an admin-chosen range.
+    Only booking ids are listed up front; bookings are loaded BATCH_SIZE at a time, each batch in its own short
+    read-only transaction whose persistence context is cleared before the batch is rendered, so no connection is held
+    while the ZIP streams. Stored PDFs are copied straight in, and misses are rendered on InvoiceRenderer's pool with
+    at most one job per worker in flight. Each entry is written as soon as its PDF is ready, so memory stays flat
+    however many invoices there are. When the shared render queue is full the archive renders on its own thread
+    instead of failing. Admin range archives do not put their misses in InvoiceStore: one bulk download would
+    otherwise fill the disk with invoices nobody downloads again.
+*/
+
+@Service
+public class InvoiceArchive {
+    private static final int BATCH_SIZE = 64;
+
+    private record Ref(BookingKind kind, UUID id) { }
+
+    private record Done(Prepared prepared, Invoice invoice, Throwable error) { }
+
+    private final InvoiceService invoices;
+    private final InvoiceRenderer renderer;
+    private final BookingRepository bookingRepository;
+    private final HotelRoomBookingRepository roomBookingRepository;
+    private final UserRepository userRepository;
+    private final EntityManager entityManager;
+    private final TransactionTemplate readTx;
+    private final Semaphore slots;
+    private final Duration timeout;
+
+    public InvoiceArchive(InvoiceService invoices,
+                          InvoiceRenderer renderer,
+                          BookingRepository bookingRepository,
+                          HotelRoomBookingRepository roomBookingRepository,
+                          UserRepository userRepository,
+                          EntityManager entityManager,
+                          PlatformTransactionManager txManager,
+                          @Value("${app.invoice.archive.max-concurrent:2}") int maxConcurrent,
+                          @Value("${app.invoice.archive.timeout:30m}") Duration timeout) {
+        this.invoices = invoices;
+        this.renderer = renderer;
+        this.bookingRepository = bookingRepository;
+        this.roomBookingRepository = roomBookingRepository;
+        this.userRepository = userRepository;
+        this.entityManager = entityManager;
+        this.readTx = new TransactionTemplate(txManager);
+        this.readTx.setReadOnly(true);
+        this.slots = new Semaphore(maxConcurrent);
+        this.timeout = timeout;
+    }
+
+    // How long one archive response may stream before the container gives up on it.
+    public Duration timeout() {
+        return timeout;
+    }
+
+    /*
+        Every invoice of this login's bookings created in [from, to). The user and booking ids are looked up before
+        returning, so a bad request fails before the response starts. Throws IllegalStateException("ARCHIVE_BUSY")
+        if app.invoice.archive.max-concurrent archives are already streaming.
+    */
+    public StreamingResponseBody forUser(String email, Instant from, Instant to) {
+        String key = email == null ? "" : email.trim().toLowerCase(Locale.ROOT);
+        User user = userRepository.findByEmail(key)
+                .orElseThrow(() -> new IllegalArgumentException("User not found"));
+        List<Ref> refs = new ArrayList<>();
+        for (UUID id : bookingRepository.findInvoiceIds(user.getId(), key, from, to)) refs.add(new Ref(BookingKind.PACKAGE, id));
+        for (UUID id : roomBookingRepository.findInvoiceIds(user.getId(), key, from, to)) refs.add(new Ref(BookingKind.ROOM, id));
+        Customer customer = invoices.customer(user);
+        return stream(refs, b -> customer, true);
+    }
+
+    // Every invoice of one kind created in [from, to), each addressed to its booking's owner. Same limits as forUser.
+    public StreamingResponseBody forRange(BookingKind kind, Instant from, Instant to) {
+        List<UUID> ids = kind == BookingKind.PACKAGE
+                ? bookingRepository.findInvoiceIdsCreatedBetween(from, to)
+                : roomBookingRepository.findInvoiceIdsCreatedBetween(from, to);
+        List<Ref> refs = new ArrayList<>(ids.size());
+        for (UUID id : ids) refs.add(new Ref(kind, id));
+        // Owners repeat across bookings; resolve each account (or guest booker) once per archive.
+        Map<Object, Customer> owners = new HashMap<>();
+        return stream(refs, b -> owners.computeIfAbsent(b.userId() != null ? b.userId() : b, k -> owner(b)), false);
+    }
+
+    // The booking's owner as stored on the booking itself, used to address its invoice.
+    private record Owner(UUID userId, String email, String customerName) { }
+
+    private StreamingResponseBody stream(List<Ref> refs, Function<Owner, Customer> customers, boolean store) {
+        if (!slots.tryAcquire()) throw new IllegalStateException("ARCHIVE_BUSY");
+        return out -> {
+            try {
+                write(out, refs, customers, store);
+            } finally {
+                slots.release();
+            }
+        };
+    }
+
+    private void write(OutputStream out, List<Ref> refs, Function<Owner, Customer> customers, boolean store)
+            throws IOException {
+        Function<Prepared, Invoice> render = store ? invoices::render : invoices::renderUnstored;
+        int window = renderer.parallelism();
+        BlockingQueue<Done> done = new LinkedBlockingQueue<>();
+        Deque<Prepared> ready = new ArrayDeque<>();
+        int next = 0;
+        int inFlight = 0;
+        Map<UUID, TravelPackage> packages = new HashMap<>();
+        Map<UUID, LocationDetails> locations = new HashMap<>();
+        try (ZipOutputStream zip = new ZipOutputStream(out)) {
+            // The PDFs' content streams are already compressed; deflating them again costs CPU for little gain.
+            zip.setLevel(Deflater.BEST_SPEED);
+            while (true) {
+                while (inFlight < window && (!ready.isEmpty() || next < refs.size())) {
+                    if (ready.isEmpty()) {
+                        List<Ref> batch = refs.subList(next, Math.min(next + BATCH_SIZE, refs.size()));
+                        next += batch.size();
+                        ready.addAll(readTx.execute(tx -> {
+                            List<Prepared> loaded = load(batch, customers, packages, locations);
+                            // Prepared jobs only read plain fields; detach them so the batch can be collected.
+                            entityManager.clear();
+                            return loaded;
+                        }));
+                        continue;
+                    }
+                    Prepared p = ready.poll();
+                    Invoice hit = invoices.cached(p);
+                    if (hit != null) {
+                        writeEntry(zip, p, hit);
+                        continue;
+                    }
+                    try {
+                        renderer.submit(() -> render.apply(p))
+                                .whenComplete((invoice, error) -> done.add(new Done(p, invoice, error)));
+                        inFlight++;
+                    } catch (IllegalStateException busy) {
+                        writeEntry(zip, p, render.apply(p));
+                    }
+                }
+                if (inFlight == 0) break;
+                Done d;
+                try {
+                    d = done.take();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new InterruptedIOException("Invoice archive interrupted");
+                }
+                inFlight--;
+                if (d.error() != null) throw new IOException("Failed to render invoice " + d.prepared().bookingId(), d.error());
+                writeEntry(zip, d.prepared(), d.invoice());
+            }
+        }
+    }
+
+    // Loads one batch of bookings (each kind with a single query) and prepares their invoices in the batch's order.
+    private List<Prepared> load(List<Ref> batch, Function<Owner, Customer> customers,
+                                Map<UUID, TravelPackage> packages, Map<UUID, LocationDetails> locations) {
+        List<UUID> packageIds = new ArrayList<>();
+        List<UUID> roomIds = new ArrayList<>();
+        for (Ref r : batch) (r.kind() == BookingKind.PACKAGE ? packageIds : roomIds).add(r.id());
+        Map<UUID, Booking> bookings = new HashMap<>();
+        if (!packageIds.isEmpty()) bookingRepository.findAllById(packageIds).forEach(b -> bookings.put(b.getId(), b));
+        Map<UUID, HotelRoomBooking> roomBookings = new HashMap<>();
+        if (!roomIds.isEmpty()) roomBookingRepository.findAllById(roomIds).forEach(b -> roomBookings.put(b.getId(), b));
+
+        List<Prepared> prepared = new ArrayList<>(batch.size());
+        for (Ref r : batch) {
+            if (r.kind() == BookingKind.PACKAGE) {
+                Booking b = bookings.get(r.id());
+                if (b == null) continue; // deleted since the ids were listed
+                TravelPackage pkg = b.getPackageId() == null ? null
+                        : packages.computeIfAbsent(b.getPackageId(), invoices::travelPackage);
+                Customer c = customers.apply(new Owner(b.getUserId(), b.getUserEmail(), b.getCustomerName()));
+                prepared.add(invoices.prepare(b, pkg, c));
+            } else {
+                HotelRoomBooking b = roomBookings.get(r.id());
+                if (b == null) continue;
+                LocationDetails location = b.getRoomId() == null
+                        ? invoices.resolveLocation(null, b.getHotelName())
+                        : locations.computeIfAbsent(b.getRoomId(), id -> invoices.resolveLocation(id, b.getHotelName()));
+                Customer c = customers.apply(new Owner(b.getUserId(), b.getUserEmail(), b.getCustomerName()));
+                prepared.add(invoices.prepare(b, location, c));
+            }
+        }
+        return prepared;
+    }
+
+    // Bookings made without an account (or whose account is gone) are addressed with what the booking recorded.
+    private Customer owner(Owner b) {
+        User user = b.userId() != null ? userRepository.findById(b.userId()).orElse(null) : null;
+        if (user == null && b.email() != null) user = userRepository.findByEmail(b.email().toLowerCase(Locale.ROOT)).orElse(null);
+        if (user != null) return invoices.customer(user);
+        String name = b.customerName() != null && !b.customerName().isBlank() ? b.customerName() : b.email();
+        return new Customer(name == null ? "—" : name, b.email() == null ? "—" : b.email(), "—");
+    }
+
+    private static void writeEntry(ZipOutputStream zip, Prepared p, Invoice invoice) throws IOException {
+        String folder = p.kind() == BookingKind.PACKAGE ? "packages/" : "rooms/";
+        try (InputStream body = invoice.body()) {
+            zip.putNextEntry(new ZipEntry(folder + p.bookingId() + ".pdf"));
+            body.transferTo(zip);
+            zip.closeEntry();
+        }
+    }
+}
@@ -0,0 +1,375 @@
+package com.travel.loginregistration.service;
+
+import com.lowagie.text.Chunk;
+import com.lowagie.text.Document;
+import com.lowagie.text.DocumentException;
+import com.lowagie.text.Element;
+import com.lowagie.text.Font;
+import com.lowagie.text.FontFactory;
+import com.lowagie.text.PageSize;
+import com.lowagie.text.Paragraph;
+import com.lowagie.text.Phrase;
+import com.lowagie.text.Rectangle;
+import com.lowagie.text.pdf.PdfPCell;
+import com.lowagie.text.pdf.PdfPTable;
+import com.lowagie.text.pdf.PdfWriter;
+import com.travel.loginregistration.model.Booking;
+import com.travel.loginregistration.model.HotelRoomBooking;
+import com.travel.loginregistration.model.TravelPackage;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.awt.Color;
+import java.io.ByteArrayOutputStream;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/*
+    Lays out invoice PDFs with OpenPDF and runs that work on its own bounded pool.
+    Fonts, colors and formatters are resolved once here instead of per cell; the tables and paragraphs themselves
+    are still built per document because OpenPDF elements keep layout state and cannot be shared between writers.
+    The pool has app.invoice.render-threads workers and a queue of app.invoice.render-queue jobs; past that
+    submit() throws IllegalStateException("RENDER_BUSY") so callers can shed load instead of piling up threads.
+*/
+
+@Component
+public class InvoiceRenderer {
+    private static final Color BRAND = new Color(86, 0, 255);
+    private static final Color BADGE_BACKGROUND = new Color(112, 70, 241);
+    private static final Color SECTION_COLOR = new Color(82, 82, 91);
+    private static final Color HIGHLIGHT = new Color(245, 247, 249);
+    private static final Color THANK_YOU_BACKGROUND = new Color(237, 245, 255);
+    private static final Color THANK_YOU_COLOR = new Color(21, 128, 61);
+
+    private static final Font BRAND_FONT = FontFactory.getFont(FontFactory.HELVETICA, 26, Font.BOLD, BRAND);
+    private static final Font BADGE_FONT = FontFactory.getFont(FontFactory.HELVETICA, 14, Font.BOLD, Color.WHITE);
+    private static final Font SECTION_FONT = FontFactory.getFont(FontFactory.HELVETICA, 16, Font.BOLD, SECTION_COLOR);
+    private static final Font THANK_YOU_FONT = FontFactory.getFont(FontFactory.HELVETICA, 16, Font.BOLD, THANK_YOU_COLOR);
+    private static final Font LABEL_FONT = FontFactory.getFont(FontFactory.HELVETICA, 11, Font.NORMAL, Color.GRAY);
+    private static final Font VALUE_FONT = FontFactory.getFont(FontFactory.HELVETICA, 12, Font.NORMAL, Color.DARK_GRAY);
+    private static final Font MUTED_FONT = FontFactory.getFont(FontFactory.HELVETICA, 12, Font.NORMAL, Color.GRAY);
+    private static final Font FOOTNOTE_FONT = FontFactory.getFont(FontFactory.HELVETICA, 10, Font.NORMAL, Color.GRAY);
+    private static final float[] KEY_VALUE_WIDTHS = {1f, 2f};
+
+    private static final DateTimeFormatter DATE_TIME_FORMAT =
+            DateTimeFormatter.ofPattern("MMMM d, yyyy 'at' hh:mm a", Locale.ENGLISH)
+                    .withZone(ZoneId.systemDefault());
+    private static final DateTimeFormatter DATE_ONLY_FORMAT =
+            DateTimeFormatter.ofPattern("MMMM d, yyyy", Locale.ENGLISH);
+    private static final DateTimeFormatter DOC_NUMBER_DATE = DateTimeFormatter.ofPattern("yyyyMMdd");
+
+    private final ThreadPoolExecutor pool;
+    private final AtomicLong rendered = new AtomicLong();
+    private final AtomicLong rejected = new AtomicLong();
+    private final AtomicLong renderNanos = new AtomicLong();
+
+    public InvoiceRenderer(@Value("${app.invoice.render-threads:0}") int threads,
+                           @Value("${app.invoice.render-queue:64}") int queueCapacity) {
+        int workers = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        AtomicInteger n = new AtomicInteger();
+        this.pool = new ThreadPoolExecutor(workers, workers, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), r -> {
+                    Thread t = new Thread(r, "invoice-render-" + n.incrementAndGet());
+                    t.setDaemon(true);
+                    return t;
+                }, new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    // Runs a render job on the pool. Throws IllegalStateException("RENDER_BUSY") when the queue is full.
+    public <T> CompletableFuture<T> submit(Supplier<T> job) {
+        try {
+            return CompletableFuture.supplyAsync(() -> {
+                long start = System.nanoTime();
+                try {
+                    return job.get();
+                } finally {
+                    renderNanos.addAndGet(System.nanoTime() - start);
+                    rendered.incrementAndGet();
+                }
+            }, pool);
+        } catch (RejectedExecutionException e) {
+            rejected.incrementAndGet();
+            throw new IllegalStateException("RENDER_BUSY");
+        }
+    }
+
+    public int parallelism() {
+        return pool.getMaximumPoolSize();
+    }
+
+    public Map<String, Object> stats() {
+        Map<String, Object> m = new LinkedHashMap<>();
+        long count = rendered.get();
+        m.put("threads", pool.getMaximumPoolSize());
+        m.put("active", pool.getActiveCount());
+        m.put("queued", pool.getQueue().size());
+        m.put("rendered", count);
+        m.put("rejected", rejected.get());
+        m.put("avgRenderMs", count == 0 ? 0 : renderNanos.get() / count / 1_000_000.0);
+        return m;
+    }
+
+    @PreDestroy
+    public void stop() {
+        pool.shutdownNow();
+    }
+
+    public byte[] renderPackageInvoice(Booking booking,
+                                       TravelPackage travelPackage,
+                                       String customerName,
+                                       String customerAddress,
+                                       String customerEmail) {
+        try (ByteArrayOutputStream baos = new ByteArrayOutputStream()) {
+            Document doc = new Document(PageSize.A4);
+            PdfWriter.getInstance(doc, baos);
+            doc.open();
+            String docNumber = buildDocumentNumber("PKG", booking.getId());
+            addHero(doc, "Invoice", docNumber);
+            doc.add(Chunk.NEWLINE);
+            addCustomerBlock(doc, customerName, customerEmail, customerAddress);
+            doc.add(Chunk.NEWLINE);
+            LocalDate start = computePackageStart(travelPackage);
+            LocalDate end = computePackageEnd(start, travelPackage);
+            addSectionTitle(doc, "Booking details");
+            PdfPTable bookingDetails = createTable();
+            addKeyValue(bookingDetails, "Package", travelPackage == null ? "—" : travelPackage.getName());
+            addKeyValue(bookingDetails, "Location", travelPackage == null ? "—" : travelPackage.getLocation());
+            addKeyValue(bookingDetails, "Total persons", booking.getTotalPersons() + " person(s)");
+            addKeyValue(bookingDetails, "Start date", formatDate(start));
+            addKeyValue(bookingDetails, "End date", formatDate(end));
+            addKeyValue(bookingDetails, "Booked on", formatDateTime(booking.getCreatedAt()));
+            doc.add(bookingDetails);
+            doc.add(Chunk.NEWLINE);
+            addPaymentSummary(doc, booking.getTransactionId(), booking.getCardLast4(), booking.getCreatedAt(),
+                    booking.getPriceTotal(), docNumber);
+            doc.add(Chunk.NEWLINE);
+            addThankYouBlock(doc);
+            doc.close();
+            return baos.toByteArray();
+        } catch (Exception e) {
+            throw new RuntimeException("Failed to render invoice", e);
+        }
+    }
+
+    public byte[] renderRoomInvoice(HotelRoomBooking booking,
+                                    String hotel,
+                                    String destination,
+                                    String customerName,
+                                    String customerAddress,
+                                    String customerEmail) {
+        try (ByteArrayOutputStream baos = new ByteArrayOutputStream()) {
+            Document doc = new Document(PageSize.A4);
+            PdfWriter.getInstance(doc, baos);
+            doc.open();
+            String docNumber = buildDocumentNumber("ROOM", booking.getId());
+            addHero(doc, "Invoice", docNumber);
+            doc.add(Chunk.NEWLINE);
+            addCustomerBlock(doc, customerName, customerEmail, customerAddress);
+            doc.add(Chunk.NEWLINE);
+            addSectionTitle(doc, "Booking details");
+            PdfPTable bookingDetails = createTable();
+            addKeyValue(bookingDetails, "Destination", destination);
+            addKeyValue(bookingDetails, "Hotel", hotel);
+            addKeyValue(bookingDetails, "Room", booking.getRoomName() == null ? "—" : booking.getRoomName());
+            addKeyValue(bookingDetails, "Total rooms", booking.getRoomsBooked() == null
+                    ? "—"
+                    : booking.getRoomsBooked() + " room(s)");
+            addKeyValue(bookingDetails, "Check-in", formatDate(booking.getCheckIn()));
+            addKeyValue(bookingDetails, "Check-out", formatDate(booking.getCheckOut()));
+            addKeyValue(bookingDetails, "Booked on", formatDateTime(booking.getCreatedAt()));
+            doc.add(bookingDetails);
+            doc.add(Chunk.NEWLINE);
+            addPaymentSummary(doc, booking.getTransactionId(), booking.getCardLast4(), booking.getCreatedAt(),
+                    booking.getTotalPrice(), docNumber);
+            doc.add(Chunk.NEWLINE);
+            addThankYouBlock(doc);
+            doc.close();
+            return baos.toByteArray();
+        } catch (Exception e) {
+            throw new RuntimeException("Failed to render invoice", e);
+        }
+    }
+
+    private void addHero(Document doc, String label, String docNumber) throws DocumentException {
+        PdfPTable hero = new PdfPTable(2);
+        hero.setWidthPercentage(100);
+        hero.setSpacingBefore(4);
+        hero.setSpacingAfter(14);
+        hero.getDefaultCell().setBorder(Rectangle.NO_BORDER);
+
+        PdfPCell left = new PdfPCell();
+        left.setPadding(0);
+        left.setBorder(Rectangle.NO_BORDER);
+        left.setBackgroundColor(Color.WHITE);
+        Paragraph name = new Paragraph("Travel-Tourism", BRAND_FONT);
+        Paragraph tagline = new Paragraph("Your Journey, Our Passion", MUTED_FONT);
+        tagline.setSpacingBefore(4);
+        left.addElement(name);
+        left.addElement(tagline);
+
+        PdfPCell right = new PdfPCell();
+        right.setBorder(Rectangle.NO_BORDER);
+        right.setBackgroundColor(Color.WHITE);
+        PdfPTable rightTable = new PdfPTable(1);
+        rightTable.setWidthPercentage(100);
+
+        PdfPCell badge = new PdfPCell(new Phrase(label.toUpperCase(), BADGE_FONT));
+        badge.setPadding(10);
+        badge.setHorizontalAlignment(Element.ALIGN_CENTER);
+        badge.setBackgroundColor(BADGE_BACKGROUND);
+        badge.setBorder(Rectangle.NO_BORDER);
+        rightTable.addCell(badge);
+
+        PdfPCell numberCell = new PdfPCell(new Phrase(docNumber, VALUE_FONT));
+        numberCell.setBorder(Rectangle.NO_BORDER);
+        numberCell.setPaddingTop(8);
+        numberCell.setHorizontalAlignment(Element.ALIGN_RIGHT);
+        rightTable.addCell(numberCell);
+
+        right.addElement(rightTable);
+
+        hero.addCell(left);
+        hero.addCell(right);
+        doc.add(hero);
+    }
+
+    private void addCustomerBlock(Document doc, String name, String email, String address) throws DocumentException {
+        addSectionTitle(doc, "Customer");
+        PdfPTable customer = createTable();
+        addKeyValue(customer, "Name", name, true);
+        addKeyValue(customer, "Email", email, true);
+        addKeyValue(customer, "Address", address, true);
+        doc.add(customer);
+    }
+
+    private void addPaymentSummary(Document doc,
+                                   String transactionId,
+                                   String cardLast4,
+                                   Instant bookedAt,
+                                   BigDecimal total,
+                                   String docNumber) throws DocumentException {
+        addSectionTitle(doc, "Payment");
+        PdfPTable payment = createTable();
+        addKeyValue(payment, "Transaction ID", resolveTxn(transactionId, docNumber), true);
+        addKeyValue(payment, "Method", "Card", true);
+        addKeyValue(payment, "Paid on", formatDateTime(bookedAt), true);
+        addKeyValue(payment, "Total", formatMoney(total), true);
+        doc.add(payment);
+    }
+
+    private void addSectionTitle(Document doc, String text) throws DocumentException {
+        Paragraph title = new Paragraph(text, SECTION_FONT);
+        title.setSpacingAfter(6);
+        doc.add(title);
+    }
+
+    private PdfPTable createTable() {
+        PdfPTable table = new PdfPTable(2);
+        table.setWidthPercentage(100);
+        table.getDefaultCell().setBorder(Rectangle.NO_BORDER);
+        table.setSpacingAfter(8);
+        table.setWidths(KEY_VALUE_WIDTHS);
+        return table;
+    }
+
+    private void addKeyValue(PdfPTable table, String label, String value) {
+        addKeyValue(table, label, value, false);
+    }
+
+    private void addKeyValue(PdfPTable table, String label, String value, boolean highlight) {
+        PdfPCell labelCell = new PdfPCell(new Phrase(label, LABEL_FONT));
+        labelCell.setBorder(Rectangle.NO_BORDER);
+        labelCell.setPadding(4);
+        PdfPCell valueCell = new PdfPCell(new Phrase(value, VALUE_FONT));
+        valueCell.setBorder(Rectangle.NO_BORDER);
+        valueCell.setPadding(4);
+        if (highlight) {
+            labelCell.setBackgroundColor(HIGHLIGHT);
+            valueCell.setBackgroundColor(HIGHLIGHT);
+        }
+        table.addCell(labelCell);
+        table.addCell(valueCell);
+    }
+
+    private void addThankYouBlock(Document doc) throws DocumentException {
+        PdfPTable thankYou = new PdfPTable(1);
+        thankYou.setWidthPercentage(100);
+        PdfPCell cell = new PdfPCell();
+        cell.setBackgroundColor(THANK_YOU_BACKGROUND);
+        cell.setPadding(12);
+        Paragraph main = new Paragraph("Thank you for booking with us!", THANK_YOU_FONT);
+        main.setAlignment(Element.ALIGN_CENTER);
+        Paragraph sub = new Paragraph("We're excited to be part of your journey. support@travel-tourism.com", MUTED_FONT);
+        sub.setAlignment(Element.ALIGN_CENTER);
+        cell.addElement(main);
+        cell.addElement(sub);
+        thankYou.addCell(cell);
+        doc.add(thankYou);
+        Paragraph generated = new Paragraph("Generated on " + formatDateTime(Instant.now()), FOOTNOTE_FONT);
+        generated.setAlignment(Element.ALIGN_CENTER);
+        generated.setSpacingBefore(8);
+        doc.add(generated);
+    }
+
+    private String formatDate(LocalDate date) {
+        return date == null ? "—" : date.format(DATE_ONLY_FORMAT);
+    }
+
+    private String formatDateTime(Instant instant) {
+        return instant == null ? "—" : DATE_TIME_FORMAT.format(instant);
+    }
+
+    private String formatMoney(BigDecimal value) {
+        if (value == null) {
+            return "BDT —";
+        }
+        return "BDT " + value.setScale(2, RoundingMode.HALF_UP).toPlainString();
+    }
+
+    private String buildDocumentNumber(String prefix, UUID id) {
+        String shortId = id == null ? "000000" : id.toString().replace("-", "").substring(0, Math.min(8, id.toString().length()));
+        return prefix + "-" + LocalDate.now().format(DOC_NUMBER_DATE) + "-" + shortId.toUpperCase(Locale.ENGLISH);
+    }
+
+    private String resolveTxn(String txn, String fallback) {
+        if (txn == null || txn.isBlank()) {
+            return fallback;
+        }
+        return txn;
+    }
+
+    private LocalDate computePackageStart(TravelPackage travelPackage) {
+        if (travelPackage == null || travelPackage.getBookingDeadline() == null) {
+            return null;
+        }
+        return travelPackage.getBookingDeadline().plusDays(2);
+    }
+
+    private LocalDate computePackageEnd(LocalDate start, TravelPackage travelPackage) {
+        if (start == null || travelPackage == null || travelPackage.getTiming() == null) {
+            return start;
+        }
+        Integer days = HistoryService.parseDurationDays(travelPackage.getTiming());
+        if (days == null || days <= 0) {
+            return start;
+        }
+        return start.plusDays(days);
+    }
+}
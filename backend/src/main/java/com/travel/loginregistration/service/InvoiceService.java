@@ -1,19 +1,5 @@
 package com.travel.loginregistration.service;
 
-import com.lowagie.text.Chunk;
-import com.lowagie.text.Document;
-import com.lowagie.text.DocumentException;
-import com.lowagie.text.Element;
-import com.lowagie.text.Font;
-import com.lowagie.text.FontFactory;
-import com.lowagie.text.PageSize;
-import com.lowagie.text.Paragraph;
-import com.lowagie.text.Phrase;
-import com.lowagie.text.Rectangle;
-import com.lowagie.text.pdf.PdfPCell;
-import com.lowagie.text.pdf.PdfPTable;
-import com.lowagie.text.pdf.PdfWriter;
-import java.awt.Color;
 import com.travel.loginregistration.model.Booking;
 import com.travel.loginregistration.model.Destination;
 import com.travel.loginregistration.model.Hotel;
@@ -33,16 +19,13 @@ import com.travel.loginregistration.repository.UserRepository;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
-import java.io.ByteArrayOutputStream;
-import java.math.BigDecimal;
-import java.math.RoundingMode;
-import java.time.Instant;
-import java.time.LocalDate;
-import java.time.ZoneId;
-import java.time.format.DateTimeFormatter;
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
 import java.util.Locale;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
 
 @Service
 public class InvoiceService {
@@ -54,12 +37,11 @@ public class InvoiceService {
     private final TravelPackageRepository travelPackageRepository;
     private final UserRepository userRepository;
     private final UserProfileRepository profileRepository;
+    private final InvoiceStore store;
+    private final InvoiceRenderer renderer;
 
-    private static final DateTimeFormatter DATE_TIME_FORMAT =
-            DateTimeFormatter.ofPattern("MMMM d, yyyy 'at' hh:mm a", Locale.ENGLISH)
-                    .withZone(ZoneId.systemDefault());
-    private static final DateTimeFormatter DATE_ONLY_FORMAT =
-            DateTimeFormatter.ofPattern("MMMM d, yyyy", Locale.ENGLISH);
+    // Part of every stored invoice's fingerprint; bump it when the PDF layout changes so old files are not served.
+    private static final String LAYOUT_VERSION = "1";
 
     public InvoiceService(BookingRepository bookingRepository,
                           HotelRoomBookingRepository roomBookingRepository,
@@ -68,7 +50,9 @@ public class InvoiceService {
                           UserProfileRepository profileRepository,
                           HotelRoomRepository hotelRoomRepository,
                           HotelRepository hotelRepository,
-                          DestinationRepository destinationRepository) {
+                          DestinationRepository destinationRepository,
+                          InvoiceStore store,
+                          InvoiceRenderer renderer) {
         this.bookingRepository = bookingRepository;
         this.roomBookingRepository = roomBookingRepository;
         this.hotelRoomRepository = hotelRoomRepository;
@@ -77,281 +61,122 @@ public class InvoiceService {
         this.travelPackageRepository = travelPackageRepository;
         this.userRepository = userRepository;
         this.profileRepository = profileRepository;
+        this.store = store;
+        this.renderer = renderer;
     }
 
+    // A rendered PDF ready to be streamed; the caller must close body.
+    public record Invoice(InputStream body, long length) { }
+
+    // Who an invoice is addressed to.
+    record Customer(String name, String email, String address) { }
+
+    // One invoice with everything it shows already looked up: its store key and the job that renders it.
+    record Prepared(BookingKind kind, UUID bookingId, String fingerprint, Supplier<byte[]> render) { }
+
+    /*
+        The booking's invoice, from InvoiceStore when one was already rendered from the same data.
+        The lookups run on the caller's thread; on a miss the PDF is rendered and stored on InvoiceRenderer's pool.
+        Throws IllegalStateException("RENDER_BUSY") when that pool's queue is full.
+    */
     @Transactional(readOnly = true)
-    public byte[] createInvoice(BookingKind kind, UUID bookingId, String requesterEmail) {
+    public CompletableFuture<Invoice> createInvoice(BookingKind kind, UUID bookingId, String requesterEmail) {
         String normalized = requesterEmail == null ? "" : requesterEmail.toLowerCase(Locale.ROOT);
         User user = userRepository.findByEmail(normalized)
                 .orElseThrow(() -> new IllegalArgumentException("User not found"));
-        UserProfile profile = profileRepository.findByUserId(user.getId()).orElse(null);
-        String customerName = profile != null && profile.getFullName() != null && !profile.getFullName().isBlank()
-                ? profile.getFullName()
-                : user.getUsername();
-        if (customerName == null || customerName.isBlank()) {
-            customerName = user.getEmail();
-        }
-        String customerAddress = user.getLocation() == null ? "—" : user.getLocation();
+        Customer customer = customer(user);
 
+        Prepared prepared;
         switch (kind) {
             case PACKAGE:
                 Booking booking = bookingRepository.findById(bookingId)
                         .orElseThrow(() -> new IllegalArgumentException("Package booking not found"));
                 ensureOwner(booking.getUserId(), booking.getUserEmail(), user);
-                TravelPackage travelPackage = booking.getPackageId() == null
-                        ? null
-                        : travelPackageRepository.findById(booking.getPackageId()).orElse(null);
-                return renderPackageInvoice(booking, travelPackage, customerName, customerAddress, user.getEmail());
+                prepared = prepare(booking, travelPackage(booking.getPackageId()), customer);
+                break;
             case ROOM:
                 HotelRoomBooking roomBooking = roomBookingRepository.findById(bookingId)
                         .orElseThrow(() -> new IllegalArgumentException("Room booking not found"));
                 ensureOwner(roomBooking.getUserId(), roomBooking.getUserEmail(), user);
-                return renderRoomInvoice(roomBooking, customerName, customerAddress, user.getEmail());
+                prepared = prepare(roomBooking, resolveLocation(roomBooking.getRoomId(), roomBooking.getHotelName()), customer);
+                break;
             default:
                 throw new IllegalArgumentException("Unsupported booking kind");
         }
+        Invoice hit = cached(prepared);
+        if (hit != null) return CompletableFuture.completedFuture(hit);
+        return renderer.submit(() -> render(prepared));
     }
 
-    private void ensureOwner(UUID userId, String userEmail, User requester) {
-        boolean match = false;
-        if (userId != null && requester.getId() != null) {
-            match = requester.getId().equals(userId);
-        }
-        if (!match && userEmail != null && requester.getEmail() != null) {
-            match = userEmail.equalsIgnoreCase(requester.getEmail());
-        }
-        if (!match) {
-            throw new IllegalArgumentException("Not authorized to view this invoice");
-        }
-    }
-
-    private byte[] renderPackageInvoice(Booking booking,
-                                        TravelPackage travelPackage,
-                                        String customerName,
-                                        String customerAddress,
-                                        String customerEmail) {
-        try (ByteArrayOutputStream baos = new ByteArrayOutputStream()) {
-            Document doc = new Document(PageSize.A4);
-            PdfWriter writer = PdfWriter.getInstance(doc, baos);
-            doc.open();
-            String docNumber = buildDocumentNumber("PKG", booking.getId());
-            addHero(doc, writer, "Invoice", docNumber);
-            doc.add(Chunk.NEWLINE);
-            addCustomerBlock(doc, customerName, customerEmail, customerAddress);
-            doc.add(Chunk.NEWLINE);
-            LocalDate start = computePackageStart(travelPackage);
-            LocalDate end = computePackageEnd(start, travelPackage);
-            addSectionTitle(doc, "Booking details");
-            PdfPTable bookingDetails = createTable();
-            addKeyValue(bookingDetails, "Package", travelPackage == null ? "—" : travelPackage.getName());
-            addKeyValue(bookingDetails, "Location", travelPackage == null ? "—" : travelPackage.getLocation());
-            addKeyValue(bookingDetails, "Total persons", booking.getTotalPersons() + " person(s)");
-            addKeyValue(bookingDetails, "Start date", formatDate(start));
-            addKeyValue(bookingDetails, "End date", formatDate(end));
-            addKeyValue(bookingDetails, "Booked on", formatDateTime(booking.getCreatedAt()));
-            doc.add(bookingDetails);
-            doc.add(Chunk.NEWLINE);
-            addPaymentSummary(doc, booking.getTransactionId(), booking.getCardLast4(), booking.getCreatedAt(),
-                    booking.getPriceTotal(), docNumber);
-            doc.add(Chunk.NEWLINE);
-            addThankYouBlock(doc);
-            doc.close();
-            return baos.toByteArray();
-        } catch (Exception e) {
-            throw new RuntimeException("Failed to render invoice", e);
-        }
-    }
-
-    private byte[] renderRoomInvoice(HotelRoomBooking booking,
-                                     String customerName,
-                                     String customerAddress,
-                                     String customerEmail) {
-        try (ByteArrayOutputStream baos = new ByteArrayOutputStream()) {
-            Document doc = new Document(PageSize.A4);
-            PdfWriter writer = PdfWriter.getInstance(doc, baos);
-            doc.open();
-            String docNumber = buildDocumentNumber("ROOM", booking.getId());
-            addHero(doc, writer, "Invoice", docNumber);
-            doc.add(Chunk.NEWLINE);
-            addCustomerBlock(doc, customerName, customerEmail, customerAddress);
-            doc.add(Chunk.NEWLINE);
-            LocationDetails location = resolveLocation(booking.getRoomId(), booking.getHotelName());
-            addSectionTitle(doc, "Booking details");
-            PdfPTable bookingDetails = createTable();
-            addKeyValue(bookingDetails, "Destination", location.destination());
-            addKeyValue(bookingDetails, "Hotel", location.hotel());
-            addKeyValue(bookingDetails, "Room", booking.getRoomName() == null ? "—" : booking.getRoomName());
-            addKeyValue(bookingDetails, "Total rooms", booking.getRoomsBooked() == null
-                    ? "—"
-                    : booking.getRoomsBooked() + " room(s)");
-            addKeyValue(bookingDetails, "Check-in", formatDate(booking.getCheckIn()));
-            addKeyValue(bookingDetails, "Check-out", formatDate(booking.getCheckOut()));
-            addKeyValue(bookingDetails, "Booked on", formatDateTime(booking.getCreatedAt()));
-            doc.add(bookingDetails);
-            doc.add(Chunk.NEWLINE);
-            addPaymentSummary(doc, booking.getTransactionId(), booking.getCardLast4(), booking.getCreatedAt(),
-                    booking.getTotalPrice(), docNumber);
-            doc.add(Chunk.NEWLINE);
-            addThankYouBlock(doc);
-            doc.close();
-            return baos.toByteArray();
-        } catch (Exception e) {
-            throw new RuntimeException("Failed to render invoice", e);
+    Customer customer(User user) {
+        UserProfile profile = profileRepository.findByUserId(user.getId()).orElse(null);
+        String name = profile != null && profile.getFullName() != null && !profile.getFullName().isBlank()
+                ? profile.getFullName()
+                : user.getUsername();
+        if (name == null || name.isBlank()) {
+            name = user.getEmail();
         }
+        return new Customer(name, user.getEmail(), user.getLocation() == null ? "—" : user.getLocation());
     }
 
-    private void addHero(Document doc, PdfWriter writer, String label, String docNumber) throws DocumentException {
-        PdfPTable hero = new PdfPTable(2);
-        hero.setWidthPercentage(100);
-        hero.setSpacingBefore(4);
-        hero.setSpacingAfter(14);
-        hero.getDefaultCell().setBorder(Rectangle.NO_BORDER);
-
-        PdfPCell left = new PdfPCell();
-        left.setPadding(0);
-        left.setBorder(Rectangle.NO_BORDER);
-        left.setBackgroundColor(Color.WHITE);
-        Paragraph name = new Paragraph("Travel-Tourism", FontFactory.getFont(FontFactory.HELVETICA, 26, Font.BOLD, new Color(86, 0, 255)));
-        Paragraph tagline = new Paragraph("Your Journey, Our Passion", FontFactory.getFont(FontFactory.HELVETICA, 12, Font.NORMAL, Color.GRAY));
-        tagline.setSpacingBefore(4);
-        left.addElement(name);
-        left.addElement(tagline);
-
-        PdfPCell right = new PdfPCell();
-        right.setBorder(Rectangle.NO_BORDER);
-        right.setBackgroundColor(Color.WHITE);
-        PdfPTable rightTable = new PdfPTable(1);
-        rightTable.setWidthPercentage(100);
-
-        PdfPCell badge = new PdfPCell(new Phrase(label.toUpperCase(), FontFactory.getFont(FontFactory.HELVETICA, 14, Font.BOLD, Color.WHITE)));
-        badge.setPadding(10);
-        badge.setHorizontalAlignment(Element.ALIGN_CENTER);
-        badge.setBackgroundColor(new Color(112, 70, 241));
-        badge.setBorder(Rectangle.NO_BORDER);
-        rightTable.addCell(badge);
-
-        PdfPCell numberCell = new PdfPCell(new Phrase(docNumber,
-                FontFactory.getFont(FontFactory.HELVETICA, 12, Font.NORMAL, Color.DARK_GRAY)));
-        numberCell.setBorder(Rectangle.NO_BORDER);
-        numberCell.setPaddingTop(8);
-        numberCell.setHorizontalAlignment(Element.ALIGN_RIGHT);
-        rightTable.addCell(numberCell);
-
-        right.addElement(rightTable);
-
-        hero.addCell(left);
-        hero.addCell(right);
-        doc.add(hero);
+    TravelPackage travelPackage(UUID packageId) {
+        return packageId == null ? null : travelPackageRepository.findById(packageId).orElse(null);
     }
 
-    private void addCustomerBlock(Document doc, String name, String email, String address) throws DocumentException {
-        addSectionTitle(doc, "Customer");
-        PdfPTable customer = createTable();
-        addKeyValue(customer, "Name", name, true);
-        addKeyValue(customer, "Email", email, true);
-        addKeyValue(customer, "Address", address, true);
-        doc.add(customer);
+    Prepared prepare(Booking booking, TravelPackage travelPackage, Customer customer) {
+        String fingerprint = InvoiceStore.fingerprint(LAYOUT_VERSION, customer.name(), customer.email(), customer.address(),
+                booking.getStatus(), booking.getCanceledAt(), booking.getPriceTotal(), booking.getTotalPersons(),
+                booking.getCreatedAt(), booking.getTransactionId(), booking.getCardLast4(),
+                travelPackage == null ? null : travelPackage.getName(),
+                travelPackage == null ? null : travelPackage.getLocation(),
+                travelPackage == null ? null : travelPackage.getBookingDeadline(),
+                travelPackage == null ? null : travelPackage.getTiming());
+        return new Prepared(BookingKind.PACKAGE, booking.getId(), fingerprint, () -> renderer.renderPackageInvoice(
+                booking, travelPackage, customer.name(), customer.address(), customer.email()));
     }
 
-    private void addPaymentSummary(Document doc,
-                                   String transactionId,
-                                   String cardLast4,
-                                   Instant bookedAt,
-                                   BigDecimal total,
-                                   String docNumber) throws DocumentException {
-        addSectionTitle(doc, "Payment");
-        PdfPTable payment = createTable();
-        addKeyValue(payment, "Transaction ID", resolveTxn(transactionId, docNumber), true);
-        addKeyValue(payment, "Method", "Card", true);
-        addKeyValue(payment, "Paid on", formatDateTime(bookedAt), true);
-        addKeyValue(payment, "Total", formatMoney(total), true);
-        doc.add(payment);
+    Prepared prepare(HotelRoomBooking booking, LocationDetails location, Customer customer) {
+        String fingerprint = InvoiceStore.fingerprint(LAYOUT_VERSION, customer.name(), customer.email(), customer.address(),
+                booking.getStatus(), booking.getCanceledAt(), booking.getTotalPrice(),
+                booking.getRoomsBooked(), booking.getCheckIn(), booking.getCheckOut(),
+                booking.getCreatedAt(), booking.getTransactionId(), booking.getCardLast4(),
+                booking.getRoomName(), location.hotel(), location.destination());
+        return new Prepared(BookingKind.ROOM, booking.getId(), fingerprint, () -> renderer.renderRoomInvoice(
+                booking, location.hotel(), location.destination(), customer.name(), customer.address(), customer.email()));
     }
 
-    private void addSectionTitle(Document doc, String text) throws DocumentException {
-        Paragraph title = new Paragraph(text, FontFactory.getFont(FontFactory.HELVETICA, 16, Font.BOLD, new Color(82, 82, 91)));
-        title.setSpacingAfter(6);
-        doc.add(title);
+    // The stored PDF for this invoice, or null if it has to be rendered.
+    Invoice cached(Prepared prepared) {
+        return store.open(prepared.kind(), prepared.bookingId(), prepared.fingerprint());
     }
 
-    private PdfPTable createTable() {
-        PdfPTable table = new PdfPTable(2);
-        table.setWidthPercentage(100);
-        table.getDefaultCell().setBorder(Rectangle.NO_BORDER);
-        table.setSpacingAfter(8);
-        table.setWidths(new float[]{1f, 2f});
-        return table;
+    // Renders on the calling thread and stores the result for the next download.
+    Invoice render(Prepared prepared) {
+        byte[] pdf = prepared.render().get();
+        store.put(prepared.kind(), prepared.bookingId(), prepared.fingerprint(), pdf);
+        return new Invoice(new ByteArrayInputStream(pdf), pdf.length);
     }
 
-    private void addKeyValue(PdfPTable table, String label, String value) {
-        addKeyValue(table, label, value, false);
+    // Renders on the calling thread without storing the result (for bulk archives nobody will re-download).
+    Invoice renderUnstored(Prepared prepared) {
+        byte[] pdf = prepared.render().get();
+        return new Invoice(new ByteArrayInputStream(pdf), pdf.length);
     }
 
-    private void addKeyValue(PdfPTable table, String label, String value, boolean highlight) {
-        PdfPCell labelCell = new PdfPCell(new Phrase(label, FontFactory.getFont(FontFactory.HELVETICA, 11, Font.NORMAL, Color.GRAY)));
-        labelCell.setBorder(Rectangle.NO_BORDER);
-        labelCell.setPadding(4);
-        PdfPCell valueCell = new PdfPCell(new Phrase(value, FontFactory.getFont(FontFactory.HELVETICA, 12, Font.NORMAL, Color.DARK_GRAY)));
-        valueCell.setBorder(Rectangle.NO_BORDER);
-        valueCell.setPadding(4);
-        if (highlight) {
-            Color tint = new Color(245, 247, 249);
-            labelCell.setBackgroundColor(tint);
-            valueCell.setBackgroundColor(tint);
+    private void ensureOwner(UUID userId, String userEmail, User requester) {
+        boolean match = false;
+        if (userId != null && requester.getId() != null) {
+            match = requester.getId().equals(userId);
         }
-        table.addCell(labelCell);
-        table.addCell(valueCell);
-    }
-
-    private void addThankYouBlock(Document doc) throws DocumentException {
-        PdfPTable thankYou = new PdfPTable(1);
-        thankYou.setWidthPercentage(100);
-        PdfPCell cell = new PdfPCell();
-        cell.setBackgroundColor(new Color(237, 245, 255));
-        cell.setPadding(12);
-        Paragraph main = new Paragraph("Thank you for booking with us!", FontFactory.getFont(FontFactory.HELVETICA, 16, Font.BOLD, new Color(21, 128, 61)));
-        main.setAlignment(Element.ALIGN_CENTER);
-        Paragraph sub = new Paragraph("We're excited to be part of your journey. support@travel-tourism.com",
-                FontFactory.getFont(FontFactory.HELVETICA, 12, Font.NORMAL, Color.GRAY));
-        sub.setAlignment(Element.ALIGN_CENTER);
-        cell.addElement(main);
-        cell.addElement(sub);
-        thankYou.addCell(cell);
-        doc.add(thankYou);
-        Paragraph generated = new Paragraph("Generated on " + formatDateTime(Instant.now()), FontFactory.getFont(FontFactory.HELVETICA, 10, Font.NORMAL, Color.GRAY));
-        generated.setAlignment(Element.ALIGN_CENTER);
-        generated.setSpacingBefore(8);
-        doc.add(generated);
-    }
-
-    private String formatDate(LocalDate date) {
-        return date == null ? "—" : date.format(DATE_ONLY_FORMAT);
-    }
-
-    private String formatDateTime(Instant instant) {
-        return instant == null ? "—" : DATE_TIME_FORMAT.format(instant);
-    }
-
-    private String formatMoney(BigDecimal value) {
-        if (value == null) {
-            return "BDT —";
+        if (!match && userEmail != null && requester.getEmail() != null) {
+            match = userEmail.equalsIgnoreCase(requester.getEmail());
         }
-        return "BDT " + value.setScale(2, RoundingMode.HALF_UP).toPlainString();
-    }
-
-    private String buildDocumentNumber(String prefix, UUID id) {
-        String shortId = id == null ? "000000" : id.toString().replace("-", "").substring(0, Math.min(8, id.toString().length()));
-        return prefix + "-" + LocalDate.now().format(DateTimeFormatter.ofPattern("yyyyMMdd")) + "-" + shortId.toUpperCase(Locale.ENGLISH);
-    }
-
-    private String resolveTxn(String txn, String fallback) {
-        if (txn == null || txn.isBlank()) {
-            return fallback;
+        if (!match) {
+            throw new IllegalArgumentException("Not authorized to view this invoice");
         }
-        return txn;
     }
 
-    private LocationDetails resolveLocation(UUID roomId, String fallbackHotel) {
+    LocationDetails resolveLocation(UUID roomId, String fallbackHotel) {
         String hotelName = fallbackHotel == null || fallbackHotel.isBlank() ? "—" : fallbackHotel;
         String destinationName = "—";
         if (roomId == null) {
@@ -385,45 +210,7 @@ public class InvoiceService {
         return new LocationDetails(hotelName, destinationName);
     }
 
-    private record LocationDetails(String hotel, String destination) { }
-
-    private LocalDate computePackageStart(TravelPackage travelPackage) {
-        if (travelPackage == null || travelPackage.getBookingDeadline() == null) {
-            return null;
-        }
-        return travelPackage.getBookingDeadline().plusDays(2);
-    }
-
-    private LocalDate computePackageEnd(LocalDate start, TravelPackage travelPackage) {
-        if (start == null || travelPackage == null || travelPackage.getTiming() == null) {
-            return start;
-        }
-        Integer days = parseDurationDays(travelPackage.getTiming());
-        if (days == null || days <= 0) {
-            return start;
-        }
-        return start.plusDays(days);
-    }
-
-    private Integer parseDurationDays(String timing) {
-        if (timing == null) {
-            return null;
-        }
-        String lower = timing.toLowerCase(Locale.ENGLISH);
-        int idx = lower.indexOf("day");
-        if (idx == -1) {
-            return null;
-        }
-        String prefix = lower.substring(0, idx).replaceAll("[^0-9]", "");
-        if (prefix.isBlank()) {
-            return null;
-        }
-        try {
-            return Integer.parseInt(prefix);
-        } catch (NumberFormatException e) {
-            return null;
-        }
-    }
+    record LocationDetails(String hotel, String destination) { }
 
     public enum BookingKind {
         PACKAGE,
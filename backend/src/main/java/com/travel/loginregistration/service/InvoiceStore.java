@@ -0,0 +1,164 @@
+package com.travel.loginregistration.service;
+
+import com.travel.loginregistration.service.InvoiceService.BookingKind;
+import com.travel.loginregistration.service.InvoiceService.Invoice;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+
+/*
+    On-disk store of rendered invoice PDFs, one file per booking: <kind>-<booking id>-<fingerprint>.pdf.
+    The fingerprint hashes every field the invoice shows plus the booking's status, so a booking whose data
+    changed simply misses and is rendered again; storing the new version removes the old one.
+    Files are written to a temp file and renamed into place, so readers never see a partial PDF.
+    Cancels drop the booking's file once they commit (see invalidate), so no dead versions linger.
+*/
+
+@Component
+public class InvoiceStore {
+    private static final String TMP_SUFFIX = ".tmp";
+
+    private final Path dir;
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong writes = new AtomicLong();
+    private final AtomicLong writeErrors = new AtomicLong();
+    private final AtomicLong invalidations = new AtomicLong();
+
+    public InvoiceStore(@Value("${app.invoice.store-dir:invoices}") String dir) throws IOException {
+        this.dir = Path.of(dir);
+        Files.createDirectories(this.dir);
+        // Temp files left behind by a crash mid-write are never renamed into place.
+        try (DirectoryStream<Path> stale = Files.newDirectoryStream(this.dir, "*" + TMP_SUFFIX)) {
+            for (Path p : stale) Files.deleteIfExists(p);
+        }
+    }
+
+    // SHA-256 of the given values in order; null and "" hash differently.
+    public static String fingerprint(Object... values) {
+        try {
+            MessageDigest md = MessageDigest.getInstance("SHA-256");
+            for (Object v : values) {
+                md.update(v == null ? new byte[]{0} : ("\u0001" + v).getBytes(StandardCharsets.UTF_8));
+                md.update((byte) 0x1f);
+            }
+            return HexFormat.of().formatHex(md.digest(), 0, 16);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    // The stored PDF for exactly this fingerprint, opened for reading, or null if it has not been stored.
+    public Invoice open(BookingKind kind, UUID bookingId, String fingerprint) {
+        Path file = dir.resolve(name(kind, bookingId, fingerprint));
+        try {
+            // Once open, the file can be read to the end even if a cancel deletes it meanwhile.
+            FileChannel channel = FileChannel.open(file, StandardOpenOption.READ);
+            long size;
+            try {
+                size = channel.size();
+            } catch (IOException e) {
+                channel.close();
+                throw e;
+            }
+            hits.incrementAndGet();
+            return new Invoice(Channels.newInputStream(channel), size);
+        } catch (IOException e) { // usually NoSuchFileException
+            misses.incrementAndGet();
+            return null;
+        }
+    }
+
+    // Stores a freshly rendered PDF and removes other versions of the same booking. Failures only cost a re-render.
+    public void put(BookingKind kind, UUID bookingId, String fingerprint, byte[] pdf) {
+        String name = name(kind, bookingId, fingerprint);
+        Path tmp = null;
+        try {
+            tmp = Files.createTempFile(dir, name, TMP_SUFFIX);
+            try (FileChannel ch = FileChannel.open(tmp, StandardOpenOption.WRITE)) {
+                ByteBuffer buf = ByteBuffer.wrap(pdf);
+                while (buf.hasRemaining()) ch.write(buf);
+                ch.force(true);
+            }
+            Path target = dir.resolve(name);
+            try {
+                Files.move(tmp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(tmp, target, StandardCopyOption.REPLACE_EXISTING);
+            }
+            writes.incrementAndGet();
+            deleteVersions(kind, bookingId, name);
+        } catch (IOException e) {
+            writeErrors.incrementAndGet();
+            System.err.println("[InvoiceStore] Failed to store " + name + ": " + e.getMessage());
+            if (tmp != null) {
+                try { Files.deleteIfExists(tmp); } catch (IOException ignore) { }
+            }
+        }
+    }
+
+    // Drops every stored version of this booking's invoice once the current transaction commits.
+    public void invalidate(BookingKind kind, UUID bookingId) {
+        if (bookingId == null) return;
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            deleteVersions(kind, bookingId, null);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                deleteVersions(kind, bookingId, null);
+            }
+        });
+    }
+
+    public Map<String, Object> stats() {
+        Map<String, Object> m = new LinkedHashMap<>();
+        m.put("hits", hits.get());
+        m.put("misses", misses.get());
+        m.put("writes", writes.get());
+        m.put("writeErrors", writeErrors.get());
+        m.put("invalidations", invalidations.get());
+        return m;
+    }
+
+    private void deleteVersions(BookingKind kind, UUID bookingId, String keep) {
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(dir, prefix(kind, bookingId) + "*.pdf")) {
+            for (Path p : files) {
+                if (keep != null && p.getFileName().toString().equals(keep)) continue;
+                if (Files.deleteIfExists(p) && keep == null) invalidations.incrementAndGet();
+            }
+        } catch (IOException e) {
+            System.err.println("[InvoiceStore] Failed to clean " + prefix(kind, bookingId) + ": " + e.getMessage());
+        }
+    }
+
+    private static String name(BookingKind kind, UUID bookingId, String fingerprint) {
+        return prefix(kind, bookingId) + fingerprint + ".pdf";
+    }
+
+    private static String prefix(BookingKind kind, UUID bookingId) {
+        return kind.name().toLowerCase(Locale.ROOT) + "-" + bookingId + "-";
+    }
+}
@@ -0,0 +1,93 @@
+package com.travel.loginregistration.service;
+
+import com.travel.loginregistration.model.TravelPackage;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/*
+    Lock-free remaining-seat counters per travel package.
+    Each counter is seeded from the package row the booking already loaded (seat_capacity - seats_booked) and then
+    moved with CAS, so admitting or rejecting a booking never needs a SUM over the bookings table.
+    The counter only short-circuits sold-out requests; travel_packages.seats_booked is the durable guard.
+    A counter that says sold out is reseeded only when that row shows room it doesn't (a cancel on another node,
+    or a raised capacity), so requests for a package that really is sold out cost no extra query.
+*/
+
+@Component
+public class PackageSeatReservations {
+    private static final Pattern NUMBER = Pattern.compile("(\\d+)");
+
+    private final Map<UUID, AtomicInteger> remaining = new ConcurrentHashMap<>();
+
+    // Seats taken from one particular counter (null for packages without a cap), so they can be handed back to it.
+    public record Hold(UUID packageId, int persons, AtomicInteger counter) { }
+
+    /* Takes `persons` seats if this node believes they are free, or returns null; packages without a cap always
+       succeed. `pack` must be freshly loaded: its seats_booked is what a stale counter is checked against. */
+    public Hold tryReserve(TravelPackage pack, int persons) {
+        if (pack.getSeatCapacity() == null) return new Hold(pack.getId(), persons, null);
+        AtomicInteger seats = remaining.computeIfAbsent(pack.getId(), id -> seed(pack));
+        boolean reseeded = false;
+        while (true) {
+            int current = seats.get();
+            if (current >= persons) {
+                if (seats.compareAndSet(current, current - persons)) return new Hold(pack.getId(), persons, seats);
+                continue;
+            }
+            if (reseeded || free(pack) < persons) return null;
+            reseeded = true;
+            AtomicInteger fresh = seed(pack);
+            seats = remaining.replace(pack.getId(), seats, fresh)
+                    ? fresh
+                    : remaining.computeIfAbsent(pack.getId(), id -> fresh);
+        }
+    }
+
+    /* Undoes a hold whose booking did not commit. A counter invalidated since the hold was taken is left alone:
+       its replacement was seeded from the database, which never counted these seats. */
+    public void cancel(Hold hold) {
+        if (hold.counter() != null && remaining.get(hold.packageId()) == hold.counter()) {
+            hold.counter().addAndGet(hold.persons());
+        }
+    }
+
+    public void release(UUID packageId, int persons) {
+        AtomicInteger seats = remaining.get(packageId);
+        if (seats != null) seats.addAndGet(persons);
+    }
+
+    // Drops the counter so the next booking reseeds it (capacity edited, or another node changed the count).
+    public void invalidate(UUID packageId) {
+        remaining.remove(packageId);
+    }
+
+    // Reads the upper bound of a group size label: "2-6 People" -> 6, "10 people" -> 10, no digits -> null.
+    public static Integer parseCapacity(String groupSize) {
+        if (groupSize == null || groupSize.isBlank()) return null;
+        Matcher m = NUMBER.matcher(groupSize);
+        Integer first = null, second = null;
+        while (m.find()) {
+            try {
+                if (first == null) first = Integer.parseInt(m.group(1));
+                else { second = Integer.parseInt(m.group(1)); break; }
+            } catch (NumberFormatException e) {
+                return null;
+            }
+        }
+        return second != null ? second : first;
+    }
+
+    private static AtomicInteger seed(TravelPackage pack) {
+        return new AtomicInteger(free(pack));
+    }
+
+    private static int free(TravelPackage pack) {
+        return Math.max(0, pack.getSeatCapacity() - pack.getSeatsBooked());
+    }
+}
@@ -0,0 +1,165 @@
+package com.travel.loginregistration.service;
+
+import com.travel.loginregistration.repository.HotelRoomBookingRepository;
+import com.travel.loginregistration.repository.HotelRoomBookingRepository.ActiveStay;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/*
+    In-memory per-night booking counts for every hotel room.
+    Loaded once from hotel_room_bookings and kept current by HotelBookingService on book/cancel,
+    so availability for any stay is a range-max over an int array instead of a SUM query per room.
+    It is a read model for this node only; room_inventory (RoomInventoryService) decides whether a booking fits.
+    Bookings made through another node never reach it, so searches there would show stale availability:
+    the booking path is safe across nodes, the read path is single-node only.
+    Each room keeps one int per night (indexed by epoch day offset) holding how many units are booked that night.
+    Nights more than KEEP_PAST_DAYS before today are never searched, so they are ignored on update and dropped
+    from the front of the array once enough of them pile up.
+*/
+
+@Component
+public class RoomInventoryLedger {
+    // Extra nights allocated past the requested range so consecutive bookings rarely reallocate.
+    private static final int GROWTH_SLACK = 60;
+    // Past nights kept around so a client a timezone behind the server still sees "today" correctly.
+    private static final int KEEP_PAST_DAYS = 1;
+
+    private final HotelRoomBookingRepository bookingRepository;
+    private final Map<UUID, RoomNights> rooms = new ConcurrentHashMap<>();
+    private volatile boolean loaded;
+
+    public RoomInventoryLedger(HotelRoomBookingRepository bookingRepository) {
+        this.bookingRepository = bookingRepository;
+    }
+
+    // Warm the ledger as soon as the app is up so the first search doesn't pay for the load.
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        ensureLoaded();
+    }
+
+    // Highest number of units booked on any night in [checkIn, checkOut).
+    public int maxBooked(UUID roomId, LocalDate checkIn, LocalDate checkOut) {
+        ensureLoaded();
+        RoomNights nights = rooms.get(roomId);
+        if (nights == null) return 0;
+        return nights.max(checkIn.toEpochDay(), checkOut.toEpochDay());
+    }
+
+    // Units still free for the whole stay given the room's capacity.
+    public int remaining(UUID roomId, int capacity, LocalDate checkIn, LocalDate checkOut) {
+        return Math.max(0, capacity - maxBooked(roomId, checkIn, checkOut));
+    }
+
+    // Records `count` more units for every night of the stay; capacity is enforced by RoomInventoryService.
+    public void reserve(UUID roomId, LocalDate checkIn, LocalDate checkOut, int count) {
+        ensureLoaded();
+        nightsFor(roomId).add(checkIn.toEpochDay(), checkOut.toEpochDay(), count, floor());
+    }
+
+    // Returns `count` units for every night of the stay (cancellation or rolled-back booking).
+    public void release(UUID roomId, LocalDate checkIn, LocalDate checkOut, int count) {
+        ensureLoaded();
+        int over = nightsFor(roomId).add(checkIn.toEpochDay(), checkOut.toEpochDay(), -count, floor());
+        // A count below zero means a stay was released twice or never reserved; the ledger no longer matches the table.
+        if (over > 0) {
+            System.err.println("[RoomInventoryLedger] Released " + count + " unit(s) of room " + roomId
+                    + " for " + checkIn + ".." + checkOut + " but " + over + " night(s) had fewer booked; clamped to 0");
+        }
+    }
+
+    private static long floor() {
+        return LocalDate.now().toEpochDay() - KEEP_PAST_DAYS;
+    }
+
+    private RoomNights nightsFor(UUID roomId) {
+        return rooms.computeIfAbsent(roomId, id -> new RoomNights());
+    }
+
+    private void ensureLoaded() {
+        if (loaded) return;
+        synchronized (this) {
+            if (loaded) return;
+            long floor = floor();
+            for (ActiveStay stay : bookingRepository.findActiveStays()) {
+                if (stay.getRoomId() == null || stay.getCheckIn() == null || stay.getCheckOut() == null) continue;
+                int count = stay.getRoomsBooked() == null ? 0 : stay.getRoomsBooked();
+                if (count <= 0 || !stay.getCheckIn().isBefore(stay.getCheckOut())) continue;
+                nightsFor(stay.getRoomId()).add(stay.getCheckIn().toEpochDay(), stay.getCheckOut().toEpochDay(), count, floor);
+            }
+            loaded = true;
+        }
+    }
+
+    // Booked units per night for one room; all access is guarded by the instance lock.
+    private static final class RoomNights {
+        private long firstDay;
+        private int[] nights = new int[0];
+
+        synchronized int max(long from, long to) {
+            int start = (int) Math.max(0, from - firstDay);
+            int end = (int) Math.min(nights.length, to - firstDay);
+            int max = 0;
+            for (int i = start; i < end; i++) {
+                if (nights[i] > max) max = nights[i];
+            }
+            return max;
+        }
+
+        // Adds delta to every night in [max(from, floor), to); returns how many nights would have gone below zero.
+        synchronized int add(long from, long to, int delta, long floor) {
+            from = Math.max(from, floor);
+            if (from >= to) return 0;
+            trim(floor);
+            cover(from, to);
+            int start = (int) (from - firstDay);
+            int end = (int) (to - firstDay);
+            int negative = 0;
+            for (int i = start; i < end; i++) {
+                int next = nights[i] + delta;
+                if (next < 0) {
+                    negative++;
+                    next = 0;
+                }
+                nights[i] = next;
+            }
+            return negative;
+        }
+
+        // Drops nights before floor once at least GROWTH_SLACK of them have accumulated, so copies stay rare.
+        private void trim(long floor) {
+            long stale = floor - firstDay;
+            if (nights.length == 0 || stale < GROWTH_SLACK) return;
+            if (stale >= nights.length) {
+                nights = new int[0];
+                return;
+            }
+            nights = Arrays.copyOfRange(nights, (int) stale, nights.length);
+            firstDay = floor;
+        }
+
+        // Grows the array so it spans [from, to), keeping existing counts in place.
+        private void cover(long from, long to) {
+            if (nights.length == 0) {
+                firstDay = from;
+                nights = new int[(int) (to - from) + GROWTH_SLACK];
+                return;
+            }
+            long lastDay = firstDay + nights.length;
+            if (from >= firstDay && to <= lastDay) return;
+            long newFirst = Math.min(firstDay, from);
+            long newLast = Math.max(lastDay, to + GROWTH_SLACK);
+            int[] grown = new int[(int) (newLast - newFirst)];
+            System.arraycopy(nights, 0, grown, (int) (firstDay - newFirst), nights.length);
+            firstDay = newFirst;
+            nights = grown;
+        }
+    }
+}
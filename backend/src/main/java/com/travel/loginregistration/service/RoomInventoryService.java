@@ -0,0 +1,66 @@
+package com.travel.loginregistration.service;
+
+import com.travel.loginregistration.repository.RoomInventoryRepository;
+import com.travel.loginregistration.repository.RoomInventoryRepository.NightState;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+
+/*
+    Durable oversell guard for room bookings, backed by the room_inventory table.
+    Each night is claimed with a version-checked conditional update inside the caller's booking transaction,
+    so two requests (or two backend nodes sharing the database) can't both take the last unit.
+    Nights are always claimed in ascending order, which keeps concurrent bookings from deadlocking each other.
+*/
+
+@Service
+public class RoomInventoryService {
+    // How many times a night is re-read and retried after losing a version race before giving up.
+    private static final int MAX_ATTEMPTS = 5;
+
+    private final RoomInventoryRepository inventoryRepository;
+
+    public RoomInventoryService(RoomInventoryRepository inventoryRepository) {
+        this.inventoryRepository = inventoryRepository;
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void reserve(UUID roomId, int capacity, LocalDate checkIn, LocalDate checkOut, int count) {
+        inventoryRepository.ensureNights(roomId, checkIn, checkOut);
+        Map<LocalDate, NightState> nights = new HashMap<>();
+        for (NightState n : inventoryRepository.findNights(roomId, checkIn, checkOut)) {
+            nights.put(n.getNight(), n);
+        }
+        for (LocalDate night = checkIn; night.isBefore(checkOut); night = night.plusDays(1)) {
+            reserveNight(roomId, capacity, night, count, nights.get(night));
+        }
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void release(UUID roomId, LocalDate checkIn, LocalDate checkOut, int count) {
+        inventoryRepository.releaseNights(roomId, checkIn, checkOut, count);
+    }
+
+    private void reserveNight(UUID roomId, int capacity, LocalDate night, int count, NightState state) {
+        for (int attempt = 0; attempt < MAX_ATTEMPTS; attempt++) {
+            if (state == null) {
+                state = inventoryRepository.findNights(roomId, night, night.plusDays(1)).stream().findFirst()
+                        .orElseThrow(() -> new IllegalStateException("Missing inventory row for " + roomId + " on " + night));
+            }
+            if (state.getBooked() + count > capacity) {
+                throw new IllegalArgumentException("INSUFFICIENT_ROOMS");
+            }
+            if (inventoryRepository.reserveNight(roomId, night, state.getVersion(), count, capacity) == 1) {
+                return;
+            }
+            // Someone else changed this night after we read it; re-read and try again.
+            state = null;
+        }
+        throw new IllegalArgumentException("ROOM_BUSY_TRY_AGAIN");
+    }
+}
@@ -0,0 +1,242 @@
+package com.travel.loginregistration.service;
+
+import com.travel.loginregistration.dto.SearchResult;
+import com.travel.loginregistration.model.Destination;
+import com.travel.loginregistration.model.Hotel;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+/*
+    Trigram inverted index over active destinations (name, region, tags) and their hotels (name, location).
+    Text is lowercased, stripped to letters/digits and split into words; each word is padded like pg_trgm
+    ("  cox ") and cut into 3-character grams, so misspellings still share most grams with the real name.
+    Every field (and every tag / comma-separated location part) is its own entry; a query scores an entry by
+    gram overlap and a document takes the best score of its entries.
+    Built with each CatalogSnapshot, so it is immutable and follows admin writes with the rest of the catalog.
+    Per-entry and per-document scoring arrays are per-thread scratch reused across queries (and indexes); a query
+    clears only the slots it touched, so its cost follows the matching entries rather than the index size.
+*/
+
+public final class SearchIndex {
+    public static final String DESTINATION = "DESTINATION";
+    public static final String HOTEL = "HOTEL";
+
+    private static final double MIN_SCORE = 0.3;
+    private static final double SECONDARY_WEIGHT = 0.8; // region, tags and hotel location rank below names
+    private static final Comparator<String> NAME_ORDER = Comparator.nullsLast(String.CASE_INSENSITIVE_ORDER);
+
+    private final List<SearchResult> docs = new ArrayList<>();
+    private final List<String> entryText = new ArrayList<>();
+    private int[] entryDoc = new int[64];
+    private int[] entryGrams = new int[64];
+    private double[] entryWeight = new double[64];
+    private final Map<Long, int[]> postings;
+
+    private static final ThreadLocal<Scratch> SCRATCH = ThreadLocal.withInitial(Scratch::new);
+
+    // Zeroed between queries; grown to the largest index this thread has searched.
+    private static final class Scratch {
+        int[] shared = new int[0];
+        double[] best = new double[0];
+        int[] touched = new int[16];
+        int[] top = new int[16];
+    }
+
+    private SearchIndex(List<Destination> destinations, Map<UUID, List<Hotel>> hotelsByDestination) {
+        Map<Long, List<Integer>> building = new HashMap<>();
+        for (Destination d : destinations) {
+            if (!d.isActive()) continue;
+            int doc = addDoc(DESTINATION, d.getId(), d.getName(), d.getRegion(), d.getId());
+            addEntry(building, doc, d.getName(), 1.0);
+            addEntry(building, doc, d.getRegion(), SECONDARY_WEIGHT);
+            if (d.getTags() != null) {
+                for (String tag : d.getTags().split("[,\u2022]")) addEntry(building, doc, tag, SECONDARY_WEIGHT);
+            }
+            for (Hotel h : hotelsByDestination.getOrDefault(d.getId(), List.of())) {
+                int hotelDoc = addDoc(HOTEL, h.getId(), h.getName(), h.getLocation(), d.getId());
+                addEntry(building, hotelDoc, h.getName(), 1.0);
+                addEntry(building, hotelDoc, h.getLocation(), SECONDARY_WEIGHT);
+                if (h.getLocation() != null && h.getLocation().indexOf(',') >= 0) {
+                    for (String part : h.getLocation().split(",")) addEntry(building, hotelDoc, part, SECONDARY_WEIGHT);
+                }
+            }
+        }
+        this.postings = new HashMap<>(building.size() * 2);
+        building.forEach((gram, entries) -> postings.put(gram, entries.stream().mapToInt(Integer::intValue).toArray()));
+    }
+
+    static SearchIndex build(List<Destination> destinations, Map<UUID, List<Hotel>> hotelsByDestination) {
+        return new SearchIndex(destinations, hotelsByDestination);
+    }
+
+    public int size() { return docs.size(); }
+
+    // Best matches first (ties by name); each result is a fresh copy the caller may keep.
+    public List<SearchResult> search(String query, Set<String> types, int limit) {
+        String needle = normalize(query);
+        if (needle.isEmpty() || limit <= 0) return List.of();
+        long[] queryGrams = grams(needle);
+        Scratch scratch = SCRATCH.get();
+        if (scratch.shared.length < entryText.size()) scratch.shared = new int[entryText.size()];
+        if (scratch.best.length < docs.size()) scratch.best = new double[docs.size()];
+        int[] shared = scratch.shared;
+        double[] best = scratch.best;
+        int[] touched = scratch.touched;
+        int touchedCount = 0;
+        try {
+            for (long gram : queryGrams) {
+                int[] entries = postings.get(gram);
+                if (entries == null) continue;
+                for (int e : entries) {
+                    if (shared[e]++ == 0) {
+                        if (touchedCount == touched.length) touched = scratch.touched = Arrays.copyOf(touched, touchedCount * 2);
+                        touched[touchedCount++] = e;
+                    }
+                }
+            }
+
+            int capacity = Math.min(limit, docs.size());
+            int[] top = scratch.top;
+            int topCount = 0;
+            for (int i = 0; i < touchedCount; i++) {
+                int e = touched[i];
+                double score = score(shared[e], queryGrams.length, entryGrams[e]) * entryWeight[e];
+                int doc = entryDoc[e];
+                if (score < MIN_SCORE || score <= best[doc]) continue;
+                if (types != null && !types.contains(docs.get(doc).type)) continue;
+                boolean ranked = best[doc] > 0;
+                best[doc] = score;
+                if (topCount == top.length && topCount < capacity) top = scratch.top = Arrays.copyOf(top, Math.min(capacity, topCount * 2));
+                topCount = offer(top, topCount, capacity, doc, ranked, best);
+            }
+
+            List<SearchResult> results = new ArrayList<>(topCount);
+            for (int i = 0; i < topCount; i++) results.add(copy(docs.get(top[i]), best[top[i]]));
+            return results;
+        } finally {
+            for (int i = 0; i < touchedCount; i++) {
+                shared[touched[i]] = 0;
+                best[entryDoc[touched[i]]] = 0;
+            }
+        }
+    }
+
+    // Average of trigram similarity (shared / union) and how much of the query the entry covers;
+    // the second part keeps long names ("Sea Pearl Beach Resort") reachable from a short query.
+    private static double score(int shared, int queryGrams, int entryGrams) {
+        double similarity = (double) shared / (queryGrams + entryGrams - shared);
+        double coverage = (double) shared / queryGrams;
+        return (similarity + coverage) / 2;
+    }
+
+    // Keeps top[0..count) sorted best-first with at most capacity docs; returns the new count.
+    private int offer(int[] top, int count, int capacity, int doc, boolean ranked, double[] best) {
+        int pos = -1;
+        if (ranked) {
+            for (int i = 0; i < count; i++) if (top[i] == doc) { pos = i; break; }
+        }
+        if (pos < 0) {
+            if (count < capacity) pos = count++;
+            else if (ahead(doc, top[count - 1], best)) pos = count - 1;
+            else return count;
+        }
+        while (pos > 0 && ahead(doc, top[pos - 1], best)) {
+            top[pos] = top[pos - 1];
+            pos--;
+        }
+        top[pos] = doc;
+        return count;
+    }
+
+    private boolean ahead(int a, int b, double[] best) {
+        if (best[a] != best[b]) return best[a] > best[b];
+        return NAME_ORDER.compare(docs.get(a).name, docs.get(b).name) < 0;
+    }
+
+    private int addDoc(String type, UUID id, String name, String subtitle, UUID destinationId) {
+        SearchResult r = new SearchResult();
+        r.type = type;
+        r.id = id;
+        r.name = name;
+        r.subtitle = subtitle;
+        r.destinationId = destinationId;
+        docs.add(r);
+        return docs.size() - 1;
+    }
+
+    private void addEntry(Map<Long, List<Integer>> building, int doc, String text, double weight) {
+        String norm = normalize(text);
+        if (norm.isEmpty()) return;
+        int e = entryText.size();
+        if (e == entryDoc.length) {
+            entryDoc = Arrays.copyOf(entryDoc, e * 2);
+            entryGrams = Arrays.copyOf(entryGrams, e * 2);
+            entryWeight = Arrays.copyOf(entryWeight, e * 2);
+        }
+        long[] grams = grams(norm);
+        entryText.add(norm);
+        entryDoc[e] = doc;
+        entryGrams[e] = grams.length;
+        entryWeight[e] = weight;
+        for (long g : grams) building.computeIfAbsent(g, k -> new ArrayList<>()).add(e);
+    }
+
+    // "Cox's Bazar!" -> "coxs bazar"
+    static String normalize(String text) {
+        if (text == null) return "";
+        StringBuilder sb = new StringBuilder(text.length());
+        boolean space = true;
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c == '\'' || c == '\u2019') continue;
+            if (Character.isLetterOrDigit(c)) {
+                sb.append(Character.toLowerCase(c));
+                space = false;
+            } else if (!space) {
+                sb.append(' ');
+                space = true;
+            }
+        }
+        int len = sb.length();
+        if (len > 0 && sb.charAt(len - 1) == ' ') sb.setLength(len - 1);
+        return sb.toString();
+    }
+
+    // Distinct padded trigrams of every word, each packed into a long (three 16-bit chars).
+    private static long[] grams(String norm) {
+        long[] out = new long[norm.length() * 2 + 4];
+        int n = 0;
+        for (String word : norm.split(" ")) {
+            String padded = "  " + word + " ";
+            for (int i = 0; i + 3 <= padded.length(); i++) {
+                if (n == out.length) out = Arrays.copyOf(out, n * 2);
+                out[n++] = ((long) padded.charAt(i) << 32) | ((long) padded.charAt(i + 1) << 16) | padded.charAt(i + 2);
+            }
+        }
+        long[] grams = Arrays.copyOf(out, n);
+        Arrays.sort(grams);
+        int distinct = 0;
+        for (int i = 0; i < grams.length; i++) {
+            if (i == 0 || grams[i] != grams[i - 1]) grams[distinct++] = grams[i];
+        }
+        return Arrays.copyOf(grams, distinct);
+    }
+
+    private static SearchResult copy(SearchResult doc, double score) {
+        SearchResult r = new SearchResult();
+        r.type = doc.type;
+        r.id = doc.id;
+        r.name = doc.name;
+        r.subtitle = doc.subtitle;
+        r.destinationId = doc.destinationId;
+        r.score = Math.round(score * 1000) / 1000.0;
+        return r;
+    }
+}
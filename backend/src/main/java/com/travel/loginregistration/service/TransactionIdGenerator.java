@@ -0,0 +1,44 @@
+package com.travel.loginregistration.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicLong;
+
+/*
+    Generates booking transaction ids in memory, Snowflake style, so booking never probes the database for collisions.
+    Layout of the 63-bit value: 41 bits of milliseconds since EPOCH | 12-bit sequence | 10-bit node id (app.txn.node-id).
+    Rendered as "TXN-" plus 13 upper-case base-36 digits, zero padded so ids sort in creation order.
+*/
+
+@Component
+public class TransactionIdGenerator {
+    private static final long EPOCH = Instant.parse("2024-01-01T00:00:00Z").toEpochMilli();
+    private static final int SEQUENCE_BITS = 12;
+    private static final int NODE_BITS = 10;
+    private static final long MAX_NODE = (1L << NODE_BITS) - 1;
+    private static final int WIDTH = Long.toString(Long.MAX_VALUE, 36).length();
+    public static final String PREFIX = "TXN-";
+
+    private final long nodeId;
+    // (millis since EPOCH << SEQUENCE_BITS) | sequence of the last id handed out.
+    private final AtomicLong last = new AtomicLong();
+
+    public TransactionIdGenerator(@Value("${app.txn.node-id:0}") long nodeId) {
+        if (nodeId < 0 || nodeId > MAX_NODE) {
+            throw new IllegalArgumentException("app.txn.node-id must be between 0 and " + MAX_NODE);
+        }
+        this.nodeId = nodeId;
+    }
+
+    public String next() {
+        long now = (System.currentTimeMillis() - EPOCH) << SEQUENCE_BITS;
+        // Next sequence in the current millisecond; a full sequence or a clock step back borrows the following millisecond.
+        long stamp = last.updateAndGet(prev -> Math.max(prev + 1, now));
+        long id = (stamp << NODE_BITS) | nodeId;
+        String digits = Long.toString(id, 36).toUpperCase(Locale.ROOT);
+        return PREFIX + "0".repeat(WIDTH - digits.length()) + digits;
+    }
+}
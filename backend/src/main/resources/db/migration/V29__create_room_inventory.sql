@@ -0,0 +1,19 @@
+-- Per-night booked counts per room, guarded by a version column so concurrent bookings
+-- (across threads or backend nodes) can never push a night past the room's capacity.
+CREATE TABLE IF NOT EXISTS room_inventory (
+    room_id UUID NOT NULL REFERENCES hotel_rooms(id) ON DELETE CASCADE,
+    night DATE NOT NULL,
+    booked INTEGER NOT NULL DEFAULT 0,
+    version BIGINT NOT NULL DEFAULT 0,
+    PRIMARY KEY (room_id, night),
+    CONSTRAINT ck_room_inventory_booked CHECK (booked >= 0)
+);
+
+-- Backfill from existing non-canceled stays (one row per booked night)
+INSERT INTO room_inventory (room_id, night, booked)
+SELECT b.room_id, CAST(d AS DATE), SUM(b.rooms_booked)
+FROM hotel_room_bookings b
+CROSS JOIN LATERAL generate_series(b.check_in, b.check_out - 1, INTERVAL '1 day') AS d
+WHERE b.status IS NULL OR UPPER(b.status) <> 'CANCELED'
+GROUP BY b.room_id, CAST(d AS DATE)
+ON CONFLICT DO NOTHING;
@@ -0,0 +1,19 @@
+-- Seat capacity per package (upper bound of group_size, e.g. "2-6 People" -> 6) and a running
+-- count of booked seats, so bookings can be admitted with one conditional update instead of a SUM.
+ALTER TABLE travel_packages
+    ADD COLUMN IF NOT EXISTS seat_capacity INTEGER,
+    ADD COLUMN IF NOT EXISTS seats_booked INTEGER NOT NULL DEFAULT 0;
+
+UPDATE travel_packages
+SET seat_capacity = COALESCE(
+        CAST((regexp_match(group_size, '(\d+)\D+(\d+)'))[2] AS INTEGER),
+        CAST((regexp_match(group_size, '(\d+)'))[1] AS INTEGER))
+WHERE group_size IS NOT NULL;
+
+UPDATE travel_packages p
+SET seats_booked = COALESCE((
+    SELECT SUM(b.total_persons)
+    FROM bookings b
+    WHERE b.package_id = p.id AND (b.status IS NULL OR UPPER(b.status) <> 'CANCELED')
+), 0);
+
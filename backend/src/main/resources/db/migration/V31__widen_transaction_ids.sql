@@ -0,0 +1,3 @@
+-- Transaction ids are now generated as "TXN-" + 13 base-36 digits (TransactionIdGenerator); existing 6-digit ids stay valid.
+ALTER TABLE bookings ALTER COLUMN transaction_id TYPE varchar(32);
+ALTER TABLE hotel_room_bookings ALTER COLUMN transaction_id TYPE varchar(32);
@@ -0,0 +1,19 @@
+-- Facilities and nearby places pre-split into arrays at save time, so hotel cards and details
+-- no longer split the free-text columns on every request. The text columns stay as the admin's input.
+ALTER TABLE hotels
+    ADD COLUMN IF NOT EXISTS facilities_list TEXT[],
+    ADD COLUMN IF NOT EXISTS nearby_list TEXT[];
+
+-- Same rules as HotelAttributes: facilities are comma-separated; nearby places are period-separated
+-- sentences, dropping numeric-only fragments left over from decimals like "0.5 km".
+UPDATE hotels h
+SET facilities_list = COALESCE(ARRAY(
+        SELECT btrim(part)
+        FROM unnest(string_to_array(h.facilities, ',')) WITH ORDINALITY AS t(part, n)
+        WHERE btrim(part) <> ''
+        ORDER BY n), ARRAY[]::TEXT[]),
+    nearby_list = COALESCE(ARRAY(
+        SELECT btrim(part)
+        FROM unnest(string_to_array(h.nearby, '.')) WITH ORDINALITY AS t(part, n)
+        WHERE btrim(part) <> '' AND btrim(part) !~ '^\d+$'
+        ORDER BY n), ARRAY[]::TEXT[]);
@@ -0,0 +1,6 @@
+-- Admin booking listings page newest-first on (created_at, id); these indexes let each page start
+-- at the cursor and read only `limit` rows. The *_room / *_package variants serve the destination filter.
+CREATE INDEX IF NOT EXISTS ix_bookings_created_id ON bookings(created_at DESC, id DESC);
+CREATE INDEX IF NOT EXISTS ix_bookings_package_created_id ON bookings(package_id, created_at DESC, id DESC);
+CREATE INDEX IF NOT EXISTS idx_room_bookings_created_id ON hotel_room_bookings(created_at DESC, id DESC);
+CREATE INDEX IF NOT EXISTS idx_room_bookings_room_created_id ON hotel_room_bookings(room_id, created_at DESC, id DESC);
@@ -0,0 +1,20 @@
+-- Last change time of each booking (insert or cancel), so clients can poll /api/history/changes
+-- for rows newer than their cursor instead of refetching their whole history.
+ALTER TABLE bookings ADD COLUMN IF NOT EXISTS updated_at TIMESTAMPTZ;
+ALTER TABLE hotel_room_bookings ADD COLUMN IF NOT EXISTS updated_at TIMESTAMPTZ;
+
+UPDATE bookings SET updated_at = GREATEST(created_at, canceled_at) WHERE updated_at IS NULL;
+UPDATE hotel_room_bookings SET updated_at = GREATEST(created_at, canceled_at) WHERE updated_at IS NULL;
+
+ALTER TABLE bookings ALTER COLUMN updated_at SET DEFAULT NOW();
+ALTER TABLE bookings ALTER COLUMN updated_at SET NOT NULL;
+ALTER TABLE hotel_room_bookings ALTER COLUMN updated_at SET DEFAULT NOW();
+ALTER TABLE hotel_room_bookings ALTER COLUMN updated_at SET NOT NULL;
+
+-- Both the full history and the delta match a user by id OR email; with an (owner, updated_at) index on each
+-- side PostgreSQL answers the OR with a BitmapOr of two index scans instead of a sequential scan. The leading
+-- owner column also serves the full history, so no single-column owner indexes are needed.
+CREATE INDEX IF NOT EXISTS idx_room_bookings_user_updated ON hotel_room_bookings(user_id, updated_at);
+CREATE INDEX IF NOT EXISTS idx_room_bookings_email_updated ON hotel_room_bookings(user_email, updated_at);
+CREATE INDEX IF NOT EXISTS ix_bookings_user_updated ON bookings(user_id, updated_at);
+CREATE INDEX IF NOT EXISTS ix_bookings_email_updated ON bookings(user_email, updated_at);
@@ -0,0 +1,139 @@
+package com.travel.loginregistration.controller;
+
+import com.travel.loginregistration.dto.BookingPage;
+import com.travel.loginregistration.dto.RoomBookingAdminView;
+import com.travel.loginregistration.model.HotelRoomBooking;
+import com.travel.loginregistration.repository.HotelRoomBookingRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.domain.EntityScan;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/*
+    The admin room booking listings must cost one query however many bookings they return:
+    names and the account email come from joins, never from per-row lookups.
+*/
+
+@DataJpaTest(properties = {
+        "spring.flyway.enabled=false",
+        "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.hibernate.ddl-auto=none",
+        "spring.sql.init.schema-locations=classpath:db/test/admin-room-bookings.sql",
+        "spring.jpa.properties.hibernate.generate_statistics=true"
+})
+class AdminRoomBookingControllerQueryCountTest {
+
+    // The application class adds its own @ComponentScan, which would pull every bean into this JPA slice.
+    @Configuration
+    @EnableJpaRepositories(basePackageClasses = HotelRoomBookingRepository.class)
+    @EntityScan(basePackageClasses = HotelRoomBooking.class)
+    static class JpaOnly { }
+
+    @Autowired
+    private HotelRoomBookingRepository bookingRepository;
+
+    @Autowired
+    private JdbcTemplate jdbc;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private AdminRoomBookingController controller;
+    private Statistics statistics;
+    private UUID hotelId;
+    private int seeded;
+
+    @BeforeEach
+    void setUp() {
+        // Only the booking repository is used by the listings under test.
+        controller = new AdminRoomBookingController(bookingRepository, null, null, null, null);
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+
+        UUID destinationId = UUID.randomUUID();
+        jdbc.update("INSERT INTO travel_destinations (id, name, region) VALUES (?, 'Cox''s Bazar', 'Chattogram')", destinationId);
+        hotelId = UUID.randomUUID();
+        jdbc.update("INSERT INTO hotels (id, destination_id, name) VALUES (?, ?, 'Sea Pearl')", hotelId, destinationId);
+    }
+
+    @Test
+    void roomBookingsUseOneQueryForOneOrManyRows() {
+        UUID oneRoom = roomWithBookings(1);
+        UUID busyRoom = roomWithBookings(40);
+
+        List<RoomBookingAdminView> one = count(() -> controller.bookings(oneRoom).getBody());
+        long queriesForOne = statistics.getPrepareStatementCount();
+        List<RoomBookingAdminView> many = count(() -> controller.bookings(busyRoom).getBody());
+        long queriesForMany = statistics.getPrepareStatementCount();
+
+        assertEquals(1, one.size());
+        assertEquals(40, many.size());
+        assertEquals(1, queriesForOne);
+        assertEquals(queriesForOne, queriesForMany);
+
+        RoomBookingAdminView view = many.get(0);
+        assertEquals("Deluxe", view.roomName);
+        assertEquals("Sea Pearl", view.hotelName);
+        assertEquals("Cox's Bazar", view.destinationName);
+        // Bookings made without an email fall back to the account's.
+        assertEquals(busyRoom + "@example.com", view.userEmail);
+    }
+
+    @Test
+    void adminPageUsesOneQueryWhateverItsSize() {
+        roomWithBookings(3);
+        roomWithBookings(60);
+
+        BookingPage<RoomBookingAdminView> small = count(() -> controller.allBookings(null, 2, null, null, null, null).getBody());
+        long queriesForSmall = statistics.getPrepareStatementCount();
+        BookingPage<RoomBookingAdminView> large = count(() -> controller.allBookings(null, 60, null, null, null, null).getBody());
+        long queriesForLarge = statistics.getPrepareStatementCount();
+
+        assertEquals(2, small.items.size());
+        assertEquals(60, large.items.size());
+        assertEquals(1, queriesForSmall);
+        assertEquals(queriesForSmall, queriesForLarge);
+    }
+
+    // Runs the call with freshly reset statistics, so getPrepareStatementCount() afterwards covers just this call.
+    private <T> T count(Supplier<T> call) {
+        statistics.clear();
+        return call.get();
+    }
+
+    // A room whose bookings all belong to one account, <room id>@example.com, and carry no email of their own.
+    private UUID roomWithBookings(int bookings) {
+        UUID roomId = UUID.randomUUID();
+        UUID userId = UUID.randomUUID();
+        jdbc.update("INSERT INTO app_users (id, email, username) VALUES (?, ?, 'guest')", userId, roomId + "@example.com");
+        jdbc.update("INSERT INTO hotel_rooms (id, hotel_id, name) VALUES (?, ?, 'Deluxe')", roomId, hotelId);
+        LocalDate checkIn = LocalDate.of(2030, 1, 1);
+        for (int i = 0; i < bookings; i++) {
+            seeded++;
+            jdbc.update("INSERT INTO hotel_room_bookings (id, room_id, check_in, check_out, rooms_booked, created_at, "
+                            + "total_guests, total_price, user_id, user_email, customer_name, transaction_id, status) "
+                            + "VALUES (?, ?, ?, ?, 1, ?, 2, ?, ?, '', 'Guest', ?, 'CONFIRMED')",
+                    UUID.randomUUID(), roomId, Date.valueOf(checkIn.plusDays(i)), Date.valueOf(checkIn.plusDays(i + 1)),
+                    Timestamp.from(Instant.parse("2029-06-01T00:00:00Z").plusSeconds(seeded)),
+                    new BigDecimal("120.00"), userId, "TXN-" + seeded);
+        }
+        return roomId;
+    }
+}
@@ -0,0 +1,54 @@
+-- The tables and columns the admin room booking listing reads, in H2 types (the Flyway migrations are PostgreSQL-only).
+CREATE TABLE app_users (
+    id UUID PRIMARY KEY,
+    email VARCHAR(255),
+    username VARCHAR(255),
+    password_hash VARCHAR(255),
+    location VARCHAR(255)
+);
+
+CREATE TABLE travel_destinations (
+    id UUID PRIMARY KEY,
+    name VARCHAR(255) NOT NULL,
+    region VARCHAR(255) NOT NULL,
+    tags VARCHAR(255),
+    best_season VARCHAR(255),
+    image_url VARCHAR(255),
+    active BOOLEAN NOT NULL DEFAULT TRUE
+);
+
+CREATE TABLE hotels (
+    id UUID PRIMARY KEY,
+    destination_id UUID,
+    name VARCHAR(255)
+);
+
+CREATE TABLE hotel_rooms (
+    id UUID PRIMARY KEY,
+    hotel_id UUID,
+    name VARCHAR(255)
+);
+
+CREATE TABLE hotel_room_bookings (
+    id UUID PRIMARY KEY,
+    room_id UUID,
+    check_in DATE,
+    check_out DATE,
+    rooms_booked INT,
+    created_at TIMESTAMP WITH TIME ZONE,
+    total_guests INT,
+    total_price DECIMAL(12, 2),
+    user_id UUID,
+    hotel_name VARCHAR(255),
+    room_name VARCHAR(255),
+    customer_name VARCHAR(255),
+    id_type VARCHAR(255),
+    id_number VARCHAR(255),
+    user_email VARCHAR(255),
+    transaction_id VARCHAR(255) NOT NULL UNIQUE,
+    card_last4 VARCHAR(4),
+    status VARCHAR(32),
+    canceled_at TIMESTAMP WITH TIME ZONE,
+    canceled_by VARCHAR(32),
+    updated_at TIMESTAMP WITH TIME ZONE
+);
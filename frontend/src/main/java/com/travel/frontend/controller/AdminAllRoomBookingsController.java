@@ -1,11 +1,15 @@
 package com.travel.frontend.controller;
 
+import com.travel.frontend.model.BookingPage;
 import com.travel.frontend.model.RoomBookingAdminView;
 import com.travel.frontend.net.ApiClient;
 import com.travel.frontend.ui.Navigator;
 import javafx.application.Platform;
 import javafx.fxml.FXML;
+import javafx.geometry.Orientation;
+import javafx.scene.Node;
 import javafx.scene.control.Label;
+import javafx.scene.control.ScrollBar;
 import javafx.scene.control.TableColumn;
 import javafx.scene.control.TableView;
 import javafx.scene.control.TableRow;
@@ -14,6 +18,7 @@ import javafx.scene.control.cell.PropertyValueFactory;
 
 import java.time.Instant;
 import java.time.LocalDate;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Locale;
 import java.util.stream.Collectors;
@@ -38,6 +43,13 @@ public class AdminAllRoomBookingsController {
 
     private final ApiClient api = ApiClient.get();
     private List<RoomBookingAdminView> all;
+    private String nextCursor;
+    private boolean loading;
+    private int loadToken;
+    private ScrollBar vbar;
+    // Pages fetched in a row only because the filtered rows did not fill the table; capped so a rare search stops.
+    private int fillPages;
+    private static final int MAX_FILL_PAGES = 10;
 
     @FXML
     private void initialize() {
@@ -94,8 +106,19 @@ public class AdminAllRoomBookingsController {
             });
         }
         if (searchField != null) {
-            searchField.textProperty().addListener((obs, o, n) -> render());
+            searchField.textProperty().addListener((obs, o, n) -> {
+                render();
+                fillPages = 0;
+                fillIfShort();
+                showLoaded();
+            });
+            // Enter searches the next page of older bookings even once the automatic filling has stopped.
+            searchField.setOnAction(e -> {
+                fillPages = 0;
+                loadPage(false);
+            });
         }
+        if (table != null) watchScroll();
         loadData();
     }
 
@@ -104,24 +127,95 @@ public class AdminAllRoomBookingsController {
     @FXML private void onReload() { loadData(); }
 
     private void loadData() {
-        status("Loading...");
+        fillPages = 0;
+        loadPage(true);
+    }
+
+    /* Bookings come newest-first in pages; reset fetches the first page again,
+       otherwise the page after the rows already loaded is appended. */
+    private void loadPage(boolean reset) {
+        if (!reset && (loading || nextCursor == null)) return;
+        final int token = ++loadToken;
+        final String cursor = reset ? null : nextCursor;
+        loading = true;
+        status(reset ? "Loading..." : "Loading more...");
         new Thread(() -> {
             try {
-                List<RoomBookingAdminView> list = api.getAllRoomBookings();
+                BookingPage<RoomBookingAdminView> page = api.getRoomBookingsPage(cursor);
                 Platform.runLater(() -> {
-                    all = list;
-                    render();
-                    status("Loaded " + (list == null ? 0 : list.size()));
+                    if (token != loadToken) return;
+                    loading = false;
+                    List<RoomBookingAdminView> items = page.items == null ? List.of() : page.items;
+                    nextCursor = page.nextCursor;
+                    if (reset || all == null) {
+                        all = new ArrayList<>(items);
+                        render();
+                    } else {
+                        all.addAll(items);
+                        String q = query();
+                        table.getItems().addAll(items.stream().filter(b -> matches(b, q)).collect(Collectors.toList()));
+                    }
+                    showLoaded();
+                    fillIfShort();
                 });
             } catch (Exception e) {
-                Platform.runLater(() -> status("Error: " + e.getMessage()));
+                Platform.runLater(() -> {
+                    if (token != loadToken) return;
+                    loading = false;
+                    status("Error: " + e.getMessage());
+                });
             }
         }).start();
     }
 
+    // Fetches the next page when the table is scrolled to the bottom.
+    private void watchScroll() {
+        table.skinProperty().addListener((obs, o, skin) -> {
+            for (Node n : table.lookupAll(".scroll-bar")) {
+                if (n instanceof ScrollBar bar && bar.getOrientation() == Orientation.VERTICAL) {
+                    vbar = bar;
+                    bar.valueProperty().addListener((o2, ov, v) -> {
+                        if (v.doubleValue() >= bar.getMax() * 0.95) {
+                            fillPages = 0;
+                            loadPage(false);
+                        }
+                    });
+                }
+            }
+        });
+    }
+
+    /* A table that the (filtered) rows do not fill has no scroll bar to reach the bottom of, so keep fetching
+       pages until it does, the listing ends, or MAX_FILL_PAGES pages in a row were fetched this way. */
+    private void fillIfShort() {
+        if (table == null || loading || nextCursor == null || fillPages >= MAX_FILL_PAGES) return;
+        table.layout();
+        if (vbar != null && vbar.isVisible()) return;
+        fillPages++;
+        loadPage(false);
+    }
+
+    // The search only covers rows loaded so far; say so while older bookings are still on the server.
+    private void showLoaded() {
+        if (loading || all == null) return;
+        String q = query();
+        if (q.isBlank()) {
+            status("Loaded " + all.size() + (nextCursor != null ? " (scroll for more)" : ""));
+        } else if (nextCursor != null) {
+            status(table.getItems().size() + " matches in the newest " + all.size()
+                    + " bookings; older bookings are not searched yet (press Enter to search further)");
+        } else {
+            status(table.getItems().size() + " matches in all " + all.size() + " bookings");
+        }
+    }
+
+    private String query() {
+        return searchField == null || searchField.getText() == null ? "" : searchField.getText().trim().toLowerCase(Locale.ROOT);
+    }
+
     private void render() {
         if (table == null) return;
-        String q = searchField == null || searchField.getText() == null ? "" : searchField.getText().trim().toLowerCase(Locale.ROOT);
+        String q = query();
         List<RoomBookingAdminView> filtered = all == null ? List.of() : all.stream()
                 .filter(b -> matches(b, q))
                 .collect(Collectors.toList());
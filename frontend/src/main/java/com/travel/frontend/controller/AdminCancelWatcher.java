@@ -7,6 +7,8 @@ import com.travel.frontend.model.HistoryResponse;
 import com.travel.frontend.model.HistoryRoomItem;
 import com.travel.frontend.model.Profile;
 import com.travel.frontend.net.ApiClient;
+import com.travel.frontend.net.ApiClient.ApiException;
+import com.travel.frontend.session.Session;
 import com.travel.frontend.ui.Navigator;
 import javafx.application.Platform;
 import javafx.scene.layout.Pane;
@@ -18,16 +20,23 @@ import java.nio.file.Paths;
 import java.time.Instant;
 import java.util.ArrayList;
 import java.util.Comparator;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Objects;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Stream;
 
 /**
  * Global watcher that surfaces admin-driven cancellations as modals on
  * whatever screen the user is currently on. It runs once per app launch,
- * then keeps polling periodically without blocking the UI thread.
+ * then listens on the server's event stream without blocking the UI thread.
+ * The stream only carries changes made on the node it is connected to, so a
+ * slow poll keeps running alongside it; while it is disconnected the poll
+ * speeds up.
  */
 public final class AdminCancelWatcher {
     private static final ApiClient api = ApiClient.get();
@@ -37,7 +46,18 @@ public final class AdminCancelWatcher {
         return t;
     });
     private static final AtomicBoolean STARTED = new AtomicBoolean(false);
-    private static final AtomicBoolean RUNNING = new AtomicBoolean(false);
+    private static final long POLL_SECONDS = 30;
+    private static final long STREAM_POLL_SECONDS = 300; // catches cancels made through other backend nodes
+    private static final long STALE_MS = 60_000; // three missed heartbeats
+    private static ScheduledFuture<?> polling;
+    private static long pollSeconds;
+    private static volatile Stream<String> openStream;
+    private static volatile long lastLine;
+    private static volatile String lastEventId;
+    private static volatile String lastEventFor;
+    // History as of the last poll and whose it is; later polls only fetch what changed after its cursor.
+    private static volatile HistoryResponse known;
+    private static volatile String knownFor;
 
     private AdminCancelWatcher() {}
 
@@ -52,22 +72,93 @@ public final class AdminCancelWatcher {
             Profile prof = p != null ? p : DataCache.getOrLoad("myProfile", api::getMyProfile);
             if (prof == null) return;
             checkOnce(prof);
+            Thread listener = new Thread(() -> listen(prof), "cancel-events");
+            listener.setDaemon(true);
+            listener.start();
+            // A half-open connection never errors; if even heartbeats stop arriving, drop it so listen() reconnects.
             POLLER.scheduleAtFixedRate(() -> {
-                if (!RUNNING.compareAndSet(false, true)) return;
-                try {
+                Stream<String> s = openStream;
+                if (s != null && System.currentTimeMillis() - lastLine > STALE_MS) s.close();
+            }, STALE_MS, STALE_MS / 2, TimeUnit.MILLISECONDS);
+        } catch (Exception ignored) { }
+    }
+
+    /* Push first: while /events/stream is open the poll only runs every five minutes. When the
+       stream drops, the 30s poll resumes until it reconnects, retrying with backoff from 2s up to a minute. */
+    private static void listen(Profile prof) {
+        long backoff = 2_000;
+        while (true) {
+            try {
+                String user = Session.getEmail();
+                if (Session.isAuthenticated() && !AdminSession.isAuthenticated()) {
+                    // Event ids belong to one user's stream; don't replay from someone else's.
+                    if (!Objects.equals(user, lastEventFor)) lastEventId = null;
+                    Stream<String> lines = api.openEventStream(lastEventId).body();
+                    lastEventFor = user;
+                    poll(prof, STREAM_POLL_SECONDS);
+                    backoff = 2_000;
+                    // Anything that changed while we were not connected (or before the first connect).
                     checkOnce(prof);
-                } finally {
-                    RUNNING.set(false);
+                    read(lines, prof, user);
                 }
-            }, 15, 30, TimeUnit.SECONDS);
-        } catch (Exception ignored) { }
+            } catch (Exception ignored) { }
+            openStream = null;
+            poll(prof, POLL_SECONDS);
+            try {
+                Thread.sleep(backoff);
+            } catch (InterruptedException e) {
+                return;
+            }
+            backoff = Math.min(backoff * 2, 60_000);
+        }
     }
 
-    private static void checkOnce(Profile p) {
+    private static void read(Stream<String> lines, Profile prof, String user) {
+        openStream = lines;
+        lastLine = System.currentTimeMillis();
+        String event = null;
+        String id = null;
+        try (lines) {
+            Iterator<String> it = lines.iterator();
+            while (it.hasNext()) {
+                String line = it.next();
+                lastLine = System.currentTimeMillis();
+                // Signed out or switched user: this stream is someone else's now, reconnect as the new one.
+                if (!Objects.equals(user, Session.getEmail())) return;
+                if (line.isEmpty()) {
+                    // Blank line ends an event. The payload is not needed: the delta fetch picks up the change.
+                    if (id != null) lastEventId = id;
+                    if (event != null) checkOnce(prof);
+                    event = null;
+                    id = null;
+                    continue;
+                }
+                if (line.startsWith(":")) continue; // heartbeat
+                int colon = line.indexOf(':');
+                String field = colon < 0 ? line : line.substring(0, colon);
+                String value = colon < 0 ? "" : line.substring(colon + 1);
+                if (value.startsWith(" ")) value = value.substring(1);
+                if ("event".equals(field)) event = value;
+                else if ("id".equals(field)) id = value;
+            }
+        }
+    }
+
+    // (Re)schedules the poll every `seconds`; a no-op if it already runs at that rate.
+    private static synchronized void poll(Profile prof, long seconds) {
+        if (polling != null && pollSeconds == seconds) return;
+        if (polling != null) polling.cancel(false);
+        pollSeconds = seconds;
+        polling = POLLER.scheduleAtFixedRate(() -> checkOnce(prof), seconds, seconds, TimeUnit.SECONDS);
+    }
+
+    // Called from the poller and the event thread; one check at a time keeps `known` and the notices consistent.
+    private static synchronized void checkOnce(Profile p) {
         try {
             if (AdminSession.isAuthenticated()) return;
-            HistoryResponse history = api.getHistory();
-            String key = "cancelSeen:" + (p.email == null ? "anon" : p.email.toLowerCase());
+            HistoryResponse history = sync();
+            String email = Session.getEmail() != null ? Session.getEmail() : p.email;
+            String key = "cancelSeen:" + (email == null ? "anon" : email.toLowerCase());
             Instant seen = loadSeen(key);
             List<AdminCancel> queue = collectAdminCancels(history, seen);
             if (queue.isEmpty()) return;
@@ -82,6 +173,31 @@ public final class AdminCancelWatcher {
         } catch (Exception ignored) { }
     }
 
+    private static HistoryResponse sync() throws ApiException {
+        String who = Session.getEmail();
+        // Someone else signed in since the last poll: their history starts from scratch.
+        HistoryResponse current = Objects.equals(who, knownFor) ? known : null;
+        if (current == null || current.cursor == null) {
+            return reload(who);
+        }
+        HistoryResponse changes;
+        try {
+            changes = api.getHistoryChanges(current.cursor);
+        } catch (ApiException e) {
+            // Cursor rejected (e.g. server upgraded): start over from the full history.
+            return reload(who);
+        }
+        if (changes.isEmpty() && Objects.equals(changes.cursor, current.cursor)) return current;
+        known = current.merge(changes);
+        return known;
+    }
+
+    private static HistoryResponse reload(String who) throws ApiException {
+        known = api.getHistory();
+        knownFor = who;
+        return known;
+    }
+
     private record AdminCancel(boolean isPackage, HistoryPackageItem pkg, HistoryRoomItem room, Instant canceledAt) { }
 
     private static List<AdminCancel> collectAdminCancels(HistoryResponse history, Instant seen) {
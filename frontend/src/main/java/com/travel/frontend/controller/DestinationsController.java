@@ -1,7 +1,6 @@
 package com.travel.frontend.controller;
 
 import com.fasterxml.jackson.core.type.TypeReference;
-import com.fasterxml.jackson.databind.ObjectMapper;
 import com.travel.frontend.cache.DataCache;
 import com.travel.frontend.cache.FileCache;
 import com.travel.frontend.net.ApiClient;
@@ -49,7 +48,6 @@ public class DestinationsController {
     @FXML private Circle orbC;
 
     private final ApiClient api = ApiClient.get();
-    private final ObjectMapper mapper = new ObjectMapper();
     private final List<DestinationCard> allItems = new ArrayList<>();
     private Timeline searchGlow;
     private Timeline searchBorderPulse;
@@ -108,11 +106,8 @@ public class DestinationsController {
                             new TypeReference<List<DestinationCard>>() {},
                             () -> {
                                 try {
-                                    var res = api.rawGet("/destinations", true);
-                                    if (res.statusCode() != 200) {
-                                        throw new ApiClient.ApiException("Failed to load destinations");
-                                    }
-                                    holder[0] = mapper.readValue(res.body(), new TypeReference<List<DestinationCard>>() {});
+                                    holder[0] = api.getJson("/destinations", true,
+                                            new TypeReference<List<DestinationCard>>() {}, "Failed to load destinations");
                                     return holder[0];
                                 } catch (Exception ex) {
                                     throw new RuntimeException(ex);
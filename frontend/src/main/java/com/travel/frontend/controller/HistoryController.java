@@ -94,6 +94,7 @@ public class HistoryController {
     private HistoryResponse loaded;
     private static HistoryResponse cached;
     private static Instant cachedAt;
+    private static String cachedFor;
     private static boolean dirty = true;
 
     @FXML
@@ -147,20 +148,21 @@ public class HistoryController {
         closeCancelFlow();
         resetDetailPane();
         Instant now = Instant.now();
-        if (!force && !dirty && cached != null && cachedAt != null &&
+        String owner = com.travel.frontend.session.Session.getEmail();
+        // Deltas only make sense on top of this user's own history.
+        HistoryResponse base = owner != null && owner.equalsIgnoreCase(cachedFor) ? cached : null;
+        if (!force && !dirty && base != null && cachedAt != null &&
                 java.time.Duration.between(cachedAt, now).toMinutes() < 45) {
-            loaded = cached;
+            loaded = base;
             renderFiltered();
             return;
         }
         new Thread(() -> {
             try {
-                var res = api.rawGet("/history", true);
-                if (res.statusCode() != 200)
-                    throw new RuntimeException("HTTP " + res.statusCode());
-                HistoryResponse data = mapper.readValue(res.body(), HistoryResponse.class);
+                HistoryResponse data = fetch(base);
                 Platform.runLater(() -> {
                     cached = data;
+                    cachedFor = owner;
                     cachedAt = Instant.now();
                     dirty = false;
                     loaded = data;
@@ -175,6 +177,23 @@ public class HistoryController {
         }).start();
     }
 
+    /* With a cached history only the bookings changed since its cursor are
+       fetched and merged in; the full list is loaded on first use or if the
+       server no longer accepts the cursor. */
+    private HistoryResponse fetch(HistoryResponse base) throws Exception {
+        if (base != null && base.cursor != null) {
+            try {
+                return base.merge(api.getHistoryChanges(base.cursor));
+            } catch (ApiClient.ApiException ignored) {
+                // fall through to a full reload
+            }
+        }
+        var res = api.rawGet("/history", true);
+        if (res.statusCode() != 200)
+            throw new RuntimeException("HTTP " + res.statusCode());
+        return mapper.readValue(res.body(), HistoryResponse.class);
+    }
+
     private void resetDetailPane() {
         detailHolder.getChildren().clear();
         detailHolder.setVisible(false);
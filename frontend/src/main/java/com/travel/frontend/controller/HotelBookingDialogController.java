@@ -2,6 +2,8 @@ package com.travel.frontend.controller;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.travel.frontend.cache.DataCache;
+import com.travel.frontend.model.HotelCalendar;
 import com.travel.frontend.net.ApiClient;
 import com.travel.frontend.model.RoomBookingResponse;
 import javafx.animation.Interpolator;
@@ -15,8 +17,11 @@ import javafx.fxml.FXMLLoader;
 import javafx.scene.Parent;
 import javafx.scene.Scene;
 import javafx.scene.control.Button;
+import javafx.scene.control.DateCell;
+import javafx.scene.control.DatePicker;
 import javafx.scene.control.Label;
 import javafx.scene.control.TextField;
+import javafx.scene.control.Tooltip;
 import javafx.scene.input.Clipboard;
 import javafx.scene.input.ClipboardContent;
 import javafx.scene.layout.BorderPane;
@@ -43,8 +48,8 @@ import java.util.UUID;
 
 import static com.travel.frontend.controller.HistoryController.markDirty;
 public class HotelBookingDialogController {
-    @FXML private Label checkInLabel;
-    @FXML private Label checkOutLabel;
+    @FXML private DatePicker checkInPicker;
+    @FXML private DatePicker checkOutPicker;
     @FXML private Label guestsLabel;
     @FXML private Label totalPriceLabel;
     @FXML private TextField nameField;
@@ -68,6 +73,11 @@ public class HotelBookingDialogController {
     private List<RoomSelection> selections = new ArrayList<>();
     private Runnable onSuccess;
     private com.travel.frontend.model.Profile profile;
+    // Remaining units per room per night for this hotel; null until it has loaded (or if it failed to).
+    private HotelCalendar calendar;
+    // Same limits as the search screen: check-in within 30 days of tomorrow, stays of at most 14 nights.
+    private static final int MAX_CHECK_IN_DAYS = 30;
+    private static final int MAX_NIGHTS = 14;
 
     public record RoomSelection(UUID roomId, String name, int count, BigDecimal totalPrice) {}
 
@@ -112,8 +122,12 @@ public class HotelBookingDialogController {
         this.selections = selections == null ? List.of() : selections;
         this.onSuccess = onSuccess;
 
-        checkInLabel.setText(checkIn == null ? "-" : checkIn.toString());
-        checkOutLabel.setText(checkOut == null ? "-" : checkOut.toString());
+        checkInPicker.setValue(checkIn);
+        checkOutPicker.setValue(checkOut);
+        checkInPicker.valueProperty().addListener((obs, old, val) -> onCheckInChanged(val));
+        checkOutPicker.valueProperty().addListener((obs, old, val) -> onCheckOutChanged(val));
+        refreshDayCells();
+        loadCalendar();
         guestsLabel.setText(guests + (guests == 1 ? " adult" : " guests"));
         totalPriceLabel.setText("BDT " + this.totalPrice);
         if (payButton != null) {
@@ -145,9 +159,106 @@ public class HotelBookingDialogController {
         }
     }
 
+    private void onCheckInChanged(LocalDate val) {
+        if (val == null) {
+            checkInPicker.setValue(checkIn);
+            return;
+        }
+        checkIn = val;
+        if (checkOut == null || !checkOut.isAfter(val) || checkOut.isAfter(val.plusDays(MAX_NIGHTS))
+                || firstSoldOutNight(val, checkOut) != null) {
+            checkOutPicker.setValue(val.plusDays(1));
+        }
+        refreshDayCells();
+        DataCache.put("hotel:checkIn", checkIn);
+        showSoldOutStatus();
+    }
+
+    private void onCheckOutChanged(LocalDate val) {
+        if (val == null) {
+            checkOutPicker.setValue(checkOut);
+            return;
+        }
+        checkOut = val;
+        DataCache.put("hotel:checkOut", checkOut);
+        showSoldOutStatus();
+    }
+
+    // Fetches the hotel's calendar in the background; the pickers work without it, just without greying.
+    private void loadCalendar() {
+        if (hotelId == null) return;
+        LocalDate from = LocalDate.now().plusDays(1);
+        LocalDate to = from.plusDays(MAX_CHECK_IN_DAYS + MAX_NIGHTS + 1);
+        new Thread(() -> {
+            try {
+                HotelCalendar loaded = api.getHotelCalendar(hotelId, from, to);
+                Platform.runLater(() -> {
+                    calendar = loaded;
+                    refreshDayCells();
+                    showSoldOutStatus();
+                });
+            } catch (Exception ignore) { }
+        }).start();
+    }
+
+    private void refreshDayCells() {
+        LocalDate minCheckIn = LocalDate.now().plusDays(1);
+        LocalDate maxCheckIn = minCheckIn.plusDays(MAX_CHECK_IN_DAYS);
+        checkInPicker.setDayCellFactory(p -> dayCell(minCheckIn, maxCheckIn, false));
+        LocalDate in = checkIn == null ? minCheckIn : checkIn;
+        checkOutPicker.setDayCellFactory(p -> dayCell(in.plusDays(1), in.plusDays(MAX_NIGHTS), true));
+    }
+
+    /* Disables days outside the allowed range and greys out nights the selected rooms are sold out on.
+       A check-in is unavailable when its first night is sold out; a check-out when any night before it is. */
+    private DateCell dayCell(LocalDate minDate, LocalDate maxDate, boolean checkout) {
+        return new DateCell() {
+            @Override
+            public void updateItem(LocalDate item, boolean empty) {
+                super.updateItem(item, empty);
+                boolean outside = empty || item.isBefore(minDate) || item.isAfter(maxDate);
+                boolean soldOut = !outside && (checkout
+                        ? firstSoldOutNight(checkIn, item) != null
+                        : isSoldOut(item));
+                setDisable(outside || soldOut);
+                setStyle(outside ? "-fx-opacity: 0.35;"
+                        : soldOut ? "-fx-background-color: #e5e7eb; -fx-text-fill: #9ca3af;" : "");
+                setTooltip(soldOut ? new Tooltip("Sold out for the selected rooms") : null);
+            }
+        };
+    }
+
+    // A night is sold out when any selected room type has fewer free units than the selection asks for.
+    private boolean isSoldOut(LocalDate night) {
+        if (calendar == null) return false;
+        for (RoomSelection sel : selections) {
+            int left = calendar.remaining(sel.roomId(), night);
+            if (left >= 0 && left < sel.count()) return true;
+        }
+        return false;
+    }
+
+    // The first sold-out night of the stay [in, out), or null if every night has room.
+    private LocalDate firstSoldOutNight(LocalDate in, LocalDate out) {
+        if (calendar == null || in == null || out == null) return null;
+        for (LocalDate night = in; night.isBefore(out); night = night.plusDays(1)) {
+            if (isSoldOut(night)) return night;
+        }
+        return null;
+    }
+
+    private void showSoldOutStatus() {
+        LocalDate night = firstSoldOutNight(checkIn, checkOut);
+        if (night != null) {
+            showStatus("Selected rooms are sold out on " + night + ". Pick other dates.", true);
+        } else if (statusLabel != null && statusLabel.getText() != null && statusLabel.getText().startsWith("Selected rooms are sold out")) {
+            showStatus("", false);
+        }
+    }
+
     @FXML
     private void onClose() {
-        Stage s = (Stage) checkInLabel.getScene().getWindow();
+        Stage s = (Stage) cardRoot.getScene().getWindow();
         s.close();
     }
 
@@ -157,6 +268,11 @@ public class HotelBookingDialogController {
             showStatus("Select dates first.", true);
             return;
         }
+        LocalDate soldOut = firstSoldOutNight(checkIn, checkOut);
+        if (soldOut != null) {
+            showStatus("Selected rooms are sold out on " + soldOut + ". Pick other dates.", true);
+            return;
+        }
         if (selections == null || selections.isEmpty()) {
             showStatus("No rooms selected.", true);
             return;
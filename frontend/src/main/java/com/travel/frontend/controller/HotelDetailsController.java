@@ -143,8 +143,8 @@ public class HotelDetailsController {
         final UUID fetchId = destId;
         new Thread(() -> {
             try {
-                var hotels = api.getHotelsForDestination(fetchId);
-                DataCache.put("hotels:list:" + CACHE_VERSION + ":" + fetchId, new ArrayList<>(hotels));
+                var page = api.getHotelPage(fetchId, null, null, 0, "popularity", null);
+                DataCache.put("hotels:list:" + CACHE_VERSION + ":" + fetchId, page);
             } catch (Exception ignored) {
                 // silently skip; fallback to normal fetch
             }
@@ -3,9 +3,10 @@ package com.travel.frontend.controller;
 import com.travel.frontend.cache.DataCache;
 import com.travel.frontend.cache.FileCache;
 import com.travel.frontend.controller.DestinationsController.DestinationCard;
+import com.travel.frontend.model.HotelCalendar;
+import com.travel.frontend.model.HotelPage;
 import com.travel.frontend.net.ApiClient;
 import com.travel.frontend.ui.Navigator;
-import com.fasterxml.jackson.core.type.TypeReference;
 import javafx.fxml.FXML;
 import javafx.geometry.Pos;
 import javafx.scene.control.Alert;
@@ -13,6 +14,7 @@ import javafx.scene.control.DateCell;
 import javafx.scene.control.DatePicker;
 import javafx.scene.control.Label;
 import javafx.scene.control.OverrunStyle;
+import javafx.scene.control.Tooltip;
 import javafx.scene.input.MouseEvent;
 import javafx.scene.layout.Priority;
 import javafx.scene.layout.HBox;
@@ -35,7 +37,8 @@ import java.time.LocalDate;
 import java.util.UUID;
 import java.util.List;
 import java.util.ArrayList;
-import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Map;
 import java.util.stream.Collectors;
 
 /**
@@ -66,11 +69,20 @@ public class HotelSearchController {
     private int guestCount = 2;
     private final ApiClient api = ApiClient.get();
     private final List<HotelCard> hotelCache = new ArrayList<>();
+    private String nextCursor;
+    private int loadToken;
+    private javafx.scene.control.Button loadMoreButton;
     private UUID currentDestinationId;
     private boolean searchMode = false;
     private LocalDate searchCheckIn;
     private LocalDate searchCheckOut;
     private static final String CACHE_VERSION = "v2";
+    // Calendars are fetched for at most this many listed hotels per page, covering every pickable night.
+    private static final int MAX_CALENDAR_HOTELS = 20;
+    private static final int CALENDAR_DAYS = 46;
+    private final Map<UUID, HotelCalendar> calendars = new HashMap<>();
+    private int calendarToken;
+    private static final String SORT_POPULARITY = "popularity";
 
     @FXML
     private void initialize() {
@@ -105,7 +117,7 @@ public class HotelSearchController {
         }
         if (sortBox != null) {
             sortBox.getSelectionModel().select("Popularity");
-            sortBox.getSelectionModel().selectedItemProperty().addListener((obs, o, n) -> applySortAndRender());
+            sortBox.getSelectionModel().selectedItemProperty().addListener((obs, o, n) -> reloadFirstPage());
         }
         loadHotelCount();
         setupSearchButtonAnimation();
@@ -148,7 +160,7 @@ public class HotelSearchController {
 
         LocalDate minCheckIn = LocalDate.now().plusDays(1);
         LocalDate maxCheckIn = minCheckIn.plusDays(30);
-        checkInPicker.setDayCellFactory(picker -> disableOutsideRange(picker, minCheckIn, maxCheckIn));
+        checkInPicker.setDayCellFactory(picker -> disableOutsideRange(picker, minCheckIn, maxCheckIn, false));
         LocalDate cachedIn = DataCache.peek("hotel:checkIn");
         LocalDate cachedOut = DataCache.peek("hotel:checkOut");
         LocalDate effectiveIn = (cachedIn != null) ? cachedIn : minCheckIn;
@@ -186,10 +198,13 @@ public class HotelSearchController {
         LocalDate checkIn = checkInPicker.getValue();
         LocalDate minCheckout = (checkIn == null ? LocalDate.now().plusDays(2) : checkIn.plusDays(1));
         LocalDate maxCheckout = (checkIn == null ? minCheckout.plusDays(14) : checkIn.plusDays(14));
-        checkOutPicker.setDayCellFactory(picker -> disableOutsideRange(picker, minCheckout, maxCheckout));
+        checkOutPicker.setDayCellFactory(picker -> disableOutsideRange(picker, minCheckout, maxCheckout, true));
     }
 
-    private DateCell disableOutsideRange(DatePicker picker, LocalDate minDate, LocalDate maxDate) {
+    /* Out-of-range days are disabled. Nights sold out at every listed hotel whose calendar has loaded are greyed
+       but stay pickable: hotels further down the list (or past the calendar cap) may still have rooms.
+       A check-out cell stands for the night before it. */
+    private DateCell disableOutsideRange(DatePicker picker, LocalDate minDate, LocalDate maxDate, boolean checkout) {
         return new DateCell() {
             @Override
             public void updateItem(LocalDate item, boolean empty) {
@@ -197,12 +212,66 @@ public class HotelSearchController {
                 boolean tooEarly = minDate != null && item.isBefore(minDate);
                 boolean tooLate = maxDate != null && item.isAfter(maxDate);
                 boolean disable = empty || tooEarly || tooLate;
+                boolean soldOut = !disable && soldOutEverywhere(checkout ? item.minusDays(1) : item);
                 setDisable(disable);
-                setStyle(disable ? "-fx-opacity: 0.35;" : "");
+                setStyle(disable ? "-fx-opacity: 0.35;"
+                        : soldOut ? "-fx-background-color: #e5e7eb; -fx-text-fill: #9ca3af;" : "");
+                setTooltip(soldOut ? new Tooltip("Sold out at every hotel listed") : null);
             }
         };
     }
 
+    private boolean soldOutEverywhere(LocalDate night) {
+        if (calendars.isEmpty()) return false;
+        for (HotelCalendar cal : calendars.values()) {
+            if (!cal.isSoldOut(night)) return false;
+        }
+        return true;
+    }
+
+    /* Fetches the listed hotels' calendars in the background and re-renders the pickers once they arrive.
+       A newer first page drops calendars that were still loading for the old list. */
+    private void loadCalendars(List<HotelCard> items, boolean reset) {
+        if (reset) {
+            calendars.clear();
+            calendarToken++;
+        }
+        final int token = calendarToken;
+        List<UUID> ids = new ArrayList<>();
+        for (HotelCard h : items) {
+            if (ids.size() >= MAX_CALENDAR_HOTELS) break;
+            try {
+                ids.add(UUID.fromString(h.id));
+            } catch (Exception ignore) { }
+        }
+        if (ids.isEmpty()) return;
+        LocalDate from = LocalDate.now().plusDays(1);
+        LocalDate to = from.plusDays(CALENDAR_DAYS);
+        new Thread(() -> {
+            Map<UUID, HotelCalendar> loaded = new HashMap<>();
+            for (UUID id : ids) {
+                try {
+                    loaded.put(id, api.getHotelCalendar(id, from, to));
+                } catch (Exception ignore) {
+                    // No calendar just means no greying for this hotel.
+                }
+            }
+            javafx.application.Platform.runLater(() -> {
+                if (token != calendarToken || loaded.isEmpty()) return;
+                calendars.putAll(loaded);
+                refreshDayCells();
+            });
+        }).start();
+    }
+
+    private void refreshDayCells() {
+        if (checkInPicker == null || checkOutPicker == null) return;
+        LocalDate minCheckIn = LocalDate.now().plusDays(1);
+        LocalDate maxCheckIn = minCheckIn.plusDays(30);
+        checkInPicker.setDayCellFactory(picker -> disableOutsideRange(picker, minCheckIn, maxCheckIn, false));
+        refreshCheckOutFactory();
+    }
+
     private void updateGuestLabels() {
         if (guestValue != null) {
             guestValue.setText(guestCount + (guestCount == 1 ? " Guest" : " Guests"));
@@ -249,113 +318,102 @@ public class HotelSearchController {
             searchMode = false;
         }
 
-        String cacheKey = "hotels:list:" + CACHE_VERSION + ":" + card.id;
-        List<HotelCard> cached = DataCache.peek(cacheKey);
-        if (cached != null) {
-            hotelCache.clear();
-            hotelCache.addAll(cached);
-            propertiesCountLabel.setText(hotelCache.size() + " properties found");
-            applySortAndRender();
-            return; // show cached list instantly; only refresh on explicit reload/search
+        // The first popularity page is kept in memory so coming back to this screen is instant.
+        HotelPage cached = DataCache.peek("hotels:list:" + CACHE_VERSION + ":" + card.id);
+        if (cached != null && !isSearching() && SORT_POPULARITY.equals(sortParam())) {
+            showPage(cached, true);
+            return; // only refresh on explicit reload/search
         }
-        loadHotelsWithCache(card.id);
+        loadPage(card.id, true);
     }
 
-    private void loadHotelsWithCache(UUID destinationId) {
-        if (searchMode) return;
-        new Thread(() -> {
-            try {
-                String key = "hotels_" + CACHE_VERSION + "_" + destinationId;
-                List<HotelCard> hotels = FileCache.getOrLoad(
-                        key,
-                        new TypeReference<List<HotelCard>>(){},
-                        () -> {
-                            try {
-                                return api.getHotelsForDestination(destinationId);
-                            } catch (Exception e) {
-                                throw new RuntimeException(e);
-                            }
-                        });
-                hotelCache.clear();
-                hotelCache.addAll(hotels);
-                DataCache.put("hotels:list:" + CACHE_VERSION + ":" + destinationId, new ArrayList<>(hotels));
-                javafx.application.Platform.runLater(() -> {
-                    if (propertiesCountLabel != null) {
-                        propertiesCountLabel.setText(hotels.size() + " properties found");
-                    }
-                    applySortAndRender();
-                });
-            } catch (Exception e) {
-                javafx.application.Platform.runLater(() -> {
-                    hotelsList.getChildren().setAll(new Label("Failed to load hotels: " + e.getMessage()));
-                });
-            }
-        }).start();
+    private boolean isSearching() {
+        return searchMode && searchCheckIn != null && searchCheckOut != null;
+    }
+
+    // Sort mode understood by the backend; plain "Popularity" means the weighted score once dates are set.
+    private String sortParam() {
+        String option = sortBox != null ? sortBox.getSelectionModel().getSelectedItem() : null;
+        if ("Price: Low to High".equals(option)) return "price_asc";
+        if ("Price: High to Low".equals(option)) return "price_desc";
+        return isSearching() ? "best" : SORT_POPULARITY;
     }
 
-    private void fetchFilteredHotels(UUID destinationId, LocalDate in, LocalDate out) {
+    /* Fetches one page from the backend, which filters, ranks and pages the hotels.
+       reset starts from the first page; otherwise the next page is appended. */
+    private void loadPage(UUID destinationId, boolean reset) {
+        final int token = ++loadToken;
+        final String cursor = reset ? null : nextCursor;
+        final boolean dated = isSearching();
+        final LocalDate in = searchCheckIn;
+        final LocalDate out = searchCheckOut;
+        final String sort = sortParam();
+        final int guests = guestCount;
         new Thread(() -> {
             try {
-                List<HotelCard> hotels = api.getHotelsForDestination(destinationId, in, out);
-                scoreForSearch(hotels); // precompute scores once
-                hotelCache.clear();
-                hotelCache.addAll(hotels);
+                HotelPage page = api.getHotelPage(destinationId, dated ? in : null, dated ? out : null,
+                        dated ? guests : 0, sort, cursor);
                 javafx.application.Platform.runLater(() -> {
-                    DataCache.put("hotels:list:" + CACHE_VERSION + ":" + destinationId, new ArrayList<>(hotels));
-                    DataCache.put("hotel:lastSearch", true);
-                    if (propertiesCountLabel != null) {
-                        propertiesCountLabel.setText(hotels.size() + " properties found");
+                    if (token != loadToken) return; // a newer search or sort superseded this one
+                    if (reset && !dated && SORT_POPULARITY.equals(sort)) {
+                        DataCache.put("hotels:list:" + CACHE_VERSION + ":" + destinationId, page);
                     }
-                    applySortAndRender();
+                    if (dated) DataCache.put("hotel:lastSearch", true);
+                    showPage(page, reset);
                 });
             } catch (Exception e) {
-                javafx.application.Platform.runLater(() -> hotelsList.getChildren().setAll(new Label("Search failed: " + e.getMessage())));
+                javafx.application.Platform.runLater(() -> {
+                    if (token != loadToken) return;
+                    String prefix = dated ? "Search failed: " : "Failed to load hotels: ";
+                    hotelsList.getChildren().setAll(new Label(prefix + e.getMessage()));
+                });
             }
         }).start();
     }
 
-    private void applySortAndRender() {
+    private void showPage(HotelPage page, boolean reset) {
+        List<HotelCard> items = page.items == null ? List.of() : page.items;
+        if (reset) hotelCache.clear();
+        hotelCache.addAll(items);
+        nextCursor = page.nextCursor;
+        if (propertiesCountLabel != null) {
+            propertiesCountLabel.setText(page.total + " properties found");
+        }
         if (hotelsList == null) return;
-        String option = sortBox != null ? sortBox.getSelectionModel().getSelectedItem() : "Popularity";
-        List<HotelCard> sorted = new ArrayList<>(hotelCache);
-        if (searchMode) {
-            scoreForSearch(sorted);
-            sorted.sort(Comparator.comparingDouble((HotelCard h) -> h.score).reversed());
-        } else {
-            Comparator<HotelCard> byRating = Comparator.comparingDouble(h -> h.rating == null ? 0 : h.rating.doubleValue());
-            Comparator<HotelCard> byPrice = Comparator.comparingDouble(this::effectivePrice);
-            switch (option == null ? "Popularity" : option) {
-                case "Price: Low to High" -> sorted.sort(byPrice);
-                case "Price: High to Low" -> sorted.sort(byPrice.reversed());
-                default -> sorted.sort(byRating.reversed());
-            }
+        if (reset) {
+            hotelsList.getChildren().clear();
+        } else if (loadMoreButton != null) {
+            hotelsList.getChildren().remove(loadMoreButton);
+        }
+        for (HotelCard h : items) {
+            hotelsList.getChildren().add(createHotelCard(h));
         }
-        renderHotels(sorted);
-    }
-
-    private void scoreForSearch(List<HotelCard> hotels) {
-        double minPrice = hotels.stream().mapToDouble(this::effectivePrice).filter(v -> v > 0 && v < Double.MAX_VALUE).min().orElse(0);
-        double maxPrice = hotels.stream().mapToDouble(this::effectivePrice).filter(v -> v > 0 && v < Double.MAX_VALUE).max().orElse(minPrice + 1);
-        double priceRange = Math.max(1, maxPrice - minPrice);
-        int assumedCap = 2;
-        int requiredRooms = Math.max(1, (int) Math.ceil((double) guestCount / assumedCap));
-
-        for (HotelCard h : hotels) {
-            double remain = h.availableRooms == null ? 0 : h.availableRooms;
-            double availFit = Math.max(0, Math.min(1, remain / requiredRooms));
-            double ratingScore = (h.rating == null ? 0 : h.rating.doubleValue()) / 5.0;
-            double priceVal = effectivePrice(h);
-            double priceScore = priceVal == Double.MAX_VALUE ? 0 : 1 - Math.max(0, Math.min(1, (priceVal - minPrice) / priceRange));
-            double popBoost = remain > 5 ? 0.6 : 0.5;
-            h.score = 0.35 * availFit + 0.30 * ratingScore + 0.25 * priceScore + 0.10 * popBoost;
+        loadCalendars(items, reset);
+        if (nextCursor != null) {
+            hotelsList.getChildren().add(loadMoreButton());
         }
     }
 
-    private void renderHotels(List<HotelCard> hotels) {
-        hotelsList.getChildren().clear();
-        for (HotelCard h : hotels) {
-            hotelsList.getChildren().add(createHotelCard(h));
+    private javafx.scene.control.Button loadMoreButton() {
+        if (loadMoreButton == null) {
+            loadMoreButton = new javafx.scene.control.Button("Load more hotels");
+            loadMoreButton.getStyleClass().add("hotelSelectBtn");
+            loadMoreButton.setOnAction(e -> {
+                if (currentDestinationId == null || nextCursor == null) return;
+                loadMoreButton.setDisable(true);
+                loadPage(currentDestinationId, false);
+            });
+        }
+        loadMoreButton.setDisable(false);
+        return loadMoreButton;
+    }
+
+    private void reloadFirstPage() {
+        if (currentDestinationId == null) return;
+        if (propertiesCountLabel != null) {
+            propertiesCountLabel.setText("Loading properties...");
         }
+        loadPage(currentDestinationId, true);
     }
 
     private javafx.scene.Node createHotelCard(HotelCard h) {
@@ -530,11 +588,6 @@ public class HotelSearchController {
         return "BDT " + p.stripTrailingZeros().toPlainString();
     }
 
-    private double effectivePrice(HotelCard h) {
-        if (h.currentPrice != null) return h.currentPrice.doubleValue();
-        if (h.realPrice != null) return h.realPrice.doubleValue();
-        return Double.MAX_VALUE;
-    }
 
     private String formatRating(java.math.BigDecimal r) {
         if (r == null) return "N/A";
@@ -590,7 +643,6 @@ public class HotelSearchController {
         public java.math.BigDecimal realPrice;
         public java.math.BigDecimal currentPrice;
         public Integer availableRooms;
-        public double score;
     }
 
     @FXML
@@ -665,7 +717,8 @@ public class HotelSearchController {
         if (propertiesCountLabel != null) {
             propertiesCountLabel.setText("Searching...");
         }
-        fetchFilteredHotels(card.id, in, out);
+        currentDestinationId = card.id;
+        loadPage(card.id, true);
     }
 
     @FXML
@@ -691,10 +744,7 @@ public class HotelSearchController {
             propertiesCountLabel.setText("Refreshing...");
         }
 
-        if (searchMode && searchCheckIn != null && searchCheckOut != null) {
-            fetchFilteredHotels(destId, searchCheckIn, searchCheckOut);
-        } else {
-            loadHotelsWithCache(destId);
-        }
+        currentDestinationId = destId;
+        loadPage(destId, true);
     }
 }
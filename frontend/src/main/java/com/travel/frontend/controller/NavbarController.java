@@ -2,6 +2,7 @@ package com.travel.frontend.controller;
 
 import com.travel.frontend.cache.DataCache;
 import com.travel.frontend.ui.Navigator;
+import com.travel.frontend.net.ApiClient;
 import com.travel.frontend.session.Session;
 import com.travel.frontend.admin.AdminSession;
 import javafx.animation.*;
@@ -45,6 +46,7 @@ public class NavbarController {
         aboutBtn.setOnAction(e -> Navigator.goAbout());
         logoutBtn.setOnAction(e -> {
             DataCache.clear();
+            ApiClient.get().clearValidated();
             Session.clear();
             AdminSession.clear();
             Navigator.goLogin();
@@ -3,8 +3,7 @@
    Uses cached API responses so re-opening the same package feels instant. */
 package com.travel.frontend.controller;
 
-import com.fasterxml.jackson.databind.ObjectMapper;
-import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.fasterxml.jackson.core.type.TypeReference;
 import com.travel.frontend.cache.DataCache;
 import com.travel.frontend.net.ApiClient;
 import javafx.application.Platform;
@@ -76,7 +75,6 @@ public class PackageDetailsController {
     @FXML private Label startAfterLabel;
 
     private final ApiClient api = ApiClient.get();
-    private final ObjectMapper mapper = new ObjectMapper().registerModule(new JavaTimeModule());
     private UUID packageId;
     private BigDecimal basePrice;
     private java.time.LocalDate bookingDeadline;
@@ -115,9 +113,8 @@ public class PackageDetailsController {
         new Thread(() -> {
             try {
                 PackageDetailsVM vm = DataCache.getOrLoad("pkg:" + CACHE_VERSION + ":" + packageId, () -> {
-                    var res = api.rawGet("/packages/" + packageId, true);
-                    if (res.statusCode() != 200) throw new ApiClient.ApiException("Failed to load package");
-                    return mapper.readValue(res.body(), PackageDetailsVM.class);
+                    return api.getJson("/packages/" + packageId, true,
+                            new TypeReference<PackageDetailsVM>() {}, "Failed to load package");
                 });
                 Platform.runLater(() -> fill(vm));
             } catch (Exception e) {
@@ -5,7 +5,6 @@
 package com.travel.frontend.controller;
 
 import com.fasterxml.jackson.core.type.TypeReference;
-import com.fasterxml.jackson.databind.ObjectMapper;
 import com.travel.frontend.net.ApiClient;
 import com.travel.frontend.cache.DataCache;
 import com.travel.frontend.cache.FileCache;
@@ -45,7 +44,6 @@ public class PackagesController {
     @FXML private NavbarController navbarController;
 
     private final ApiClient api = ApiClient.get();
-    private final ObjectMapper mapper = new ObjectMapper();
     private static final String CACHE_VERSION = "v2";
 
     /* JavaFX lifecycle hook that kicks off the first load so visitors instantly
@@ -70,11 +68,8 @@ public class PackagesController {
                             new TypeReference<List<PackageCard>>(){},
                             () -> {
                                 try {
-                                    var res = api.rawGet("/packages", true);
-                                    if (res.statusCode() != 200) {
-                                        throw new ApiClient.ApiException("Failed to load packages");
-                                    }
-                                    holder[0] = mapper.readValue(res.body(), new TypeReference<List<PackageCard>>(){});
+                                    holder[0] = api.getJson("/packages", true,
+                                            new TypeReference<List<PackageCard>>(){}, "Failed to load packages");
                                     return holder[0];
                                 } catch (Exception ex) {
                                     throw new RuntimeException(ex);
@@ -0,0 +1,12 @@
+package com.travel.frontend.model;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+
+import java.util.List;
+
+/* One keyset page of an admin booking listing; nextCursor is null on the last page. */
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class BookingPage<T> {
+    public List<T> items;
+    public String nextCursor;
+}
@@ -1,9 +1,42 @@
 package com.travel.frontend.model;
 
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.Function;
 
 public class HistoryResponse {
     public List<HistoryRoomItem> rooms;
     public List<HistoryPackageItem> packages;
-}
+    // Pass to ApiClient.getHistoryChanges to fetch only what changed after this response.
+    public String cursor;
+
+    /* A new history with the bookings from changes (a /history/changes response)
+       replacing or added to ours, newest first, carrying the newer cursor.
+       Neither input is modified, so callers may keep sharing the old one. */
+    public HistoryResponse merge(HistoryResponse changes) {
+        HistoryResponse merged = new HistoryResponse();
+        merged.rooms = mergeById(rooms, changes.rooms, r -> r.id, r -> r.createdAt);
+        merged.packages = mergeById(packages, changes.packages, p -> p.id, p -> p.createdAt);
+        merged.cursor = changes.cursor != null ? changes.cursor : cursor;
+        return merged;
+    }
 
+    public boolean isEmpty() {
+        return (rooms == null || rooms.isEmpty()) && (packages == null || packages.isEmpty());
+    }
+
+    private static <T> List<T> mergeById(List<T> current, List<T> changed, Function<T, UUID> id, Function<T, Instant> createdAt) {
+        if (changed == null || changed.isEmpty()) return current;
+        Map<UUID, T> byId = new LinkedHashMap<>();
+        if (current != null) for (T item : current) byId.put(id.apply(item), item);
+        for (T item : changed) byId.put(id.apply(item), item);
+        List<T> out = new ArrayList<>(byId.values());
+        out.sort(Comparator.comparing(createdAt, Comparator.nullsLast(Comparator.reverseOrder())));
+        return out;
+    }
+}
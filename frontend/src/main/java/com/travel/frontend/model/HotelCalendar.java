@@ -0,0 +1,47 @@
+package com.travel.frontend.model;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.UUID;
+
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class HotelCalendar {
+    public UUID hotelId;
+    public LocalDate from;
+    public LocalDate to;
+    public List<RoomCalendar> rooms;
+
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    public static class RoomCalendar {
+        public UUID roomId;
+        public String name;
+        public Integer totalRooms;
+        public int[] remaining;
+    }
+
+    // True when no room type has a free unit on the given night (or the night is outside the fetched window).
+    public boolean isSoldOut(LocalDate night) {
+        if (night == null || from == null || rooms == null) return false;
+        long idx = night.toEpochDay() - from.toEpochDay();
+        if (idx < 0) return false;
+        for (RoomCalendar r : rooms) {
+            if (r.remaining == null || idx >= r.remaining.length) return false;
+            if (r.remaining[(int) idx] > 0) return false;
+        }
+        return !rooms.isEmpty();
+    }
+
+    // Free units of one room type on the given night, or -1 when unknown (no such room or outside the fetched window).
+    public int remaining(UUID roomId, LocalDate night) {
+        if (roomId == null || night == null || from == null || rooms == null) return -1;
+        long idx = night.toEpochDay() - from.toEpochDay();
+        for (RoomCalendar r : rooms) {
+            if (!roomId.equals(r.roomId)) continue;
+            if (r.remaining == null || idx < 0 || idx >= r.remaining.length) return -1;
+            return r.remaining[(int) idx];
+        }
+        return -1;
+    }
+}
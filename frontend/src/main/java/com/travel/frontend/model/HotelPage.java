@@ -0,0 +1,15 @@
+package com.travel.frontend.model;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.travel.frontend.controller.HotelSearchController.HotelCard;
+
+import java.util.List;
+
+/* One page of a destination's hotels as ranked by the backend. */
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class HotelPage {
+    public List<HotelCard> items;
+    public int total;
+    public String sort;
+    public String nextCursor;
+}
@@ -10,8 +10,12 @@ import com.travel.frontend.session.Session;
 
 import java.net.URI;
 import java.net.http.HttpClient;
+import java.net.http.HttpHeaders;
 import java.net.http.HttpRequest;
 import java.net.http.HttpResponse;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
 
 public final class ApiClient {
 
@@ -24,9 +28,32 @@ public final class ApiClient {
 
     // Change base URL if your backend runs elsewhere
     private static final String BASE = "http://localhost:8080/api";
+    private static final int HOTEL_PAGE_SIZE = 20;
+    private static final int ADMIN_BOOKING_PAGE_SIZE = 100;
+
+    /* Last ETag and body per signed-in token and GET path (only for responses
+       that carry an ETag). get() sends the tag back as If-None-Match and replays
+       the stored body on 304, so revalidating a catalog list is a header round
+       trip. Keyed by token so one account never sees another's stored body;
+       least recently used entries go past MAX_VALIDATED, and logout clears it. */
+    private static final int MAX_VALIDATED = 256;
+    private final Map<ValidatedKey, Validated> validated = new LinkedHashMap<>(64, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<ValidatedKey, Validated> eldest) {
+            return size() > MAX_VALIDATED;
+        }
+    };
 
     private ApiClient() {}
 
+    /* Forgets every stored ETag and body; called on logout so nothing the
+       previous account loaded stays in memory. */
+    public void clearValidated() {
+        synchronized (validated) {
+            validated.clear();
+        }
+    }
+
     // --- Auth ---
     /* Sends an auth request with email/password JSON, using HttpClient to post
        to /auth/login and storing the JWT in Session on success. */
@@ -148,6 +175,32 @@ public final class ApiClient {
     public HttpResponse<String> rawGet(String path, boolean withAuth) throws ApiException {
         return get(path, withAuth);
     }
+    /* GET + parse for ETag-backed endpoints: when the server answers 304 the
+       object parsed last time is returned as-is, skipping the JSON parse too.
+       Callers must treat the result as read-only since it may be shared. */
+    public <T> T getJson(String path, boolean withAuth,
+                         com.fasterxml.jackson.core.type.TypeReference<T> type,
+                         String failMessage) throws ApiException {
+        HttpResponse<String> res = get(path, withAuth);
+        if (res.statusCode() != 200) throw error(res, failMessage);
+        ValidatedKey key = validatedKey(path, withAuth);
+        Validated v = validated(key);
+        // Same String instance means the body came from (or was just stored in) the validator entry.
+        boolean tracked = v != null && v.body() == res.body();
+        if (tracked && v.parsed() != null && type.getType().equals(v.parsedType())) {
+            @SuppressWarnings("unchecked")
+            T cached = (T) v.parsed();
+            return cached;
+        }
+        try {
+            T value = mapper.readValue(res.body(), type);
+            if (tracked) remember(key, new Validated(v.etag(), v.body(), type.getType(), value));
+            return value;
+        } catch (Exception e) {
+            throw new ApiException("Invalid response from " + path, e);
+        }
+    }
+
     /* Posts arbitrary JSON to an endpoint, honoring the withAuth flag to add
        the Bearer header when sessions exist. */
     public HttpResponse<String> rawPostJson(String path, String body, boolean withAuth) throws ApiException {
@@ -167,36 +220,25 @@ public final class ApiClient {
         throw error(res, "Load hotel count failed");
     }
 
-    public java.util.List<com.travel.frontend.controller.HotelSearchController.HotelCard> getHotelsForDestination(java.util.UUID destinationId) throws ApiException {
-        HttpResponse<String> res = get("/destinations/" + destinationId + "/hotels", false);
-        if (res.statusCode() == 200) {
-            try {
-                return mapper.readValue(res.body(),
-                        mapper.getTypeFactory().constructCollectionType(java.util.List.class,
-                                com.travel.frontend.controller.HotelSearchController.HotelCard.class));
-            } catch (Exception e) {
-                throw new ApiException("Invalid hotel list response", e);
-            }
-        }
-        throw error(res, "Load hotels failed");
-    }
-
-    public java.util.List<com.travel.frontend.controller.HotelSearchController.HotelCard> getHotelsForDestination(java.util.UUID destinationId, java.time.LocalDate checkIn, java.time.LocalDate checkOut) throws ApiException {
-        String path = "/destinations/" + destinationId + "/hotels";
+    /* One page of hotels for a destination, ranked and filtered on the server.
+       Dates, guests, sort and cursor are optional; pass the previous page's
+       nextCursor to continue. */
+    public com.travel.frontend.model.HotelPage getHotelPage(java.util.UUID destinationId,
+                                                            java.time.LocalDate checkIn,
+                                                            java.time.LocalDate checkOut,
+                                                            int guests,
+                                                            String sort,
+                                                            String cursor) throws ApiException {
+        StringBuilder path = new StringBuilder("/destinations/" + destinationId + "/hotels?limit=" + HOTEL_PAGE_SIZE);
         if (checkIn != null && checkOut != null) {
-            path += "?checkIn=" + checkIn + "&checkOut=" + checkOut;
+            path.append("&checkIn=").append(checkIn).append("&checkOut=").append(checkOut);
         }
-        HttpResponse<String> res = get(path, false);
-        if (res.statusCode() == 200) {
-            try {
-                return mapper.readValue(res.body(),
-                        mapper.getTypeFactory().constructCollectionType(java.util.List.class,
-                                com.travel.frontend.controller.HotelSearchController.HotelCard.class));
-            } catch (Exception e) {
-                throw new ApiException("Invalid hotel list response", e);
-            }
-        }
-        throw error(res, "Load hotels failed");
+        if (guests > 0) path.append("&guests=").append(guests);
+        if (sort != null) path.append("&sort=").append(sort);
+        if (cursor != null) path.append("&cursor=").append(java.net.URLEncoder.encode(cursor, java.nio.charset.StandardCharsets.UTF_8));
+        return getJson(path.toString(), false,
+                new com.fasterxml.jackson.core.type.TypeReference<com.travel.frontend.model.HotelPage>() {},
+                "Load hotels failed");
     }
 
     public com.travel.frontend.model.HotelDetails getHotelDetails(java.util.UUID hotelId) throws ApiException {
@@ -221,14 +263,31 @@ public final class ApiClient {
         throw error(res, "Load hotel details failed");
     }
 
+    /* Fetches remaining rooms per room type per night so date pickers can
+       grey out sold-out nights without trial searches. */
+    public com.travel.frontend.model.HotelCalendar getHotelCalendar(java.util.UUID hotelId,
+                                                                    java.time.LocalDate from,
+                                                                    java.time.LocalDate to) throws ApiException {
+        HttpResponse<String> res = get("/destinations/hotels/" + hotelId + "/calendar?from=" + from + "&to=" + to, false);
+        if (res.statusCode() == 200) {
+            try {
+                return mapper.readValue(res.body(), com.travel.frontend.model.HotelCalendar.class);
+            } catch (Exception e) {
+                throw new ApiException("Invalid hotel calendar response", e);
+            }
+        }
+        throw error(res, "Load hotel calendar failed");
+    }
+
     // --- Admin bookings (all) ---
-    public java.util.List<com.travel.frontend.model.PackageBookingAdminView> getAllPackageBookings() throws ApiException {
-        HttpResponse<String> res = get("/admin/packages/bookings", true);
+    /* Admin booking listings are paged newest-first; pass null for the first
+       page and the previous page's nextCursor after that. */
+    public com.travel.frontend.model.BookingPage<com.travel.frontend.model.PackageBookingAdminView> getPackageBookingsPage(String cursor) throws ApiException {
+        HttpResponse<String> res = get("/admin/packages/bookings" + pageQuery(cursor), true);
         if (res.statusCode() == 200) {
             try {
                 return mapper.readValue(res.body(),
-                        mapper.getTypeFactory().constructCollectionType(java.util.List.class,
-                                com.travel.frontend.model.PackageBookingAdminView.class));
+                        new com.fasterxml.jackson.core.type.TypeReference<com.travel.frontend.model.BookingPage<com.travel.frontend.model.PackageBookingAdminView>>() {});
             } catch (Exception e) {
                 throw new ApiException("Invalid bookings response", e);
             }
@@ -236,13 +295,12 @@ public final class ApiClient {
         throw error(res, "Load package bookings failed");
     }
 
-    public java.util.List<com.travel.frontend.model.RoomBookingAdminView> getAllRoomBookings() throws ApiException {
-        HttpResponse<String> res = get("/admin/rooms/bookings", true);
+    public com.travel.frontend.model.BookingPage<com.travel.frontend.model.RoomBookingAdminView> getRoomBookingsPage(String cursor) throws ApiException {
+        HttpResponse<String> res = get("/admin/rooms/bookings" + pageQuery(cursor), true);
         if (res.statusCode() == 200) {
             try {
                 return mapper.readValue(res.body(),
-                        mapper.getTypeFactory().constructCollectionType(java.util.List.class,
-                                com.travel.frontend.model.RoomBookingAdminView.class));
+                        new com.fasterxml.jackson.core.type.TypeReference<com.travel.frontend.model.BookingPage<com.travel.frontend.model.RoomBookingAdminView>>() {});
             } catch (Exception e) {
                 throw new ApiException("Invalid bookings response", e);
             }
@@ -250,6 +308,12 @@ public final class ApiClient {
         throw error(res, "Load room bookings failed");
     }
 
+    private static String pageQuery(String cursor) {
+        String q = "?limit=" + ADMIN_BOOKING_PAGE_SIZE;
+        if (cursor != null) q += "&cursor=" + java.net.URLEncoder.encode(cursor, java.nio.charset.StandardCharsets.UTF_8);
+        return q;
+    }
+
     // --- Cancellations ---
     public com.travel.frontend.model.BookingResponse cancelPackageBooking(java.util.UUID bookingId) throws ApiException {
         HttpResponse<String> res = post("/bookings/" + bookingId + "/cancel", "{}", true);
@@ -311,6 +375,45 @@ public final class ApiClient {
         throw error(res, "Load history failed");
     }
 
+    // Bookings created or changed since the cursor of an earlier history response; merge with HistoryResponse.merge.
+    public HistoryResponse getHistoryChanges(String cursor) throws ApiException {
+        HttpResponse<String> res = get("/history/changes?since=" + java.net.URLEncoder.encode(cursor, java.nio.charset.StandardCharsets.UTF_8), true);
+        if (res.statusCode() == 200) {
+            try {
+                return mapper.readValue(res.body(), HistoryResponse.class);
+            } catch (Exception e) {
+                throw new ApiException("Invalid history response", e);
+            }
+        }
+        throw error(res, "Load history changes failed");
+    }
+
+    /* Opens the booking event stream (Server-Sent Events). The returned lines
+       arrive as the server pushes them; closing the stream drops the
+       connection. lastEventId resumes after an event seen on an earlier stream. */
+    public HttpResponse<java.util.stream.Stream<String>> openEventStream(String lastEventId) throws ApiException {
+        try {
+            HttpRequest.Builder b = HttpRequest.newBuilder()
+                    .uri(URI.create(BASE + "/events/stream"))
+                    .header("Accept", "text/event-stream")
+                    .GET();
+            if (Session.isAuthenticated()) {
+                b.header("Authorization", "Bearer " + Session.getToken());
+            }
+            if (lastEventId != null) b.header("Last-Event-ID", lastEventId);
+            HttpResponse<java.util.stream.Stream<String>> res = http.send(b.build(), HttpResponse.BodyHandlers.ofLines());
+            if (res.statusCode() != 200) {
+                res.body().close();
+                throw new ApiException("Event stream failed: HTTP " + res.statusCode());
+            }
+            return res;
+        } catch (ApiException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new ApiException("Network error: " + e.getMessage(), e);
+        }
+    }
+
     public byte[] downloadInvoice(String kind, java.util.UUID id) throws ApiException {
         HttpResponse<byte[]> res = getBytes("/history/invoice/" + kind + "/" + id, true);
         if (res.statusCode() == 200) {
@@ -339,7 +442,8 @@ public final class ApiClient {
         }
     }
 
-    /* Shared GET path that handles Authorization header wiring before sending. */
+    /* Shared GET path that handles Authorization header wiring before sending,
+       plus If-None-Match revalidation for paths that returned an ETag before. */
     private HttpResponse<String> get(String path, boolean withAuth) throws ApiException {
         try {
             HttpRequest.Builder b = HttpRequest.newBuilder()
@@ -348,7 +452,21 @@ public final class ApiClient {
             if (withAuth && Session.isAuthenticated()) {
                 b.header("Authorization", "Bearer " + Session.getToken());
             }
-            return http.send(b.build(), HttpResponse.BodyHandlers.ofString());
+            ValidatedKey key = validatedKey(path, withAuth);
+            Validated v = validated(key);
+            if (v != null) {
+                b.header("If-None-Match", v.etag());
+            }
+            HttpResponse<String> res = http.send(b.build(), HttpResponse.BodyHandlers.ofString());
+            if (res.statusCode() == 304 && v != null) {
+                return new Revalidated(res, v.body());
+            }
+            if (res.statusCode() == 200) {
+                Optional<String> etag = res.headers().firstValue("ETag");
+                if (etag.isPresent()) remember(key, new Validated(etag.get(), res.body(), null, null));
+                else remember(key, null);
+            }
+            return res;
         } catch (Exception e) {
             throw new ApiException("Network error: " + e.getMessage(), e);
         }
@@ -398,6 +516,49 @@ public final class ApiClient {
         return new ApiException(msg);
     }
 
+    private record Validated(String etag, String body, java.lang.reflect.Type parsedType, Object parsed) {}
+
+    // token is null for requests sent without the Authorization header.
+    private record ValidatedKey(String token, String path) {}
+
+    private static ValidatedKey validatedKey(String path, boolean withAuth) {
+        return new ValidatedKey(withAuth && Session.isAuthenticated() ? Session.getToken() : null, path);
+    }
+
+    private Validated validated(ValidatedKey key) {
+        synchronized (validated) {
+            return validated.get(key);
+        }
+    }
+
+    // Stores v under key, or drops the entry when v is null.
+    private void remember(ValidatedKey key, Validated v) {
+        synchronized (validated) {
+            if (v == null) validated.remove(key);
+            else validated.put(key, v);
+        }
+    }
+
+    /* A 304 presented to callers as the 200 it stands for, carrying the stored body. */
+    private static final class Revalidated implements HttpResponse<String> {
+        private final HttpResponse<String> notModified;
+        private final String body;
+
+        Revalidated(HttpResponse<String> notModified, String body) {
+            this.notModified = notModified;
+            this.body = body;
+        }
+
+        @Override public int statusCode() { return 200; }
+        @Override public HttpRequest request() { return notModified.request(); }
+        @Override public Optional<HttpResponse<String>> previousResponse() { return notModified.previousResponse(); }
+        @Override public HttpHeaders headers() { return notModified.headers(); }
+        @Override public String body() { return body; }
+        @Override public Optional<javax.net.ssl.SSLSession> sslSession() { return notModified.sslSession(); }
+        @Override public URI uri() { return notModified.uri(); }
+        @Override public HttpClient.Version version() { return notModified.version(); }
+    }
+
     // --- Exception wrapper ---
     public static class ApiException extends Exception {
         public ApiException(String msg) { super(msg); }